@@ -0,0 +1,282 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.examples;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.CloudletSchedulerTimeShared;
+import org.cloudbus.cloudsim.Vm;
+
+/**
+ * Computes the start and finish time of every cloudlet and the makespan of a binding without
+ * running the discrete-event simulation, for vms using CloudletSchedulerSpaceShared.
+ * <p>
+ * Cloudlets are taken in submission order in a single pass. Every vm keeps the time each of its
+ * PEs becomes free; a cloudlet starts when as many PEs as it needs are free (but not before the
+ * submission time), and runs for length / mips. This is what CloudletSchedulerSpaceShared does as
+ * long as the host gives every vm its full mips and the cloudlets need no file transfers. The
+ * cloudlets of a vm using CloudletSchedulerTimeShared all start at the submission time and share
+ * the PEs, their finish times come from a {@link TimeSharedCompletionModel}.
+ * <p>
+ * Cloudlet and vm data are copied to primitive arrays once, so {@link #evaluate(int[], double)}
+ * can score thousands of candidate bindings per second.
+ */
+public class AnalyticalEvaluator {
+
+	/** The length of every cloudlet, in submission order. */
+	private final double[] length;
+
+	/** The PEs needed by every cloudlet. */
+	private final int[] cloudletPes;
+
+	/** The cloudlet id of every cloudlet. */
+	private final int[] cloudletIds;
+
+	/** The mips of one PE of every vm. */
+	private final double[] mips;
+
+	/** The runtime factor of every cloudlet on every vm, row-major, or null for none. */
+	private double[] runtimeFactor;
+
+	/** The time every PE of every vm becomes free; reset by each evaluation. */
+	private final double[][] peFreeTime;
+
+	/** The processor-sharing model of every time-shared vm, null for the others. */
+	private final TimeSharedCompletionModel[] timeShared;
+
+	/** Whether at least one vm is time-shared. */
+	private final boolean anyTimeShared;
+
+	/** The vm index of every vm id. */
+	private final Map<Integer, Integer> vmIndex;
+
+	/** The start time of every cloudlet in the last evaluation. */
+	private final double[] startTime;
+
+	/** The finish time of every cloudlet in the last evaluation. */
+	private final double[] finishTime;
+
+	/** The cloudlets, to read their current binding. */
+	private final List<? extends Cloudlet> cloudletList;
+
+	/**
+	 * Creates a new evaluator.
+	 *
+	 * @param cloudletList the cloudlets in the order they are submitted
+	 * @param vmList the vms
+	 * @pre cloudletList != null && vmList != null
+	 * @post $none
+	 */
+	public AnalyticalEvaluator(List<? extends Cloudlet> cloudletList, List<? extends Vm> vmList) {
+		this.cloudletList = cloudletList;
+		int cloudletNum = cloudletList.size();
+		length = new double[cloudletNum];
+		cloudletPes = new int[cloudletNum];
+		cloudletIds = new int[cloudletNum];
+		for (int i = 0; i < cloudletNum; i++) {
+			Cloudlet cloudlet = cloudletList.get(i);
+			length[i] = cloudlet.getCloudletLength();
+			cloudletPes[i] = cloudlet.getNumberOfPes();
+			cloudletIds[i] = cloudlet.getCloudletId();
+		}
+
+		int vmNum = vmList.size();
+		mips = new double[vmNum];
+		peFreeTime = new double[vmNum][];
+		timeShared = new TimeSharedCompletionModel[vmNum];
+		vmIndex = new HashMap<Integer, Integer>();
+		boolean found = false;
+		for (int j = 0; j < vmNum; j++) {
+			Vm vm = vmList.get(j);
+			mips[j] = vm.getMips();
+			peFreeTime[j] = new double[vm.getNumberOfPes()];
+			vmIndex.put(vm.getId(), j);
+			if (vm.getCloudletScheduler() instanceof CloudletSchedulerTimeShared) {
+				timeShared[j] = new TimeSharedCompletionModel(vm.getMips(), vm.getNumberOfPes());
+				found = true;
+			}
+		}
+		anyTimeShared = found;
+		startTime = new double[cloudletNum];
+		finishTime = new double[cloudletNum];
+	}
+
+	/**
+	 * Replaces the cloudlet lengths used by the next evaluations, e.g. with sampled actual lengths.
+	 *
+	 * @param lengths the length of every cloudlet, in submission order
+	 * @pre lengths.length == cloudlets
+	 * @post $none
+	 */
+	public void setLengths(double[] lengths) {
+		System.arraycopy(lengths, 0, length, 0, length.length);
+	}
+
+	/**
+	 * Multiplies the runtime of every cloudlet on every vm by a factor, such as the correction a
+	 * {@link RuntimeModel} learned (see {@link SuffrageScheduler#getRuntimeCorrection(int, int)}).
+	 * On a time-shared vm the cloudlet needs as much more work.
+	 *
+	 * @param factor the factor of every cloudlet on every vm, row-major in submission and vm
+	 *            order; null for none
+	 * @throws IllegalArgumentException if the matrix has the wrong size
+	 */
+	public void setRuntimeFactors(double[] factor) {
+		if (factor != null && factor.length != (long) length.length * mips.length) {
+			throw new IllegalArgumentException("Runtime factors need " + (long) length.length * mips.length
+					+ " cells, got " + factor.length);
+		}
+		runtimeFactor = factor;
+	}
+
+	/**
+	 * Evaluates the binding currently set on the cloudlets.
+	 *
+	 * @param submissionTime the time the cloudlets are submitted
+	 * @return the makespan
+	 * @throws IllegalArgumentException if a cloudlet is not bound to one of the vms
+	 */
+	public double evaluateBindings(double submissionTime) {
+		int[] assignment = new int[length.length];
+		for (int i = 0; i < assignment.length; i++) {
+			Integer index = vmIndex.get(cloudletList.get(i).getVmId());
+			if (index == null) {
+				throw new IllegalArgumentException("Cloudlet " + cloudletIds[i]
+						+ " is bound to unknown vm #" + cloudletList.get(i).getVmId());
+			}
+			assignment[i] = index;
+		}
+		return evaluate(assignment, submissionTime);
+	}
+
+	/**
+	 * Evaluates a binding.
+	 *
+	 * @param assignment the vm index of every cloudlet, in submission order
+	 * @param submissionTime the time the cloudlets are submitted
+	 * @return the makespan, the latest finish time
+	 */
+	public double evaluate(int[] assignment, double submissionTime) {
+		for (double[] free : peFreeTime) {
+			Arrays.fill(free, submissionTime);
+		}
+		if (anyTimeShared) {
+			for (TimeSharedCompletionModel model : timeShared) {
+				if (model != null) {
+					model.clear();
+				}
+			}
+		}
+		double makespan = submissionTime;
+		for (int i = 0; i < assignment.length; i++) {
+			int vm = assignment[i];
+			double work = runtimeFactor == null ? length[i]
+					: length[i] * runtimeFactor[i * mips.length + vm];
+			if (timeShared[vm] != null) {
+				// finished below, once every cloudlet sharing the vm is known
+				timeShared[vm].add(work, cloudletPes[i]);
+				startTime[i] = submissionTime;
+				continue;
+			}
+			double[] free = peFreeTime[vm];
+			int pes = Math.min(Math.max(cloudletPes[i], 1), free.length);
+
+			// the cloudlet starts when its pes-th PE becomes free; the PE times are kept sorted
+			double start = free[pes - 1];
+			double finish = start + work / mips[vm];
+			startTime[i] = start;
+			finishTime[i] = finish;
+			if (finish > makespan) {
+				makespan = finish;
+			}
+
+			// the first pes PEs are now busy until finish: move them after the PEs free earlier
+			int k = pes;
+			while (k < free.length && free[k] < finish) {
+				free[k - pes] = free[k];
+				k++;
+			}
+			for (int p = k - pes; p < k; p++) {
+				free[p] = finish;
+			}
+		}
+		if (anyTimeShared) {
+			for (int i = 0; i < assignment.length; i++) {
+				int vm = assignment[i];
+				TimeSharedCompletionModel model = timeShared[vm];
+				if (model != null) {
+					double work = runtimeFactor == null ? length[i]
+							: length[i] * runtimeFactor[i * mips.length + vm];
+					finishTime[i] = submissionTime + model.getFinishTime(work);
+					if (finishTime[i] > makespan) {
+						makespan = finishTime[i];
+					}
+				}
+			}
+		}
+		return makespan;
+	}
+
+	/**
+	 * Gets the start time of a cloudlet in the last evaluation.
+	 *
+	 * @param index the position of the cloudlet in submission order
+	 * @return the start time
+	 */
+	public double getStartTime(int index) {
+		return startTime[index];
+	}
+
+	/**
+	 * Gets the finish time of a cloudlet in the last evaluation.
+	 *
+	 * @param index the position of the cloudlet in submission order
+	 * @return the finish time
+	 */
+	public double getFinishTime(int index) {
+		return finishTime[index];
+	}
+
+	/**
+	 * Compares the last evaluation with the results of a simulation. A returned cloudlet may be
+	 * the member of an evaluated {@link CompositeCloudlet}: a member finishes when its composite
+	 * returns, so it is compared with the predicted finish time of the composite.
+	 *
+	 * @param receivedList the cloudlets returned by the simulation
+	 * @return the largest absolute difference between a predicted and a simulated finish time
+	 * @throws IllegalArgumentException if a returned cloudlet was not evaluated
+	 */
+	public double getMaxFinishTimeError(List<? extends Cloudlet> receivedList) {
+		Map<Integer, Integer> position = new HashMap<Integer, Integer>();
+		for (int i = 0; i < cloudletIds.length; i++) {
+			position.put(cloudletIds[i], i);
+			Cloudlet cloudlet = cloudletList.get(i);
+			if (cloudlet instanceof CompositeCloudlet) {
+				for (Cloudlet member : ((CompositeCloudlet) cloudlet).getMembers()) {
+					position.put(member.getCloudletId(), i);
+				}
+			}
+		}
+		double error = 0.0;
+		for (Cloudlet cloudlet : receivedList) {
+			Integer i = position.get(cloudlet.getCloudletId());
+			if (i == null) {
+				throw new IllegalArgumentException("Cloudlet " + cloudlet.getCloudletId()
+						+ " was not evaluated");
+			}
+			error = Math.max(error, Math.abs(cloudlet.getFinishTime() - finishTime[i]));
+		}
+		return error;
+	}
+
+}
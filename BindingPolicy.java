@@ -0,0 +1,51 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.examples;
+
+/**
+ * The ways {@link DatacenterBroker#bindCloudletsToVms(BindingPolicy)} can bind cloudlets to vms.
+ */
+public enum BindingPolicy {
+
+	/** The hybrid FCFS/suffrage algorithm of {@link SuffrageScheduler}. */
+	SUFFRAGE,
+
+	/** No binding: submitCloudlets() hands the cloudlets to the created vms in turn. */
+	ROUND_ROBIN,
+
+	/** Each cloudlet, in submission order, goes to the vm that completes it first. */
+	MCT,
+
+	/** The cloudlet with the smallest earliest completion time is assigned first. */
+	MIN_MIN,
+
+	/** The cloudlet with the largest earliest completion time is assigned first. */
+	MAX_MIN,
+
+	/**
+	 * Suffrage trading makespan for monetary cost (see {@link DatacenterBroker#setCostWeight}); the
+	 * binding is made when the vms have been created and their prices are known.
+	 */
+	COST_AWARE,
+
+	/**
+	 * Suffrage consolidating the work on efficient power hosts within a makespan threshold (see
+	 * {@link DatacenterBroker#setEnergyMakespanThreshold}); the binding is made when the vms have
+	 * been created on their hosts.
+	 */
+	ENERGY_AWARE,
+
+	/**
+	 * Suffrage on uncertain cloudlet lengths, ranking the vms by mean + k * sigma completion time
+	 * and checking the candidates by Monte Carlo sampling (see
+	 * {@link DatacenterBroker#setLengthDistribution} and {@link DatacenterBroker#setRiskFactor}).
+	 */
+	ROBUST
+
+}
@@ -0,0 +1,280 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.examples;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.EnumSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.cloudbus.cloudsim.Log;
+
+/**
+ * The log of a {@link DatacenterBroker}, with one enable flag per event type.
+ * <p>
+ * Messages are a format string and its arguments; they are only formatted if their event type is
+ * enabled, and callers are expected to check {@link #isEnabled(Event)} first so that disabled
+ * events cost nothing. By default messages are formatted and printed immediately with
+ * {@link Log#printLine(String)}, as the broker always did. A log created with
+ * {@link #BrokerLog(File, int)} instead queues them in a bounded ring buffer that a background
+ * thread formats and writes to a file, so the simulation thread never waits for I/O. When the
+ * buffer is full, messages are dropped and counted rather than blocking the simulation. Messages
+ * logged after {@link #close()} are printed with {@link Log#printLine(String)}, and a message
+ * that cannot be formatted is written as its format string with the error, so neither is lost.
+ * <p>
+ * The log may be used from several threads; the enabled event types are replaced as a whole on
+ * every change, so {@link #isEnabled(Event)} reads them without locking.
+ */
+public class BrokerLog {
+
+	/** The event types of the broker. */
+	public enum Event {
+		/** Datacenter discovery and characteristics. */
+		RESOURCES,
+		/** Vm creation requests and answers. */
+		VM_CREATE,
+		/** Vm destruction. */
+		VM_DESTROY,
+		/** Cloudlet submission and postponement. */
+		CLOUDLET_SUBMIT,
+		/** Cloudlet return. */
+		CLOUDLET_RETURN,
+		/** Binding and scheduling. */
+		SCHEDULER,
+		/** Broker start, shutdown and end of simulation. */
+		LIFECYCLE,
+		/** Unexpected events and failures. */
+		ERROR
+	}
+
+	/** A queued message. */
+	private static class Entry {
+
+		/** The format string. */
+		final String format;
+
+		/** The format arguments. */
+		final Object[] args;
+
+		Entry(String format, Object[] args) {
+			this.format = format;
+			this.args = args;
+		}
+	}
+
+	/** The entry that tells the writer thread to stop. */
+	private static final Entry END = new Entry(null, null);
+
+	/** The enabled event types; never modified, replaced by a copy on every change. */
+	private volatile EnumSet<Event> enabled;
+
+	/** The ring buffer of messages waiting to be written, or null if the log is synchronous. */
+	private final BlockingQueue<Entry> queue;
+
+	/** The writer thread, or null if the log is synchronous. */
+	private final Thread writerThread;
+
+	/** The number of messages dropped because the buffer was full. */
+	private final AtomicLong dropped;
+
+	/** The first write error of the writer thread, if any. */
+	private volatile IOException error;
+
+	/** Whether {@link #close()} was called; guarded by this log. */
+	private boolean closed;
+
+	/** How long {@link #close()} waits for room in the buffer before checking the writer, in ms. */
+	private static final long CLOSE_POLL_MILLIS = 100;
+
+	/**
+	 * Creates a synchronous log printing every event to the CloudSim {@link Log}.
+	 */
+	public BrokerLog() {
+		enabled = EnumSet.allOf(Event.class);
+		queue = null;
+		writerThread = null;
+		dropped = new AtomicLong();
+	}
+
+	/**
+	 * Creates an asynchronous log writing every event to a file.
+	 *
+	 * @param file the file, replaced if it exists
+	 * @param capacity the number of messages the ring buffer holds
+	 * @throws IOException if the file cannot be created
+	 * @pre file != null && capacity > 0
+	 * @post $none
+	 */
+	public BrokerLog(File file, int capacity) throws IOException {
+		enabled = EnumSet.allOf(Event.class);
+		queue = new ArrayBlockingQueue<Entry>(capacity);
+		dropped = new AtomicLong();
+		final Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"),
+				64 * 1024);
+		writerThread = new Thread("BrokerLog writer") {
+			@Override
+			public void run() {
+				drain(writer);
+			}
+		};
+		writerThread.setDaemon(true);
+		writerThread.start();
+	}
+
+	/* body of the writer thread: format and write queued messages until END */
+	private void drain(Writer writer) {
+		try {
+			while (true) {
+				Entry entry = queue.take();
+				if (entry == END) {
+					break;
+				}
+				if (error == null) {
+					try {
+						writer.write(format(entry.format, entry.args));
+						writer.write('\n');
+						if (queue.isEmpty()) {
+							writer.flush();
+						}
+					} catch (IOException e) {
+						error = e;
+					}
+				}
+			}
+			if (error == null && dropped.get() > 0) {
+				writer.write(dropped.get() + " message(s) dropped because the log buffer was full\n");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (IOException e) {
+			error = e;
+		} finally {
+			try {
+				writer.close();
+			} catch (IOException e) {
+				if (error == null) {
+					error = e;
+				}
+			}
+		}
+	}
+
+	/* format a message; a bad format string or argument gives the format string and the error */
+	private static String format(String format, Object[] args) {
+		try {
+			return String.format(format, args);
+		} catch (RuntimeException e) {
+			return "Could not format \"" + format + "\": " + e;
+		}
+	}
+
+	/**
+	 * Checks whether an event type is logged.
+	 *
+	 * @param event the event type
+	 * @return true if messages of this type are logged
+	 */
+	public boolean isEnabled(Event event) {
+		return enabled.contains(event);
+	}
+
+	/**
+	 * Enables or disables an event type.
+	 *
+	 * @param event the event type
+	 * @param enable true to log messages of this type
+	 */
+	public synchronized void setEnabled(Event event, boolean enable) {
+		EnumSet<Event> copy = EnumSet.copyOf(enabled);
+		if (enable) {
+			copy.add(event);
+		} else {
+			copy.remove(event);
+		}
+		enabled = copy;
+	}
+
+	/**
+	 * Disables every event type.
+	 */
+	public synchronized void disableAll() {
+		enabled = EnumSet.noneOf(Event.class);
+	}
+
+	/**
+	 * Logs a message. The message is formatted with {@link String#format(String, Object...)}, on
+	 * the writer thread if the log is asynchronous.
+	 *
+	 * @param event the event type
+	 * @param format the format string
+	 * @param args the format arguments
+	 */
+	public void log(Event event, String format, Object... args) {
+		if (!enabled.contains(event)) {
+			return;
+		}
+		if (queue != null) {
+			synchronized (this) {
+				if (!closed) {
+					if (!queue.offer(new Entry(format, args))) {
+						dropped.incrementAndGet();
+					}
+					return;
+				}
+			}
+		}
+		Log.printLine(format(format, args));
+	}
+
+	/**
+	 * Gets the number of messages dropped because the ring buffer was full.
+	 *
+	 * @return the number of dropped messages
+	 */
+	public long getDropped() {
+		return dropped.get();
+	}
+
+	/**
+	 * Writes the queued messages and closes the file. Does nothing for a synchronous log. Does not
+	 * wait for a writer thread that has stopped.
+	 *
+	 * @throws IOException if a message could not be written
+	 * @throws InterruptedException if the thread is interrupted while waiting for the writer
+	 */
+	public void close() throws IOException, InterruptedException {
+		if (writerThread == null) {
+			return;
+		}
+		synchronized (this) {
+			if (closed) {
+				return;
+			}
+			closed = true;
+		}
+		// nothing is queued after END; a writer that died cannot make room for it
+		while (!queue.offer(END, CLOSE_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+			if (!writerThread.isAlive()) {
+				break;
+			}
+		}
+		writerThread.join();
+		if (error != null) {
+			throw error;
+		}
+	}
+
+}
@@ -0,0 +1,206 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.examples;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+
+/**
+ * Exposes the counters, rates and scheduler phase timings of a {@link DatacenterBroker} through
+ * JMX, so that a long run can be watched with jconsole or any JMX client instead of log lines.
+ * <p>
+ * The monitor only reads the broker; every attribute is computed when it is read, so the
+ * simulation pays nothing for it beyond a few counters. Register it with
+ * {@link #register(DatacenterBroker)}:
+ *
+ * <pre>
+ * ObjectName name = BrokerMonitor.register(broker);
+ * ...
+ * BrokerMonitor.unregister(name);
+ * </pre>
+ */
+public class BrokerMonitor implements DatacenterBrokerMBean {
+
+	/** The JMX domain of the monitors. */
+	public static final String DOMAIN = "org.cloudbus.cloudsim.examples";
+
+	/** The broker being monitored. */
+	private final DatacenterBroker broker;
+
+	/**
+	 * Creates a new monitor.
+	 *
+	 * @param broker the broker to monitor
+	 * @pre broker != null
+	 * @post $none
+	 */
+	public BrokerMonitor(DatacenterBroker broker) {
+		this.broker = broker;
+	}
+
+	/**
+	 * Registers a monitor of a broker with the platform MBean server, under
+	 * DOMAIN:type=DatacenterBroker,name=&lt;broker name&gt;.
+	 *
+	 * @param broker the broker to monitor
+	 * @return the name the monitor was registered under
+	 * @throws JMException if the monitor cannot be registered, e.g. if the name is taken
+	 */
+	public static ObjectName register(DatacenterBroker broker) throws JMException {
+		ObjectName name = new ObjectName(DOMAIN + ":type=DatacenterBroker,name="
+				+ ObjectName.quote(broker.getName()));
+		ManagementFactory.getPlatformMBeanServer().registerMBean(
+				new StandardMBean(new BrokerMonitor(broker), DatacenterBrokerMBean.class), name);
+		return name;
+	}
+
+	/**
+	 * Unregisters a monitor from the platform MBean server.
+	 *
+	 * @param name the name returned by {@link #register(DatacenterBroker)}
+	 * @throws JMException if the monitor is not registered
+	 */
+	public static void unregister(ObjectName name) throws JMException {
+		ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+	}
+
+	@Override
+	public String getName() {
+		return broker.getName();
+	}
+
+	@Override
+	public double getSimulationClock() {
+		return CloudSim.clock();
+	}
+
+	@Override
+	public int getCloudletsSubmitted() {
+		return broker.getCloudletsSubmitted();
+	}
+
+	@Override
+	public int getCloudletsReturned() {
+		return broker.getCloudletsReturned();
+	}
+
+	@Override
+	public int getCloudletListSize() {
+		return broker.getCloudletList().size();
+	}
+
+	@Override
+	public int getCloudletSubmittedListSize() {
+		return broker.getCloudletSubmittedList().size();
+	}
+
+	@Override
+	public int getCloudletReceivedListSize() {
+		return broker.getCloudletReceivedList().size();
+	}
+
+	@Override
+	public int getVmListSize() {
+		return broker.getVmList().size();
+	}
+
+	@Override
+	public int getVmsCreatedListSize() {
+		return broker.getVmsCreatedList().size();
+	}
+
+	@Override
+	public int getVmsRequested() {
+		return broker.getVmsRequested();
+	}
+
+	@Override
+	public int getVmsAcks() {
+		return broker.getVmsAcks();
+	}
+
+	@Override
+	public int getVmsDestroyed() {
+		return broker.getVmsDestroyed();
+	}
+
+	@Override
+	public int getSchedulerIteration() {
+		SuffrageScheduler scheduler = broker.getActiveScheduler();
+		return scheduler == null ? -1 : scheduler.getIteration();
+	}
+
+	@Override
+	public int getSchedulerWindowSize() {
+		SuffrageScheduler scheduler = broker.getActiveScheduler();
+		return scheduler == null ? -1 : scheduler.getWindowSize();
+	}
+
+	@Override
+	public int getSchedulerRemaining() {
+		SuffrageScheduler scheduler = broker.getActiveScheduler();
+		return scheduler == null ? -1 : scheduler.getRemainingCount();
+	}
+
+	@Override
+	public double getSchedulerIterationRate() {
+		SuffrageScheduler scheduler = broker.getActiveScheduler();
+		if (scheduler == null) {
+			return 0.0;
+		}
+		long nanos = scheduler.getScanNanos() + scheduler.getAssignNanos();
+		return nanos == 0 ? 0.0 : scheduler.getIteration() * 1e9 / nanos;
+	}
+
+	@Override
+	public double getBindingMillis() {
+		return broker.getBindingNanos() / 1e6;
+	}
+
+	@Override
+	public double getScanMillis() {
+		SuffrageScheduler scheduler = broker.getActiveScheduler();
+		long running = scheduler == null ? 0 : scheduler.getScanNanos();
+		return (broker.getScanNanos() + running) / 1e6;
+	}
+
+	@Override
+	public double getAssignMillis() {
+		SuffrageScheduler scheduler = broker.getActiveScheduler();
+		long running = scheduler == null ? 0 : scheduler.getAssignNanos();
+		return (broker.getAssignNanos() + running) / 1e6;
+	}
+
+	@Override
+	public double getCheckpointMillis() {
+		return broker.getCheckpointNanos() / 1e6;
+	}
+
+	@Override
+	public double getReturnRate() {
+		long start = broker.getStartWallNanos();
+		if (start == 0) {
+			return 0.0;
+		}
+		long nanos = System.nanoTime() - start;
+		return nanos <= 0 ? 0.0 : broker.getCloudletsReturned() * 1e9 / nanos;
+	}
+
+	@Override
+	public double getSimulatedReturnRate() {
+		double clock = CloudSim.clock();
+		return clock <= 0.0 ? 0.0 : broker.getCloudletsReturned() / clock;
+	}
+
+}
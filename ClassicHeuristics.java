@@ -0,0 +1,130 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.examples;
+
+import java.util.List;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.Vm;
+
+/**
+ * Classic list-scheduling heuristics used as a reference for the suffrage algorithm. Every method
+ * takes the cloudlets and vms in list order and returns the vm index chosen for every cloudlet,
+ * using the same completion time model as {@link SuffrageScheduler}: length / mips plus the ready
+ * time of the vm.
+ */
+public class ClassicHeuristics {
+
+	/**
+	 * Minimum completion time: each cloudlet, in list order, goes to the vm that completes it
+	 * first.
+	 *
+	 * @param cloudletList the cloudlets
+	 * @param vmList the vms
+	 * @return the vm index of every cloudlet
+	 * @pre cloudletList != null && vmList != null && vmList.size() > 0
+	 * @post $none
+	 */
+	public static int[] mct(List<? extends Cloudlet> cloudletList, List<? extends Vm> vmList) {
+		int vmNum = vmList.size();
+		double[] readyTime = new double[vmNum];
+		int[] assignment = new int[cloudletList.size()];
+		for (int i = 0; i < cloudletList.size(); i++) {
+			long length = cloudletList.get(i).getCloudletLength();
+			int best = 0;
+			double bestTime = Double.MAX_VALUE;
+			for (int j = 0; j < vmNum; j++) {
+				double time = readyTime[j] + length / vmList.get(j).getMips();
+				if (time < bestTime) {
+					bestTime = time;
+					best = j;
+				}
+			}
+			assignment[i] = best;
+			readyTime[best] = bestTime;
+		}
+		return assignment;
+	}
+
+	/**
+	 * Min-min: among the unassigned cloudlets, the one with the smallest earliest completion time
+	 * is assigned to the vm giving that time.
+	 *
+	 * @param cloudletList the cloudlets
+	 * @param vmList the vms
+	 * @return the vm index of every cloudlet
+	 * @pre cloudletList != null && vmList != null && vmList.size() > 0
+	 * @post $none
+	 */
+	public static int[] minMin(List<? extends Cloudlet> cloudletList, List<? extends Vm> vmList) {
+		return minMax(cloudletList, vmList, false);
+	}
+
+	/**
+	 * Max-min: among the unassigned cloudlets, the one with the largest earliest completion time
+	 * is assigned to the vm giving that time.
+	 *
+	 * @param cloudletList the cloudlets
+	 * @param vmList the vms
+	 * @return the vm index of every cloudlet
+	 * @pre cloudletList != null && vmList != null && vmList.size() > 0
+	 * @post $none
+	 */
+	public static int[] maxMin(List<? extends Cloudlet> cloudletList, List<? extends Vm> vmList) {
+		return minMax(cloudletList, vmList, true);
+	}
+
+	/* common loop of min-min and max-min */
+	private static int[] minMax(List<? extends Cloudlet> cloudletList, List<? extends Vm> vmList,
+			boolean largestFirst) {
+		int cloudletNum = cloudletList.size();
+		int vmNum = vmList.size();
+		double[] length = new double[cloudletNum];
+		double[] mips = new double[vmNum];
+		for (int i = 0; i < cloudletNum; i++) {
+			length[i] = cloudletList.get(i).getCloudletLength();
+		}
+		for (int j = 0; j < vmNum; j++) {
+			mips[j] = vmList.get(j).getMips();
+		}
+
+		double[] readyTime = new double[vmNum];
+		int[] assignment = new int[cloudletNum];
+		boolean[] assigned = new boolean[cloudletNum];
+		for (int round = 0; round < cloudletNum; round++) {
+			int targetCloudlet = -1;
+			int targetVm = 0;
+			double targetTime = largestFirst ? -1.0 : Double.MAX_VALUE;
+			for (int i = 0; i < cloudletNum; i++) {
+				if (assigned[i]) {
+					continue;
+				}
+				int best = 0;
+				double bestTime = Double.MAX_VALUE;
+				for (int j = 0; j < vmNum; j++) {
+					double time = readyTime[j] + length[i] / mips[j];
+					if (time < bestTime) {
+						bestTime = time;
+						best = j;
+					}
+				}
+				if (largestFirst ? bestTime > targetTime : bestTime < targetTime) {
+					targetCloudlet = i;
+					targetVm = best;
+					targetTime = bestTime;
+				}
+			}
+			assigned[targetCloudlet] = true;
+			assignment[targetCloudlet] = targetVm;
+			readyTime[targetVm] = targetTime;
+		}
+		return assignment;
+	}
+
+}
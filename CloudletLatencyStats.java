@@ -0,0 +1,145 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.examples;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.cloudbus.cloudsim.Cloudlet;
+
+/**
+ * The wait, execution and response time of the returned cloudlets, in one
+ * {@link LatencyHistogram} per metric for the whole broker and one per metric for every vm.
+ * Every cloudlet is recorded when it returns, so the quantiles can be queried at any simulated
+ * time for the cloudlets returned so far.
+ * <p>
+ * The memory does not depend on the number of cloudlets, only on the number of vms that
+ * returned one.
+ *
+ * @see DatacenterBroker#setLatencyStats(CloudletLatencyStats)
+ */
+public class CloudletLatencyStats {
+
+	/** The recorded metrics. */
+	public enum Metric {
+		/** From submission to start of execution. */
+		WAIT,
+		/** From start of execution to finish. */
+		EXECUTION,
+		/** From submission to finish. */
+		RESPONSE
+	}
+
+	/** The histograms of the whole broker, one per metric. */
+	private final LatencyHistogram[] global;
+
+	/** The histograms of every vm, one per metric, by vm id. */
+	private final Map<Integer, LatencyHistogram[]> byVm;
+
+	/**
+	 * Creates empty statistics.
+	 */
+	public CloudletLatencyStats() {
+		global = newHistograms();
+		byVm = new TreeMap<Integer, LatencyHistogram[]>();
+	}
+
+	/* one empty histogram per metric */
+	private static LatencyHistogram[] newHistograms() {
+		LatencyHistogram[] histograms = new LatencyHistogram[Metric.values().length];
+		for (int i = 0; i < histograms.length; i++) {
+			histograms[i] = new LatencyHistogram();
+		}
+		return histograms;
+	}
+
+	/**
+	 * Records a returned cloudlet.
+	 *
+	 * @param cloudlet the cloudlet, with its submission, start and finish times set
+	 * @pre cloudlet != null
+	 * @post $none
+	 */
+	public void record(Cloudlet cloudlet) {
+		double submission = cloudlet.getSubmissionTime();
+		double start = cloudlet.getExecStartTime();
+		double finish = cloudlet.getFinishTime();
+		LatencyHistogram[] vm = byVm.get(cloudlet.getVmId());
+		if (vm == null) {
+			vm = newHistograms();
+			byVm.put(cloudlet.getVmId(), vm);
+		}
+		record(Metric.WAIT, vm, start - submission);
+		record(Metric.EXECUTION, vm, finish - start);
+		record(Metric.RESPONSE, vm, finish - submission);
+	}
+
+	/* record one metric in the global and the vm histograms */
+	private void record(Metric metric, LatencyHistogram[] vm, double value) {
+		global[metric.ordinal()].record(value);
+		vm[metric.ordinal()].record(value);
+	}
+
+	/**
+	 * Gets the histogram of a metric for the whole broker.
+	 *
+	 * @param metric the metric
+	 * @return the histogram
+	 */
+	public LatencyHistogram getHistogram(Metric metric) {
+		return global[metric.ordinal()];
+	}
+
+	/**
+	 * Gets the histogram of a metric for one vm.
+	 *
+	 * @param metric the metric
+	 * @param vmId the vm id
+	 * @return the histogram, or null if no cloudlet returned from this vm
+	 */
+	public LatencyHistogram getHistogram(Metric metric, int vmId) {
+		LatencyHistogram[] vm = byVm.get(vmId);
+		return vm == null ? null : vm[metric.ordinal()];
+	}
+
+	/**
+	 * Gets a quantile of a metric for the whole broker.
+	 *
+	 * @param metric the metric
+	 * @param quantile the quantile, e.g. 0.5, 0.99 or 0.999
+	 * @return the value, or 0 if no cloudlet returned yet
+	 */
+	public double getQuantile(Metric metric, double quantile) {
+		return getHistogram(metric).getQuantile(quantile);
+	}
+
+	/**
+	 * Gets a quantile of a metric for one vm.
+	 *
+	 * @param metric the metric
+	 * @param vmId the vm id
+	 * @param quantile the quantile, e.g. 0.5, 0.99 or 0.999
+	 * @return the value, or 0 if no cloudlet returned from this vm
+	 */
+	public double getQuantile(Metric metric, int vmId, double quantile) {
+		LatencyHistogram histogram = getHistogram(metric, vmId);
+		return histogram == null ? 0.0 : histogram.getQuantile(quantile);
+	}
+
+	/**
+	 * Gets the ids of the vms that returned at least one cloudlet.
+	 *
+	 * @return the vm ids, in increasing order
+	 */
+	public Set<Integer> getVmIds() {
+		return byVm.keySet();
+	}
+
+}
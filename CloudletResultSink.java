@@ -0,0 +1,287 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.examples;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+import org.cloudbus.cloudsim.Cloudlet;
+
+/**
+ * Writes the metrics of every returned cloudlet to a file as soon as it returns, and keeps
+ * running aggregates, so that a {@link DatacenterBroker} with a sink does not keep the returned
+ * cloudlets (see {@link DatacenterBroker#setResultSink(CloudletResultSink)}).
+ * <p>
+ * Every record holds the cloudlet id, status, datacenter id, vm id, submission time, start time,
+ * finish time, actual CPU time, waiting time and processing cost. In CSV format a record is a
+ * line, after a header line. In binary format the file starts with a header (magic, version)
+ * followed by fixed-size records: four ints then six doubles, big-endian.
+ * <p>
+ * Write errors do not interrupt the simulation: the first one stops the writing and is thrown by
+ * {@link #close()}. The aggregates are kept up to date either way.
+ */
+public class CloudletResultSink {
+
+	/** The file formats. */
+	public enum Format {
+		/** One comma-separated line per cloudlet. */
+		CSV,
+		/** One fixed-size binary record per cloudlet. */
+		BINARY
+	}
+
+	/** The file magic number of the binary format, "SUFR". */
+	static final int MAGIC = 0x53554652;
+
+	/** The binary format version. */
+	static final int VERSION = 1;
+
+	/** The size of a binary record. */
+	static final int RECORD_SIZE = 4 * 4 + 6 * 8;
+
+	/** The header line of the CSV format. */
+	static final String CSV_HEADER = "cloudletId,status,datacenterId,vmId,submissionTime,startTime,"
+			+ "finishTime,cpuTime,waitingTime,cost\n";
+
+	/** The size of the write buffer. */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/** The format of the file. */
+	private final Format format;
+
+	/** The channel the records are written to. */
+	private final FileChannel channel;
+
+	/** The write buffer. */
+	private final ByteBuffer buffer;
+
+	/** The line being formatted, in CSV format. */
+	private final StringBuilder line;
+
+	/** The encoder of the CSV lines. */
+	private final CharsetEncoder encoder;
+
+	/** The first write error, if any. */
+	private IOException error;
+
+	/** The number of cloudlets recorded. */
+	private long count;
+
+	/** The number of cloudlets recorded with the SUCCESS status. */
+	private long successCount;
+
+	/** The sum of the actual CPU times. */
+	private double cpuTimeSum;
+
+	/** The sum of the waiting times. */
+	private double waitingTimeSum;
+
+	/** The sum of the response times, finish time minus submission time. */
+	private double responseTimeSum;
+
+	/** The latest finish time. */
+	private double makespan;
+
+	/** The sum of the processing costs. */
+	private double costSum;
+
+	/**
+	 * Creates a new sink, replacing the file if it exists.
+	 *
+	 * @param file the result file
+	 * @param format the file format
+	 * @throws IOException if the file cannot be created
+	 * @pre file != null && format != null
+	 * @post $none
+	 */
+	public CloudletResultSink(File file, Format format) throws IOException {
+		this.format = format;
+		channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+		line = new StringBuilder(160);
+		encoder = StandardCharsets.US_ASCII.newEncoder();
+		if (format == Format.BINARY) {
+			buffer.putInt(MAGIC);
+			buffer.putInt(VERSION);
+		} else {
+			line.append(CSV_HEADER);
+			try {
+				writeLine();
+			} catch (IOException e) {
+				channel.close();
+				throw e;
+			}
+		}
+	}
+
+	/**
+	 * Records a returned cloudlet.
+	 *
+	 * @param cloudlet the cloudlet
+	 * @pre cloudlet != null
+	 * @post $none
+	 */
+	public void record(Cloudlet cloudlet) {
+		double submissionTime = cloudlet.getSubmissionTime();
+		double finishTime = cloudlet.getFinishTime();
+		double cpuTime = cloudlet.getActualCPUTime();
+		double waitingTime = cloudlet.getWaitingTime();
+		double cost = cloudlet.getProcessingCost();
+		count++;
+		if (cloudlet.getCloudletStatus() == Cloudlet.SUCCESS) {
+			successCount++;
+		}
+		cpuTimeSum += cpuTime;
+		waitingTimeSum += waitingTime;
+		responseTimeSum += finishTime - submissionTime;
+		makespan = Math.max(makespan, finishTime);
+		costSum += cost;
+
+		if (error != null) {
+			return;
+		}
+		try {
+			if (format == Format.BINARY) {
+				if (buffer.remaining() < RECORD_SIZE) {
+					flush();
+				}
+				buffer.putInt(cloudlet.getCloudletId());
+				buffer.putInt(cloudlet.getCloudletStatus());
+				buffer.putInt(cloudlet.getResourceId());
+				buffer.putInt(cloudlet.getVmId());
+				buffer.putDouble(submissionTime);
+				buffer.putDouble(cloudlet.getExecStartTime());
+				buffer.putDouble(finishTime);
+				buffer.putDouble(cpuTime);
+				buffer.putDouble(waitingTime);
+				buffer.putDouble(cost);
+			} else {
+				line.append(cloudlet.getCloudletId()).append(',').append(cloudlet.getCloudletStatusString())
+						.append(',').append(cloudlet.getResourceId()).append(',').append(cloudlet.getVmId())
+						.append(',').append(submissionTime).append(',').append(cloudlet.getExecStartTime())
+						.append(',').append(finishTime).append(',').append(cpuTime).append(',')
+						.append(waitingTime).append(',').append(cost).append('\n');
+				writeLine();
+			}
+		} catch (IOException e) {
+			error = e;
+		}
+	}
+
+	/* encode the pending CSV line into the buffer, flushing it as needed */
+	private void writeLine() throws IOException {
+		CharBuffer chars = CharBuffer.wrap(line);
+		while (encoder.encode(chars, buffer, true).isOverflow()) {
+			flush();
+		}
+		encoder.reset();
+		line.setLength(0);
+	}
+
+	/* write the buffer content to the channel */
+	private void flush() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * Flushes and closes the file. The aggregates stay available.
+	 *
+	 * @throws IOException if this or any previous write failed
+	 */
+	public void close() throws IOException {
+		if (!channel.isOpen()) {
+			return;
+		}
+		try {
+			if (error == null) {
+				flush();
+			}
+		} finally {
+			channel.close();
+		}
+		if (error != null) {
+			throw error;
+		}
+	}
+
+	/**
+	 * Gets the number of cloudlets recorded.
+	 *
+	 * @return the cloudlet count
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Gets the number of cloudlets recorded with the SUCCESS status.
+	 *
+	 * @return the successful cloudlet count
+	 */
+	public long getSuccessCount() {
+		return successCount;
+	}
+
+	/**
+	 * Gets the latest finish time recorded.
+	 *
+	 * @return the makespan
+	 */
+	public double getMakespan() {
+		return makespan;
+	}
+
+	/**
+	 * Gets the mean actual CPU time.
+	 *
+	 * @return the mean CPU time, 0 if nothing was recorded
+	 */
+	public double getMeanCpuTime() {
+		return count == 0 ? 0.0 : cpuTimeSum / count;
+	}
+
+	/**
+	 * Gets the mean waiting time.
+	 *
+	 * @return the mean waiting time, 0 if nothing was recorded
+	 */
+	public double getMeanWaitingTime() {
+		return count == 0 ? 0.0 : waitingTimeSum / count;
+	}
+
+	/**
+	 * Gets the mean response time, finish time minus submission time.
+	 *
+	 * @return the mean response time, 0 if nothing was recorded
+	 */
+	public double getMeanResponseTime() {
+		return count == 0 ? 0.0 : responseTimeSum / count;
+	}
+
+	/**
+	 * Gets the total processing cost.
+	 *
+	 * @return the sum of the processing costs
+	 */
+	public double getTotalCost() {
+		return costSum;
+	}
+
+}
@@ -0,0 +1,232 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.examples;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.Log;
+
+/**
+ * A cloudlet standing for several small cloudlets, its members, run back to back as one job. A
+ * composite costs one ETC row, one suffrage iteration and one submit/return event pair instead of
+ * one per member, which is what dominates the simulation of workloads made of many tiny cloudlets.
+ * <p>
+ * {@link #coalesce(List, long, int)} builds the composites and {@link #expand()} hands the members
+ * back, stamped with the results of the composite: every member has the datacenter, vm, status
+ * and submission time of the composite, starts when the composite reached it (assuming the
+ * composite progressed at a steady rate) and finishes when the composite returned, since the
+ * results of a composite come back together.
+ *
+ * @see DatacenterBroker#coalesceCloudlets(long)
+ */
+public class CompositeCloudlet extends Cloudlet {
+
+	/** The cloudlets run by this composite, in execution order. */
+	private final List<Cloudlet> members;
+
+	/**
+	 * Creates a new composite. Its length, file size and output size are the sums of those of the
+	 * members; its PEs, user and utilization models are those of the first member.
+	 *
+	 * @param cloudletId the id of the composite, unique among the cloudlets of the user
+	 * @param members the members, in execution order
+	 * @pre members.size() > 0
+	 * @post $none
+	 */
+	public CompositeCloudlet(int cloudletId, List<Cloudlet> members) {
+		super(cloudletId, totalLength(members), members.get(0).getNumberOfPes(), totalFileSize(members),
+				totalOutputSize(members), members.get(0).getUtilizationModelCpu(),
+				members.get(0).getUtilizationModelRam(), members.get(0).getUtilizationModelBw());
+		this.members = new ArrayList<Cloudlet>(members);
+		setUserId(members.get(0).getUserId());
+	}
+
+	/* the sum of the member lengths */
+	private static long totalLength(List<Cloudlet> members) {
+		long length = 0;
+		for (Cloudlet member : members) {
+			length += member.getCloudletLength();
+		}
+		return length;
+	}
+
+	/* the sum of the member file sizes */
+	private static long totalFileSize(List<Cloudlet> members) {
+		long size = 0;
+		for (Cloudlet member : members) {
+			size += member.getCloudletFileSize();
+		}
+		return size;
+	}
+
+	/* the sum of the member output sizes */
+	private static long totalOutputSize(List<Cloudlet> members) {
+		long size = 0;
+		for (Cloudlet member : members) {
+			size += member.getCloudletOutputSize();
+		}
+		return size;
+	}
+
+	/**
+	 * Replaces the unbound cloudlets shorter than a threshold by composites. Members are taken in
+	 * list order and a composite is closed as soon as the next member would make it longer than
+	 * the threshold; only cloudlets with the same user, PEs and utilization models share a
+	 * composite. Bound cloudlets, composites and cloudlets at least as long as the threshold are
+	 * kept as they are.
+	 *
+	 * @param cloudlets the cloudlets
+	 * @param lengthThreshold the length below which a cloudlet is coalesced, and the largest
+	 *            length of a composite
+	 * @param firstId the id of the first composite; the next ones follow
+	 * @return the cloudlets, every composite taking the place of its first member
+	 * @pre cloudlets != null && lengthThreshold > 0
+	 * @post $none
+	 */
+	public static List<Cloudlet> coalesce(List<? extends Cloudlet> cloudlets, long lengthThreshold,
+			int firstId) {
+		return coalesce(cloudlets, lengthThreshold, firstId, null);
+	}
+
+	/**
+	 * Replaces the unbound cloudlets shorter than a threshold by composites, as
+	 * {@link #coalesce(List, long, int)} does, keeping apart the cloudlets of different groups,
+	 * e.g. of different data-affinity keys: only cloudlets mapped to equal groups, or both
+	 * unmapped, share a composite.
+	 *
+	 * @param cloudlets the cloudlets
+	 * @param lengthThreshold the length below which a cloudlet is coalesced, and the largest
+	 *            length of a composite
+	 * @param firstId the id of the first composite; the next ones follow
+	 * @param groups the group of every cloudlet id, or null to coalesce regardless of groups
+	 * @return the cloudlets, every composite taking the place of its first member
+	 * @pre cloudlets != null && lengthThreshold > 0
+	 * @post $none
+	 */
+	public static List<Cloudlet> coalesce(List<? extends Cloudlet> cloudlets, long lengthThreshold,
+			int firstId, Map<Integer, ?> groups) {
+		List<Cloudlet> result = new ArrayList<Cloudlet>(cloudlets.size());
+		// the composite being filled for every kind of member, with its place in the result
+		List<List<Cloudlet>> open = new ArrayList<List<Cloudlet>>();
+		List<Integer> openPosition = new ArrayList<Integer>();
+		List<Long> openLength = new ArrayList<Long>();
+		int nextId = firstId;
+		for (Cloudlet cloudlet : cloudlets) {
+			long length = cloudlet.getCloudletLength();
+			if (cloudlet.getVmId() != -1 || length >= lengthThreshold
+					|| cloudlet instanceof CompositeCloudlet) {
+				result.add(cloudlet);
+				continue;
+			}
+			int group = 0;
+			while (group < open.size() && !sameKind(open.get(group).get(0), cloudlet, groups)) {
+				group++;
+			}
+			if (group < open.size() && openLength.get(group) + length > lengthThreshold) {
+				nextId = close(result, open.get(group), openPosition.get(group), nextId);
+				open.remove(group);
+				openPosition.remove(group);
+				openLength.remove(group);
+				group = open.size();
+			}
+			if (group == open.size()) {
+				open.add(new ArrayList<Cloudlet>());
+				openPosition.add(result.size());
+				openLength.add(0L);
+				result.add(null); // the place of the composite
+			}
+			open.get(group).add(cloudlet);
+			openLength.set(group, openLength.get(group) + length);
+		}
+		for (int group = 0; group < open.size(); group++) {
+			nextId = close(result, open.get(group), openPosition.get(group), nextId);
+		}
+		return result;
+	}
+
+	/* whether two cloudlets may share a composite */
+	private static boolean sameKind(Cloudlet a, Cloudlet b, Map<Integer, ?> groups) {
+		if (groups != null) {
+			Object groupA = groups.get(a.getCloudletId());
+			Object groupB = groups.get(b.getCloudletId());
+			if (groupA == null ? groupB != null : !groupA.equals(groupB)) {
+				return false;
+			}
+		}
+		return a.getUserId() == b.getUserId() && a.getNumberOfPes() == b.getNumberOfPes()
+				&& a.getUtilizationModelCpu() == b.getUtilizationModelCpu()
+				&& a.getUtilizationModelRam() == b.getUtilizationModelRam()
+				&& a.getUtilizationModelBw() == b.getUtilizationModelBw();
+	}
+
+	/* put a closed group in its place, as a composite unless it has a single member */
+	private static int close(List<Cloudlet> result, List<Cloudlet> members, int position, int nextId) {
+		if (members.size() == 1) {
+			result.set(position, members.get(0));
+			return nextId;
+		}
+		result.set(position, new CompositeCloudlet(nextId, members));
+		return nextId + 1;
+	}
+
+	/**
+	 * Stamps the members with the results of this composite, once it returned.
+	 *
+	 * @return the members, in execution order
+	 * @pre $none
+	 * @post $none
+	 */
+	public List<Cloudlet> expand() {
+		double start = getExecStartTime();
+		double duration = Math.max(0.0, getFinishTime() - start);
+		double length = getCloudletLength();
+		double done = 0.0;
+		for (Cloudlet member : members) {
+			double share = length > 0 ? member.getCloudletLength() / length : 0.0;
+			member.setVmId(getVmId());
+			member.setResourceParameter(getResourceId(), getCostPerSec());
+			member.setSubmissionTime(getSubmissionTime());
+			member.setExecStartTime(start + duration * done);
+			member.setExecParam(duration * share, duration * share);
+			try {
+				if (getCloudletStatus() == Cloudlet.SUCCESS) {
+					member.setCloudletFinishedSoFar(member.getCloudletLength());
+				}
+				member.setCloudletStatus(getCloudletStatus());
+			} catch (Exception e) {
+				Log.printLine(e.getMessage());
+			}
+			done += share;
+		}
+		return getMembers();
+	}
+
+	/**
+	 * Gets the members of this composite.
+	 *
+	 * @return the members, in execution order
+	 */
+	public List<Cloudlet> getMembers() {
+		return Collections.unmodifiableList(members);
+	}
+
+	/**
+	 * Gets the number of members of this composite.
+	 *
+	 * @return the member count
+	 */
+	public int getMemberCount() {
+		return members.size();
+	}
+
+}
@@ -0,0 +1,201 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.examples;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.Vm;
+
+/**
+ * Bi-objective scheduling of makespan and monetary cost with the suffrage algorithm.
+ * <p>
+ * A single schedule is the suffrage schedule for a given cost weight (see
+ * {@link SuffrageScheduler#setCostPenalty(double[], double)}). The Pareto front is obtained by
+ * sweeping the weight from 0 towards 1 and keeping the schedules no other schedule beats on both
+ * makespan and cost, so the cheapest binding for a given makespan can be read off the front.
+ * <p>
+ * A {@link SuffrageScheduler.Setup} gives the scheduler the settings of the caller, such as the
+ * runtime correction, data affinity and shared fleet view of a broker.
+ */
+public class CostAwareScheduling {
+
+	/** The largest cost weight tried by {@link #paretoFront(List, List, CostModel, int)}. */
+	public static final double MAX_WEIGHT = 0.99;
+
+	/** A schedule with its two objectives. */
+	public static class Schedule {
+
+		/** The cost weight the schedule was built with. */
+		private final double weight;
+
+		/** The expected makespan. */
+		private final double makespan;
+
+		/** The total cost, fixed vm costs included. */
+		private final double cost;
+
+		/** The vm index of every cloudlet. */
+		private final int[] assignment;
+
+		Schedule(double weight, double makespan, double cost, int[] assignment) {
+			this.weight = weight;
+			this.makespan = makespan;
+			this.cost = cost;
+			this.assignment = assignment;
+		}
+
+		/**
+		 * Gets the cost weight the schedule was built with.
+		 *
+		 * @return the weight
+		 */
+		public double getWeight() {
+			return weight;
+		}
+
+		/**
+		 * Gets the expected makespan: the largest ready time of a vm.
+		 *
+		 * @return the makespan
+		 */
+		public double getMakespan() {
+			return makespan;
+		}
+
+		/**
+		 * Gets the total cost, fixed vm costs included.
+		 *
+		 * @return the cost
+		 */
+		public double getCost() {
+			return cost;
+		}
+
+		/**
+		 * Gets the vm index of every cloudlet, in list order.
+		 *
+		 * @return a copy of the assignment
+		 */
+		public int[] getAssignment() {
+			return assignment.clone();
+		}
+
+		/**
+		 * Checks whether this schedule is at least as good as another on both objectives and
+		 * strictly better on one.
+		 *
+		 * @param other the other schedule
+		 * @return true if this schedule dominates the other one
+		 */
+		public boolean dominates(Schedule other) {
+			return makespan <= other.makespan && cost <= other.cost
+					&& (makespan < other.makespan || cost < other.cost);
+		}
+	}
+
+	/**
+	 * Builds the suffrage schedule for one cost weight.
+	 *
+	 * @param cloudletList the cloudlets, in FCFS order
+	 * @param vmList the vms
+	 * @param costModel the prices of the vms, in list order
+	 * @param weight the weight of the cost, from 0 (inclusive) to 1 (exclusive)
+	 * @return the schedule
+	 * @pre cloudletList != null && vmList != null && vmList.size() > 0
+	 * @post $none
+	 */
+	public static Schedule schedule(List<? extends Cloudlet> cloudletList, List<? extends Vm> vmList,
+			CostModel costModel, double weight) {
+		return schedule(cloudletList, vmList, costModel, weight, null);
+	}
+
+	/**
+	 * Builds the suffrage schedule for one cost weight with the given scheduler setup.
+	 *
+	 * @param cloudletList the cloudlets, in FCFS order
+	 * @param vmList the vms
+	 * @param costModel the prices of the vms, in list order
+	 * @param weight the weight of the cost, from 0 (inclusive) to 1 (exclusive)
+	 * @param setup configures the scheduler before its cost penalty is set, or null
+	 * @return the schedule
+	 * @pre cloudletList != null && vmList != null && vmList.size() > 0
+	 * @post $none
+	 */
+	public static Schedule schedule(List<? extends Cloudlet> cloudletList, List<? extends Vm> vmList,
+			CostModel costModel, double weight, SuffrageScheduler.Setup setup) {
+		return schedule(cloudletList, vmList, costModel, costModel.costMatrix(cloudletList, vmList), weight,
+				setup);
+	}
+
+	/* one suffrage run with a precomputed cost matrix */
+	private static Schedule schedule(List<? extends Cloudlet> cloudletList, List<? extends Vm> vmList,
+			CostModel costModel, double[] cost, double weight, SuffrageScheduler.Setup setup) {
+		SuffrageScheduler scheduler = new SuffrageScheduler(cloudletList, vmList);
+		scheduler.setVerbose(false);
+		if (setup != null) {
+			setup.configure(scheduler, cloudletList, vmList);
+		}
+		scheduler.setCostPenalty(cost, weight);
+		while (!scheduler.isFinished()) {
+			scheduler.step();
+		}
+		int[] assignment = new int[scheduler.getRowNum()];
+		for (int row = 0; row < assignment.length; row++) {
+			assignment[row] = scheduler.getAssignment(row);
+		}
+		double makespan = 0.0;
+		for (int col = 0; col < scheduler.getColNum(); col++) {
+			makespan = Math.max(makespan, scheduler.getReadyTime(col));
+		}
+		return new Schedule(weight, makespan, costModel.cost(cloudletList, vmList, assignment), assignment);
+	}
+
+	/**
+	 * Builds the Pareto front of makespan and cost. The weights 0, 1/steps, ..., (steps-1)/steps
+	 * and {@link #MAX_WEIGHT} are tried; dominated and duplicate schedules are dropped.
+	 *
+	 * @param cloudletList the cloudlets, in FCFS order
+	 * @param vmList the vms
+	 * @param costModel the prices of the vms, in list order
+	 * @param steps the number of weights tried below MAX_WEIGHT
+	 * @return the non-dominated schedules, by increasing makespan (and so decreasing cost)
+	 * @pre steps > 0
+	 * @post $none
+	 */
+	public static List<Schedule> paretoFront(List<? extends Cloudlet> cloudletList,
+			List<? extends Vm> vmList, CostModel costModel, int steps) {
+		double[] cost = costModel.costMatrix(cloudletList, vmList);
+		List<Schedule> candidates = new ArrayList<Schedule>();
+		for (int k = 0; k < steps; k++) {
+			candidates.add(schedule(cloudletList, vmList, costModel, cost, (double) k / steps, null));
+		}
+		candidates.add(schedule(cloudletList, vmList, costModel, cost, MAX_WEIGHT, null));
+
+		Collections.sort(candidates, new Comparator<Schedule>() {
+			@Override
+			public int compare(Schedule a, Schedule b) {
+				int byMakespan = Double.compare(a.getMakespan(), b.getMakespan());
+				return byMakespan != 0 ? byMakespan : Double.compare(a.getCost(), b.getCost());
+			}
+		});
+		// sorted by makespan, a schedule is on the front if it is cheaper than every one before it
+		List<Schedule> front = new ArrayList<Schedule>();
+		for (Schedule candidate : candidates) {
+			if (front.isEmpty() || candidate.getCost() < front.get(front.size() - 1).getCost()) {
+				front.add(candidate);
+			}
+		}
+		return front;
+	}
+
+}
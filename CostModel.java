@@ -0,0 +1,146 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.examples;
+
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.DatacenterCharacteristics;
+import org.cloudbus.cloudsim.Vm;
+
+/**
+ * The monetary cost of running cloudlets on vms, from the prices of the datacenters hosting them.
+ * <p>
+ * A cloudlet is charged as a CloudSim datacenter charges it: the cost per second of processing
+ * times its execution time, plus the cost per bandwidth unit times its input file size. A vm that
+ * runs at least one cloudlet is also charged once for its memory (cost per memory unit times its
+ * ram) and its storage (cost per storage unit times its image size).
+ */
+public class CostModel {
+
+	/** The cost per second of processing of every vm. */
+	private final double[] costPerSecond;
+
+	/** The cost per bandwidth unit of every vm. */
+	private final double[] costPerBw;
+
+	/** The memory and storage cost of every vm, charged if it is used. */
+	private final double[] fixedCost;
+
+	/**
+	 * Creates a new cost model from explicit prices, one entry per vm.
+	 *
+	 * @param costPerSecond the cost per second of processing of every vm
+	 * @param costPerBw the cost per bandwidth unit of every vm
+	 * @param fixedCost the cost charged once for every vm that is used
+	 * @pre costPerSecond.length == costPerBw.length && costPerBw.length == fixedCost.length
+	 * @post $none
+	 */
+	public CostModel(double[] costPerSecond, double[] costPerBw, double[] fixedCost) {
+		this.costPerSecond = costPerSecond.clone();
+		this.costPerBw = costPerBw.clone();
+		this.fixedCost = fixedCost.clone();
+	}
+
+	/**
+	 * Creates a cost model from the characteristics of the datacenters the vms were created in.
+	 *
+	 * @param vmList the vms
+	 * @param vmsToDatacenters the datacenter id of every created vm
+	 * @param characteristics the characteristics of every datacenter, by datacenter id
+	 * @return the cost model, one entry per vm in list order
+	 * @throws IllegalArgumentException if a vm was not created or its datacenter is unknown
+	 */
+	public static CostModel fromCharacteristics(List<? extends Vm> vmList,
+			Map<Integer, Integer> vmsToDatacenters, Map<Integer, DatacenterCharacteristics> characteristics) {
+		int vmNum = vmList.size();
+		double[] costPerSecond = new double[vmNum];
+		double[] costPerBw = new double[vmNum];
+		double[] fixedCost = new double[vmNum];
+		for (int j = 0; j < vmNum; j++) {
+			Vm vm = vmList.get(j);
+			Integer datacenterId = vmsToDatacenters.get(vm.getId());
+			DatacenterCharacteristics dc = datacenterId == null ? null : characteristics.get(datacenterId);
+			if (dc == null) {
+				throw new IllegalArgumentException("No datacenter prices for vm #" + vm.getId());
+			}
+			costPerSecond[j] = dc.getCostPerSecond();
+			costPerBw[j] = dc.getCostPerBw();
+			fixedCost[j] = dc.getCostPerMem() * vm.getRam() + dc.getCostPerStorage() * vm.getSize();
+		}
+		return new CostModel(costPerSecond, costPerBw, fixedCost);
+	}
+
+	/**
+	 * Gets the number of vms.
+	 *
+	 * @return the vm count
+	 */
+	public int getVmNum() {
+		return costPerSecond.length;
+	}
+
+	/**
+	 * Computes the cost of every cloudlet on every vm, excluding the fixed vm costs.
+	 *
+	 * @param cloudletList the cloudlets
+	 * @param vmList the vms, in the order of the model
+	 * @return the cost matrix, row-major: cost[row * vms + col]
+	 */
+	public double[] costMatrix(List<? extends Cloudlet> cloudletList, List<? extends Vm> vmList) {
+		int colNum = vmList.size();
+		double[] cost = new double[cloudletList.size() * colNum];
+		for (int row = 0; row < cloudletList.size(); row++) {
+			Cloudlet cloudlet = cloudletList.get(row);
+			for (int col = 0; col < colNum; col++) {
+				cost[row * colNum + col] = cloudletCost(cloudlet, col, vmList.get(col));
+			}
+		}
+		return cost;
+	}
+
+	/**
+	 * Computes the cost of one cloudlet on one vm.
+	 *
+	 * @param cloudlet the cloudlet
+	 * @param col the index of the vm in the model
+	 * @param vm the vm
+	 * @return the processing and bandwidth cost
+	 */
+	public double cloudletCost(Cloudlet cloudlet, int col, Vm vm) {
+		return costPerSecond[col] * cloudlet.getCloudletLength() / vm.getMips()
+				+ costPerBw[col] * cloudlet.getCloudletFileSize();
+	}
+
+	/**
+	 * Computes the total cost of a binding, including the fixed cost of every vm it uses.
+	 *
+	 * @param cloudletList the cloudlets
+	 * @param vmList the vms, in the order of the model
+	 * @param assignment the vm index of every cloudlet
+	 * @return the total cost
+	 */
+	public double cost(List<? extends Cloudlet> cloudletList, List<? extends Vm> vmList, int[] assignment) {
+		boolean[] used = new boolean[vmList.size()];
+		double total = 0.0;
+		for (int row = 0; row < assignment.length; row++) {
+			int col = assignment[row];
+			total += cloudletCost(cloudletList.get(row), col, vmList.get(col));
+			used[col] = true;
+		}
+		for (int col = 0; col < used.length; col++) {
+			if (used[col]) {
+				total += fixedCost[col];
+			}
+		}
+		return total;
+	}
+
+}
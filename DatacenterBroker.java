@@ -8,16 +8,26 @@
 
 package org.cloudbus.cloudsim.examples;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.CloudletScheduler;
+import org.cloudbus.cloudsim.CloudletSchedulerSpaceShared;
+import org.cloudbus.cloudsim.CloudletSchedulerTimeShared;
 import org.cloudbus.cloudsim.DatacenterCharacteristics;
-import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.CloudSimTags;
@@ -36,9 +46,231 @@ import org.cloudbus.cloudsim.lists.VmList;
  */
 public class DatacenterBroker extends SimEntity {
 
-	private static int vmNum=2;
-	
-	private static List <Cloudlet> sortList= new ArrayList<Cloudlet>();
+	/**
+	 * The tag of the event releasing the next wave of a pipelined binding to the broker itself,
+	 * outside the range of {@link CloudSimTags}.
+	 */
+	public static final int PIPELINE_WAVE = 47001;
+
+	/** A wave of cloudlets bound by the pipelined suffrage binding, in assignment order. */
+	private static class Wave {
+
+		/** The bound cloudlets. */
+		final List<Cloudlet> cloudlets;
+
+		/**
+		 * The time, from the start of the binding, before which no cloudlet of the next waves is
+		 * planned to start; the next wave is released then.
+		 */
+		final double nextRelease;
+
+		/** Whether this is the last wave. */
+		final boolean last;
+
+		/** The error that stopped the scheduler thread, or null. */
+		final Throwable error;
+
+		Wave(List<Cloudlet> cloudlets, double nextRelease, boolean last, Throwable error) {
+			this.cloudlets = cloudlets;
+			this.nextRelease = nextRelease;
+			this.last = last;
+			this.error = error;
+		}
+	}
+
+	/** The state of a pipelined suffrage binding. */
+	private static class Pipeline {
+
+		/** The number of cloudlets of a wave. */
+		final int waveSize;
+
+		/** The waves handed over by the scheduler thread. */
+		final BlockingQueue<Wave> waves;
+
+		/** The cloudlets being bound, in FCFS order; the rows of the scheduler. */
+		final List<Cloudlet> cloudlets;
+
+		/** The scheduler thread. */
+		Thread thread;
+
+		/** The number of assigned rows already handed over, scheduler thread only. */
+		int emitted;
+
+		/** The simulation time the first wave was submitted at, -1 before. */
+		double startTime = -1;
+
+		Pipeline(int waveSize, int queueCapacity, List<Cloudlet> cloudlets) {
+			this.waveSize = waveSize;
+			waves = new ArrayBlockingQueue<Wave>(queueCapacity);
+			this.cloudlets = cloudlets;
+		}
+	}
+
+	/** The work a bound cloudlet has committed to the shared view. */
+	private static class Commitment {
+
+		/** The fleet slot the work is committed on. */
+		final int slot;
+
+		/** The expected execution time committed. */
+		final double work;
+
+		Commitment(int slot, double work) {
+			this.slot = slot;
+			this.work = work;
+		}
+	}
+
+	/** The cloudlets in the order the suffrage scheduler assigned them. */
+	private List<Cloudlet> sortList;
+
+	/** The vm fleet view shared with other tenant brokers, or null. */
+	private SharedReadyTimeView sharedView;
+
+	/** The tenant index of this broker in the shared view. */
+	private int tenant;
+
+	/** The fleet slot of the vms of the shared view, by vm id, in submission order. */
+	private final Map<Integer, Integer> fleetSlots = new HashMap<Integer, Integer>();
+
+	/** The work the bound cloudlets not returned yet committed to the shared view, by cloudlet id. */
+	private final Map<Integer, Commitment> commitments = new ConcurrentHashMap<Integer, Commitment>();
+
+	/** The log of the broker events. */
+	private BrokerLog brokerLog;
+
+	/** The file the suffrage scheduler state is checkpointed to, or null. */
+	private String checkpointFile;
+
+	/** The number of suffrage iterations between two checkpoints. */
+	private int checkpointInterval;
+
+	/** The file the suffrage decisions are logged to, or null. */
+	private String decisionLogFile;
+
+	/** Whether the suffrage scheduler traces every step to System.out. */
+	private boolean verbose = true;
+
+	/** The wall time the suffrage iterations may take, in milliseconds; 0 for no limit. */
+	private long schedulingBudget;
+
+	/** The number of cloudlets the last suffrage binding placed with the suffrage iterations. */
+	private int suffragePlacedCount;
+
+	/** The number of cloudlets the last suffrage binding placed with the earliest-ready fallback. */
+	private int fallbackPlacedCount;
+
+	/** Whether cloudlets bound to vms that could not be created are rescheduled. */
+	private boolean replanOnVmFailure = true;
+
+	/** The weight of the monetary cost in the cost-aware binding, from 0 to 1 (exclusive). */
+	private double costWeight = 0.5;
+
+	/** The binding policy waiting for the vms to be created, or null. */
+	private BindingPolicy deferredPolicy;
+
+	/** The expected makespan and cost of the last cost-aware binding, or null. */
+	private CostAwareScheduling.Schedule costAwareSchedule;
+
+	/** The relative makespan increase the energy-aware binding may accept to save energy. */
+	private double energyMakespanThreshold = 0.1;
+
+	/** The expected makespan and energy of the last energy-aware binding, or null. */
+	private EnergyAwareScheduling.Schedule energyAwareSchedule;
+
+	/** The length distribution of the cloudlets whose length is an estimate, by cloudlet id. */
+	private Map<Integer, LengthDistribution> lengthDistributions
+			= new HashMap<Integer, LengthDistribution>();
+
+	/** The number of standard deviations the robust binding adds to the mean completion times. */
+	private double riskFactor = 1.0;
+
+	/** The data-affinity key of the cloudlets sharing their input data, by cloudlet id. */
+	private Map<Integer, String> dataAffinityKeys = new HashMap<Integer, String>();
+
+	/** The learned runtime correction of the suffrage binding, or null. */
+	private RuntimeModel runtimeModel;
+
+	/** The input data the last suffrage binding staged on the vms. */
+	private double transferVolume;
+
+	/** The part of it the last suffrage binding copied to a vm while another vm held it. */
+	private double crossVmTransferVolume;
+
+	/** The number of Monte Carlo samples the robust binding evaluates its candidates on. */
+	private int monteCarloSamples = 1000;
+
+	/** The expected and p95 makespan of the last robust binding, or null. */
+	private RobustScheduling.Schedule robustSchedule;
+
+	/** The vm autoscaling creates copies of, or null if the fleet is fixed. */
+	private Vm autoscaleTemplate;
+
+	/** The number of created vms autoscaling never goes below. */
+	private int autoscaleMinVms;
+
+	/** The number of created vms autoscaling never goes above. */
+	private int autoscaleMaxVms;
+
+	/** The projected makespan of the waiting cloudlets above which autoscaling adds vms. */
+	private double autoscaleTargetMakespan;
+
+	/** Whether the waiting cloudlets wait for vms requested by autoscaling. */
+	private boolean autoscaleRequested;
+
+	/** The number of cloudlets submitted and not returned yet, by vm id (autoscaling only). */
+	private Map<Integer, Integer> outstandingCloudlets;
+
+	/** The expected execution time of the cloudlets not returned yet, by vm id (autoscaling only). */
+	private Map<Integer, Double> outstandingWork;
+
+	/** The part of it each of those cloudlets added, by cloudlet id (autoscaling only). */
+	private Map<Integer, Double> outstandingRuntime;
+
+	/** The number of vms created by autoscaling. */
+	private int vmsAddedCount;
+
+	/** The number of idle vms destroyed by autoscaling. */
+	private int vmsRetiredCount;
+
+	/** The makespan of the waiting cloudlets projected by the last autoscaling check. */
+	private double projectedMakespan;
+
+	/** The mean queue wait of the waiting cloudlets projected by the last autoscaling check. */
+	private double projectedQueueWait;
+
+	/** The sink returned cloudlets are streamed to instead of being kept, or null. */
+	private CloudletResultSink resultSink;
+
+	/** The latency histograms every returned cloudlet is recorded in, or null. */
+	private CloudletLatencyStats latencyStats;
+
+	/** The scheduler {@link #runSuffrage} is running, or null; read by {@link BrokerMonitor}. */
+	private volatile SuffrageScheduler activeScheduler;
+
+	/** The wall time of the finished suffrage, cost-aware and energy-aware bindings, in nanoseconds. */
+	private volatile long bindingNanos;
+
+	/** The window scan time of the finished suffrage bindings, in nanoseconds. */
+	private volatile long scanNanos;
+
+	/** The assignment time of the finished suffrage bindings, in nanoseconds. */
+	private volatile long assignNanos;
+
+	/** The wall time spent writing checkpoints, in nanoseconds. */
+	private volatile long checkpointNanos;
+
+	/** The number of cloudlets returned so far. */
+	private volatile int cloudletsReturned;
+
+	/** The wall clock when the broker started, in nanoseconds. */
+	private volatile long startWallNanos;
+
+	/** The pipelined binding whose waves are not all submitted yet, or null. */
+	private Pipeline pipeline;
+
+	/** The number of waves of pipelined bindings submitted so far. */
+	private int wavesSubmitted;
 	/** The vm list. */
 	protected List<? extends Vm> vmList;
 
@@ -105,6 +337,30 @@ public class DatacenterBroker extends SimEntity {
 		setDatacenterRequestedIdsList(new ArrayList<Integer>());
 		setVmsToDatacentersMap(new HashMap<Integer, Integer>());
 		setDatacenterCharacteristicsList(new HashMap<Integer, DatacenterCharacteristics>());
+		sortList = new ArrayList<Cloudlet>();
+		setBrokerLog(new BrokerLog());
+	}
+
+	/**
+	 * Created a new DatacenterBroker object acting for one tenant of a shared vm fleet. The first
+	 * vms submitted to this broker run on the slots of the fleet, in order. Every binding of this
+	 * broker built on the suffrage scheduler takes into account the work committed by the other
+	 * tenants of the view, and every cloudlet the broker binds to a vm of the fleet commits its
+	 * expected execution time to the view, moved along when the cloudlet is rebound.
+	 * 
+	 * @param name name to be associated with this entity (as required by Sim_entity class from
+	 *            simjava package)
+	 * @param sharedView the fleet view shared by the tenants
+	 * @param weight the fair-share weight of this tenant
+	 * @throws Exception the exception
+	 * @pre name != null && sharedView != null && weight > 0
+	 * @post $none
+	 * @see SharedReadyTimeView
+	 */
+	public DatacenterBroker(String name, SharedReadyTimeView sharedView, double weight) throws Exception {
+		this(name);
+		this.sharedView = sharedView;
+		tenant = sharedView.registerTenant(getId(), weight);
 	}
 
 	/**
@@ -117,6 +373,15 @@ public class DatacenterBroker extends SimEntity {
 	 */
 	public void submitVmList(List<? extends Vm> list) {
 		getVmList().addAll(list);
+		if (sharedView != null) {
+			// the first vms submitted run on the slots of the fleet, in order
+			for (Vm vm : list) {
+				if (fleetSlots.size() == sharedView.getVmNum()) {
+					break;
+				}
+				fleetSlots.put(vm.getId(), fleetSlots.size());
+			}
+		}
 	}
 
 	/**
@@ -169,6 +434,10 @@ public class DatacenterBroker extends SimEntity {
 			case CloudSimTags.CLOUDLET_RETURN:
 				processCloudletReturn(ev);
 				break;
+			// the next wave of a pipelined binding is due
+			case PIPELINE_WAVE:
+				submitNextWave();
+				break;
 			// if the simulation finishes
 			case CloudSimTags.END_OF_SIMULATION:
 				shutdownEntity();
@@ -208,8 +477,11 @@ public class DatacenterBroker extends SimEntity {
 		setDatacenterIdsList(CloudSim.getCloudResourceList());
 		setDatacenterCharacteristicsList(new HashMap<Integer, DatacenterCharacteristics>());
 
-		Log.printLine(CloudSim.clock() + ": " + getName() + ": Cloud Resource List received with "
-				+ getDatacenterIdsList().size() + " resource(s)");
+		if (getBrokerLog().isEnabled(BrokerLog.Event.RESOURCES)) {
+			getBrokerLog().log(BrokerLog.Event.RESOURCES,
+					"%s: %s: Cloud Resource List received with %d resource(s)", CloudSim.clock(), getName(),
+					getDatacenterIdsList().size());
+		}
 
 		for (Integer datacenterId : getDatacenterIdsList()) {
 			sendNow(datacenterId, CloudSimTags.RESOURCE_CHARACTERISTICS, getId());
@@ -232,12 +504,18 @@ public class DatacenterBroker extends SimEntity {
 		if (result == CloudSimTags.TRUE) {
 			getVmsToDatacentersMap().put(vmId, datacenterId);
 			getVmsCreatedList().add(VmList.getById(getVmList(), vmId));
-			Log.printLine(CloudSim.clock() + ": " + getName() + ": VM #" + vmId
-					+ " has been created in Datacenter #" + datacenterId + ", Host #"
-					+ VmList.getById(getVmsCreatedList(), vmId).getHost().getId());
+			if (getBrokerLog().isEnabled(BrokerLog.Event.VM_CREATE)) {
+				getBrokerLog().log(BrokerLog.Event.VM_CREATE,
+						"%s: %s: VM #%d has been created in Datacenter #%d, Host #%d", CloudSim.clock(),
+						getName(), vmId, datacenterId,
+						VmList.getById(getVmsCreatedList(), vmId).getHost().getId());
+			}
 		} else {
-			Log.printLine(CloudSim.clock() + ": " + getName() + ": Creation of VM #" + vmId
-					+ " failed in Datacenter #" + datacenterId);
+			if (getBrokerLog().isEnabled(BrokerLog.Event.VM_CREATE)) {
+				getBrokerLog().log(BrokerLog.Event.VM_CREATE,
+						"%s: %s: Creation of VM #%d failed in Datacenter #%d", CloudSim.clock(), getName(),
+						vmId, datacenterId);
+			}
 		}
 
 		incrementVmsAcks();
@@ -258,10 +536,14 @@ public class DatacenterBroker extends SimEntity {
 
 				// all datacenters already queried
 				if (getVmsCreatedList().size() > 0) { // if some vm were created
+					if (isReplanOnVmFailure()) {
+						replanFailedBindings();
+					}
 					submitCloudlets();
 				} else { // no vms created. abort
-					Log.printLine(CloudSim.clock() + ": " + getName()
-							+ ": none of the required VMs could be created. Aborting");
+					getBrokerLog().log(BrokerLog.Event.ERROR,
+							"%s: %s: none of the required VMs could be created. Aborting", CloudSim.clock(),
+							getName());
 					finishExecution();
 				}
 			}
@@ -277,15 +559,57 @@ public class DatacenterBroker extends SimEntity {
 	 */
 	protected void processCloudletReturn(SimEvent ev) {
 		Cloudlet cloudlet = (Cloudlet) ev.getData();
-		getCloudletReceivedList().add(cloudlet);
-		Log.printLine(CloudSim.clock() + ": " + getName() + ": Cloudlet " + cloudlet.getCloudletId()
-				+ " received");
+		List<Cloudlet> results;
+		if (cloudlet instanceof CompositeCloudlet) {
+			results = ((CompositeCloudlet) cloudlet).expand();
+		} else {
+			results = Collections.singletonList(cloudlet);
+		}
+		for (Cloudlet result : results) {
+			cloudletsReturned++;
+			if (resultSink != null) {
+				resultSink.record(result);
+			} else {
+				getCloudletReceivedList().add(result);
+			}
+			if (latencyStats != null) {
+				latencyStats.record(result);
+			}
+		}
+		if (runtimeModel != null) {
+			learnRuntime(cloudlet);
+		}
+		// the work stays committed to the shared view: it is the history the other tenants shared
+		commitments.remove(cloudlet.getCloudletId());
+		if (getBrokerLog().isEnabled(BrokerLog.Event.CLOUDLET_RETURN)) {
+			getBrokerLog().log(BrokerLog.Event.CLOUDLET_RETURN, "%s: %s: Cloudlet %d received",
+					CloudSim.clock(), getName(), cloudlet.getCloudletId());
+		}
 		cloudletsSubmitted--;
-		if (getCloudletList().size() == 0 && cloudletsSubmitted == 0) { // all cloudlets executed
-			Log.printLine(CloudSim.clock() + ": " + getName() + ": All Cloudlets executed. Finishing...");
+		boolean vmIdle = false;
+		if (isAutoscaling()) {
+			int vmId = cloudlet.getVmId();
+			Vm vm = VmList.getById(getVmsCreatedList(), vmId);
+			Integer count = outstandingCloudlets.get(vmId);
+			int left = count == null ? 0 : count - 1;
+			outstandingCloudlets.put(vmId, left);
+			// the runtime added at submission, though the runtime model may have learned since
+			Double runtime = outstandingRuntime.remove(cloudlet.getCloudletId());
+			if (runtime != null && outstandingWork.containsKey(vmId)) {
+				outstandingWork.put(vmId, Math.max(0.0, outstandingWork.get(vmId) - runtime));
+			}
+			vmIdle = left == 0 && vm != null;
+		}
+		// all cloudlets executed, and no wave of a pipelined binding is still due
+		if (getCloudletList().size() == 0 && cloudletsSubmitted == 0 && pipeline == null) {
+			getBrokerLog().log(BrokerLog.Event.LIFECYCLE, "%s: %s: All Cloudlets executed. Finishing...",
+					CloudSim.clock(), getName());
 			clearDatacenters();
 			finishExecution();
 		} else { // some cloudlets haven't finished yet
+			if (vmIdle && cloudletsSubmitted > 0) {
+				retireIdleVm(cloudlet.getVmId());
+			}
 			if (getCloudletList().size() > 0 && cloudletsSubmitted == 0) {
 				// all the cloudlets sent finished. It means that some bount
 				// cloudlet is waiting its VM be created
@@ -296,6 +620,18 @@ public class DatacenterBroker extends SimEntity {
 		}
 	}
 
+	/* learn from the actual CPU time of a cloudlet that ran on a space-shared vm */
+	private void learnRuntime(Cloudlet cloudlet) {
+		if (cloudlet.getCloudletStatus() != Cloudlet.SUCCESS) {
+			return;
+		}
+		Vm vm = VmList.getById(getVmsCreatedList(), cloudlet.getVmId());
+		// the cloudlets of a time-shared vm slow each other down, which the engine models already
+		if (vm != null && !(vm.getCloudletScheduler() instanceof CloudletSchedulerTimeShared)) {
+			runtimeModel.observe(cloudlet, vm);
+		}
+	}
+
 	/**
 	 * Overrides this method when making a new and different type of Broker. This method is called
 	 * by {@link #body()} for incoming unknown tags.
@@ -306,12 +642,13 @@ public class DatacenterBroker extends SimEntity {
 	 */
 	protected void processOtherEvent(SimEvent ev) {
 		if (ev == null) {
-			Log.printLine(getName() + ".processOtherEvent(): " + "Error - an event is null.");
+			getBrokerLog().log(BrokerLog.Event.ERROR, "%s.processOtherEvent(): Error - an event is null.",
+					getName());
 			return;
 		}
 
-		Log.printLine(getName() + ".processOtherEvent(): "
-				+ "Error - event unknown by this DatacenterBroker.");
+		getBrokerLog().log(BrokerLog.Event.ERROR,
+				"%s.processOtherEvent(): Error - event unknown by this DatacenterBroker.", getName());
 	}
 
 	/**
@@ -327,8 +664,10 @@ public class DatacenterBroker extends SimEntity {
 		String datacenterName = CloudSim.getEntityName(datacenterId);
 		for (Vm vm : getVmList()) {
 			if (!getVmsToDatacentersMap().containsKey(vm.getId())) {
-				Log.printLine(CloudSim.clock() + ": " + getName() + ": Trying to Create VM #" + vm.getId()
-						+ " in " + datacenterName);
+				if (getBrokerLog().isEnabled(BrokerLog.Event.VM_CREATE)) {
+					getBrokerLog().log(BrokerLog.Event.VM_CREATE, "%s: %s: Trying to Create VM #%d in %s",
+							CloudSim.clock(), getName(), vm.getId(), datacenterName);
+				}
 				sendNow(datacenterId, CloudSimTags.VM_CREATE_ACK, vm);
 				requestedVms++;
 			}
@@ -340,6 +679,229 @@ public class DatacenterBroker extends SimEntity {
 		setVmsAcks(0);
 	}
 
+	/**
+	 * Rebinds the cloudlets bound to vms that could not be created. A suffrage scheduler set up as
+	 * for {@link #bindCloutletToVmsSuffrage()} (runtime model, data affinity and shared view, if
+	 * any) is run over the created vms, with the cloudlets already bound to them preassigned (see
+	 * {@link SuffrageScheduler#preassign(int[])}), so that the ready times, the time-shared vms and
+	 * the data the vms hold are those of the bound cloudlets. Without this, the cloudlets are
+	 * postponed until every submitted cloudlet has returned and the vms are created again. The
+	 * rebound cloudlets move to the end of the sorted list, in the order they were rebound.
+	 * 
+	 * @pre $none
+	 * @post $none
+	 */
+	protected void replanFailedBindings() {
+		List<Vm> createdVms = getVmsCreatedList();
+		Map<Integer, Integer> createdIndex = new HashMap<Integer, Integer>();
+		for (int i = 0; i < createdVms.size(); i++) {
+			createdIndex.put(createdVms.get(i).getId(), i);
+		}
+
+		List<Cloudlet> rows = new ArrayList<Cloudlet>();
+		Set<Cloudlet> affected = new HashSet<Cloudlet>();
+		for (Cloudlet cloudlet : getCloudletList()) {
+			if (cloudlet.getVmId() == -1) {
+				continue;
+			}
+			rows.add(cloudlet);
+			if (!createdIndex.containsKey(cloudlet.getVmId())) {
+				affected.add(cloudlet);
+			}
+		}
+		if (affected.isEmpty()) {
+			return;
+		}
+		int[] columns = new int[rows.size()];
+		for (int row = 0; row < columns.length; row++) {
+			Integer index = createdIndex.get(rows.get(row).getVmId());
+			columns[row] = index != null ? index : -1;
+		}
+
+		SuffrageScheduler scheduler = new SuffrageScheduler(rows, createdVms);
+		scheduler.setVerbose(isVerbose());
+		configureScheduler(scheduler, rows, createdVms);
+		scheduler.preassign(columns);
+		int bound = scheduler.getOrderCount();
+		while (!scheduler.isFinished()) {
+			scheduler.step();
+		}
+		if (resultSink == null) {
+			sortList.removeAll(affected);
+		}
+		for (int i = bound; i < scheduler.getOrderCount(); i++) {
+			int row = scheduler.getOrder(i);
+			Cloudlet cloudlet = rows.get(row);
+			bindCloudlet(cloudlet, createdVms.get(scheduler.getAssignment(row)));
+			if (resultSink == null) {
+				sortList.add(cloudlet);
+			}
+		}
+		if (getBrokerLog().isEnabled(BrokerLog.Event.SCHEDULER)) {
+			getBrokerLog().log(BrokerLog.Event.SCHEDULER,
+					"%s: %s: %d cloudlet(s) rebound to the %d created VM(s)", CloudSim.clock(), getName(),
+					affected.size(), createdVms.size());
+		}
+	}
+
+	/**
+	 * Projects the makespan and the queue wait of the waiting cloudlets on the created vms and,
+	 * if the projected makespan is above the autoscaling target, requests more vms. When vms
+	 * requested by the previous call have been created, the waiting cloudlets are rebound with the
+	 * suffrage algorithm across the new fleet (or unbound, if a cost- or energy-aware binding is
+	 * pending, so that it binds them instead). At most one scale-up is made per submission, so a
+	 * datacenter that refuses the new vms does not stall the broker.
+	 * <p>
+	 * The projection is the ready-time vector of a {@link SuffrageScheduler} set up as for the
+	 * suffrage binding (runtime model, data affinity and shared view, if any), whose vms start with
+	 * the expected runtime of the work already submitted to them, corrected by the same runtime
+	 * model, after {@link SuffrageScheduler#finishWithFallback()} has spread the waiting cloudlets
+	 * in FCFS order over the earliest ready vms. The queue wait is the mean ready time of the vm of
+	 * every waiting cloudlet just before the scheduler placed it (see
+	 * {@link SuffrageScheduler#getTotalWait()}). The rebinding after a scale-up uses a scheduler
+	 * set up the same way.
+	 * 
+	 * @return true if vms were requested and the cloudlets must wait for them
+	 * @pre isAutoscaling()
+	 * @post $none
+	 */
+	protected boolean autoscaleVms() {
+		boolean grown = autoscaleRequested;
+		if (autoscaleRequested) {
+			autoscaleRequested = false;
+			// forget the requested vms no datacenter could create
+			for (Iterator<Vm> it = getVmList().iterator(); it.hasNext();) {
+				Vm vm = it.next();
+				if (!getVmsToDatacentersMap().containsKey(vm.getId())) {
+					it.remove();
+					vmsAddedCount--;
+				}
+			}
+		}
+		List<Cloudlet> waiting = getCloudletList();
+		List<Vm> createdVms = getVmsCreatedList();
+		if (waiting.isEmpty() || createdVms.isEmpty()) {
+			return false;
+		}
+
+		SuffrageScheduler projection = newScheduler(waiting, createdVms);
+		projection.finishWithFallback();
+		projectedMakespan = 0.0;
+		double capacity = 0.0;
+		for (int col = 0; col < createdVms.size(); col++) {
+			projectedMakespan = Math.max(projectedMakespan, projection.getReadyTime(col));
+			capacity += createdVms.get(col).getMips();
+		}
+		// both from the scheduler, so they agree on the runtimes, corrected or not
+		projectedQueueWait = projection.getTotalWait() / projection.getOrderCount();
+		if (getBrokerLog().isEnabled(BrokerLog.Event.SCHEDULER)) {
+			getBrokerLog().log(BrokerLog.Event.SCHEDULER,
+					"%s: %s: projected makespan %s and mean queue wait %s on %d VM(s)", CloudSim.clock(),
+					getName(), projectedMakespan, projectedQueueWait, createdVms.size());
+		}
+
+		if (!grown && projectedMakespan > getAutoscaleTargetMakespan()
+				&& createdVms.size() < getAutoscaleMaxVms()) {
+			// the capacity that brings the projection down to the target, in template vms
+			double missing = capacity * (projectedMakespan / getAutoscaleTargetMakespan() - 1.0);
+			int extra = (int) Math.ceil(missing / autoscaleTemplate.getMips());
+			extra = Math.max(1, Math.min(extra, getAutoscaleMaxVms() - createdVms.size()));
+			requestVms(extra, getVmsToDatacentersMap().get(createdVms.get(0).getId()));
+			return true;
+		}
+
+		if (grown) {
+			if (deferredPolicy != null) {
+				for (Cloudlet cloudlet : waiting) {
+					bindCloudlet(cloudlet, null);
+				}
+			} else {
+				SuffrageScheduler scheduler = newScheduler(waiting, createdVms);
+				while (!scheduler.isFinished()) {
+					scheduler.step();
+				}
+				for (int row = 0; row < waiting.size(); row++) {
+					bindCloudlet(waiting.get(row), createdVms.get(scheduler.getAssignment(row)));
+				}
+			}
+		}
+		return false;
+	}
+
+	/*
+	 * a quiet suffrage scheduler set up as the suffrage binding, whose vms start with the work
+	 * already submitted to them
+	 */
+	private SuffrageScheduler newScheduler(List<Cloudlet> cloudlets, List<Vm> vms) {
+		SuffrageScheduler scheduler = new SuffrageScheduler(cloudlets, vms);
+		scheduler.setVerbose(false);
+		configureScheduler(scheduler, cloudlets, vms);
+		for (int col = 0; col < vms.size(); col++) {
+			Double work = outstandingWork.get(vms.get(col).getId());
+			if (work != null) {
+				scheduler.setReadyTime(col, work);
+			}
+		}
+		return scheduler;
+	}
+
+	/* add copies of the autoscaling template to the vm list and create them in a datacenter */
+	private void requestVms(int count, int datacenterId) {
+		int nextId = 0;
+		for (Vm vm : getVmList()) {
+			nextId = Math.max(nextId, vm.getId() + 1);
+		}
+		Vm template = autoscaleTemplate;
+		for (int i = 0; i < count; i++) {
+			CloudletScheduler cloudletScheduler;
+			if (template.getCloudletScheduler() instanceof CloudletSchedulerTimeShared) {
+				cloudletScheduler = new CloudletSchedulerTimeShared();
+			} else {
+				cloudletScheduler = new CloudletSchedulerSpaceShared();
+			}
+			getVmList().add(new Vm(nextId++, getId(), template.getMips(), template.getNumberOfPes(),
+					template.getRam(), template.getBw(), template.getSize(), template.getVmm(),
+					cloudletScheduler));
+		}
+		vmsAddedCount += count;
+		autoscaleRequested = true;
+		getBrokerLog().log(BrokerLog.Event.VM_CREATE,
+				"%s: %s: projected makespan %s above target %s, requesting %d more VM(s)", CloudSim.clock(),
+				getName(), projectedMakespan, getAutoscaleTargetMakespan(), count);
+		createVmsInDatacenter(datacenterId);
+	}
+
+	/**
+	 * Destroys a created vm that has no cloudlet running or waiting for it, unless autoscaling
+	 * must keep the vms left. The vm is dropped from the vm list.
+	 * 
+	 * @param vmId the id of the idle vm
+	 * @pre isAutoscaling()
+	 * @post $none
+	 */
+	protected void retireIdleVm(int vmId) {
+		if (getVmsCreatedList().size() <= getAutoscaleMinVms()) {
+			return;
+		}
+		for (Cloudlet cloudlet : getCloudletList()) {
+			if (cloudlet.getVmId() == vmId) {
+				return;
+			}
+		}
+		Vm vm = VmList.getById(getVmsCreatedList(), vmId);
+		if (getBrokerLog().isEnabled(BrokerLog.Event.VM_DESTROY)) {
+			getBrokerLog().log(BrokerLog.Event.VM_DESTROY, "%s: %s: Destroying idle VM #%d", CloudSim.clock(),
+					getName(), vmId);
+		}
+		sendNow(getVmsToDatacentersMap().get(vmId), CloudSimTags.VM_DESTROY, vm);
+		getVmsCreatedList().remove(vm);
+		getVmList().remove(vm);
+		getVmsToDatacentersMap().remove(vmId);
+		outstandingCloudlets.remove(vmId);
+		outstandingWork.remove(vmId);
+		vmsRetiredCount++;
+	}
+
 	/**
 	 * Submit cloudlets to the created VMs.
 	 * 
@@ -347,7 +909,28 @@ public class DatacenterBroker extends SimEntity {
 	 * @post $none
 	 */
 	protected void submitCloudlets() {
+		if (pipeline != null && pipeline.startTime < 0) {
+			// the cloudlets of a pipelined binding start with its first wave
+			pipeline.startTime = CloudSim.clock();
+			submitNextWave();
+			return;
+		}
+		if (isAutoscaling() && autoscaleVms()) {
+			return; // the cloudlets wait for the new vms
+		}
+		if (deferredPolicy != null) {
+			// the deferred binding runs inside the simulation, so it is timed here
+			long startNanos = System.nanoTime();
+			if (deferredPolicy == BindingPolicy.COST_AWARE) {
+				bindCloudletsCostAware();
+			} else if (deferredPolicy == BindingPolicy.ENERGY_AWARE) {
+				bindCloudletsEnergyAware();
+			}
+			bindingNanos += System.nanoTime() - startNanos;
+			deferredPolicy = null;
+		}
 		int vmIndex = 0;
+		List<Cloudlet> postponed = new ArrayList<Cloudlet>();
 		for (Cloudlet cloudlet : getCloudletList()) {
 			Vm vm;
 			// if user didn't bind this cloudlet and it has not been executed yet
@@ -356,25 +939,44 @@ public class DatacenterBroker extends SimEntity {
 			} else { // submit to the specific vm
 				vm = VmList.getById(getVmsCreatedList(), cloudlet.getVmId());
 				if (vm == null) { // vm was not created
-					Log.printLine(CloudSim.clock() + ": " + getName() + ": Postponing execution of cloudlet "
-							+ cloudlet.getCloudletId() + ": bount VM not available");
+					if (getBrokerLog().isEnabled(BrokerLog.Event.CLOUDLET_SUBMIT)) {
+						getBrokerLog().log(BrokerLog.Event.CLOUDLET_SUBMIT,
+								"%s: %s: Postponing execution of cloudlet %d: bount VM not available",
+								CloudSim.clock(), getName(), cloudlet.getCloudletId());
+					}
+					postponed.add(cloudlet);
 					continue;
 				}
 			}
 
-			Log.printLine(CloudSim.clock() + ": " + getName() + ": Sending cloudlet "
-					+ cloudlet.getCloudletId() + " to VM #" + vm.getId());
-			cloudlet.setVmId(vm.getId());
+			if (getBrokerLog().isEnabled(BrokerLog.Event.CLOUDLET_SUBMIT)) {
+				getBrokerLog().log(BrokerLog.Event.CLOUDLET_SUBMIT, "%s: %s: Sending cloudlet %d to VM #%d",
+						CloudSim.clock(), getName(), cloudlet.getCloudletId(), vm.getId());
+			}
+			if (cloudlet.getVmId() == -1) {
+				bindCloudlet(cloudlet, vm);
+			}
 			sendNow(getVmsToDatacentersMap().get(vm.getId()), CloudSimTags.CLOUDLET_SUBMIT, cloudlet);
 			cloudletsSubmitted++;
+			if (isAutoscaling()) {
+				Integer count = outstandingCloudlets.get(vm.getId());
+				Double work = outstandingWork.get(vm.getId());
+				// corrected as in the projection schedulers, so the ready times they start at agree
+				double runtime = getPlannedRuntime(cloudlet, vm);
+				outstandingCloudlets.put(vm.getId(), count == null ? 1 : count + 1);
+				outstandingWork.put(vm.getId(), (work == null ? 0.0 : work) + runtime);
+				outstandingRuntime.put(cloudlet.getCloudletId(), runtime);
+			}
 			vmIndex = (vmIndex + 1) % getVmsCreatedList().size();
-			getCloudletSubmittedList().add(cloudlet);
+			if (resultSink == null) {
+				getCloudletSubmittedList().add(cloudlet);
+			}
 		}
 
 		// remove submitted cloudlets from waiting list
-		for (Cloudlet cloudlet : getCloudletSubmittedList()) {
-			getCloudletList().remove(cloudlet);
-		}
+		List<Cloudlet> waiting = getCloudletList();
+		waiting.clear();
+		waiting.addAll(postponed);
 	}
 
 	/**
@@ -385,7 +987,10 @@ public class DatacenterBroker extends SimEntity {
 	 */
 	protected void clearDatacenters() {
 		for (Vm vm : getVmsCreatedList()) {
-			Log.printLine(CloudSim.clock() + ": " + getName() + ": Destroying VM #" + vm.getId());
+			if (getBrokerLog().isEnabled(BrokerLog.Event.VM_DESTROY)) {
+				getBrokerLog().log(BrokerLog.Event.VM_DESTROY, "%s: %s: Destroying VM #%d", CloudSim.clock(),
+						getName(), vm.getId());
+			}
 			sendNow(getVmsToDatacentersMap().get(vm.getId()), CloudSimTags.VM_DESTROY, vm);
 		}
 
@@ -408,7 +1013,19 @@ public class DatacenterBroker extends SimEntity {
 	 */
 	@Override
 	public void shutdownEntity() {
-		Log.printLine(getName() + " is shutting down...");
+		getBrokerLog().log(BrokerLog.Event.LIFECYCLE, "%s is shutting down...", getName());
+		if (pipeline != null && pipeline.thread != null) {
+			// nothing may be written after the broker and its log are closed
+			stopPipeline();
+		}
+		if (resultSink != null) {
+			try {
+				resultSink.close();
+			} catch (IOException e) {
+				getBrokerLog().log(BrokerLog.Event.ERROR, "%s: could not write the results: %s", getName(),
+						e.getMessage());
+			}
+		}
 	}
 
 	/*
@@ -417,7 +1034,8 @@ public class DatacenterBroker extends SimEntity {
 	 */
 	@Override
 	public void startEntity() {
-		Log.printLine(getName() + " is starting...");
+		startWallNanos = System.nanoTime();
+		getBrokerLog().log(BrokerLog.Event.LIFECYCLE, "%s is starting...", getName());
 		schedule(getId(), 0, CloudSimTags.RESOURCE_CHARACTERISTICS_REQUEST);
 	}
 
@@ -662,305 +1280,1418 @@ public class DatacenterBroker extends SimEntity {
 	
 /**BEGINNING OF OUR ALGORITHM**/
 	
-	public void bindCloutletToVmsSuffrage() {
-		/** The cloudlet list. */
-		
-
-		
-		int vmNum = vmList.size();
-		int count = 1; // iteration number
-		
-		//FCFS algorithm
-		/*int cloudletNum=cloudletList.size();
-		int idx=0;
-		for(int i=0;i<cloudletNum;i++){
-			cloudletList.get(i).setVmId(vmList.get(idx).getId());
-			idx=(idx+1)%vmNum;
-		}*/
-		
-		// ready time for each machine initially to be 0 //
-		Double[] readyTime = new Double[vmNum];
-		for (int i = 0; i < readyTime.length; i++) {
-			readyTime[i] = 0.0;
-		}
-		
-		// list to record if the vm has been assigned //
-		List<Double[]> vmSuffrage = new ArrayList<Double[]>();
-		for (int i = 0; i < vmNum; i++) {
-			// 1st is index of the cloudlet (can be double or int)
-			// 2nd is corresponding suffrage, if the suffrage is 0.0 (also initial value(
-			// then it means it has not been assigned yet
-			Double[] vmIdAndSuffrage = {0.0, 0.0};
-			vmSuffrage.add(i, vmIdAndSuffrage);
-		}
-		
-		// initialize the 2-dimensional matrix with ready time + completion time //
-		List<List<Double>> tasksVmsMatrix = create2DMatrix(cloudletList, vmList);
-		int rowNum = tasksVmsMatrix.size();
-		int colNum = tasksVmsMatrix.get(0).size();
-		int colNumWithoutLastColumn = colNum -1;
-		int targetRow = 0;
-		int targetCol = 0;
-		
-		do {
-			System.out.println("========================");
-			System.out.println("This is start of iteration " + count);
-			System.out.println();
-			print2DArrayList(tasksVmsMatrix);
-			System.out.println();
-
-			// step 1: mark all machines as unassigned //
-			resetSuffrage(vmSuffrage);
-			System.out.println();
-			
-			Double min = 0.0; // initialize to store the min value //
-			
-			// nested loop
-			for (int row = 0; row < tasksVmsMatrix.size()/5; row++) {
-				// step 2: find the vm that gives the earliest time //
-				int colIndexOfMin = 0;
-				// assuming first one in a row as min //
-				min = tasksVmsMatrix.get(row).get(colIndexOfMin);
-				
-				// get the cloudlet_id //
-				Integer targetCloudletId = tasksVmsMatrix.get(row).get(colNumWithoutLastColumn).intValue();
-				
-				// array to store row info includes row, column and cloudlet_id //
-				Integer[] rowAndMinColAndCloudletId = {row, colIndexOfMin, targetCloudletId};
-				
-				// array to store the each element (the expected total completion time)
-				// in a row except last column (the cloudlet id) for later suffrage calculation
-				Double[] currentRowWithoutLastCol = new Double[colNumWithoutLastColumn];
-				
-				// inner loop to get the smaller //
-				for (int col = 0; col < colNumWithoutLastColumn; col++) {
-					Double current = tasksVmsMatrix.get(row).get(col);
-					// add current into the array //
-					currentRowWithoutLastCol[col] = current;
-					if (current < min) {
-						colIndexOfMin = col;
-						min = current;
-					}
-				}
-				
-				// step 3: calculate the suffrage time //
-				Double currentSuffrage = calculateSuffrage(currentRowWithoutLastCol);
-				
-				// step 4: check if the machine is assigned //
-				checkSuffrage(vmSuffrage, colIndexOfMin, targetCloudletId, currentSuffrage);
-				System.out.println("\nEnd of scanning a row and current vm suffrage list is as below");
-				printSuffrageList(vmSuffrage);
-				System.out.println();
-				
-			}
-			
-			//Get greatest suffrage value
-			Double greatest = 0.0;
-			Double minimum = 10000000.0;
-			Double row = 0.0;
-			Double column = 0.0;
-			for (int i=0; i<vmSuffrage.size(); i++) {
-				if (vmSuffrage.get(i)[1] > greatest) {
-					greatest = vmSuffrage.get(i)[1];
-					row = vmSuffrage.get(i)[0];
-				}
-			}
-			for (int i=0; i<tasksVmsMatrix.get(0).size() - 1; i++) {
-				Double current = tasksVmsMatrix.get(row.intValue()).get(i);
-				if (current < minimum) {
-					minimum = current;
-					column = (double)(i);
-				}
-			}
-			System.out.println("Column value is " + column.toString());
-			Integer targetCloudletId = tasksVmsMatrix.get(row.intValue()).get(colNumWithoutLastColumn).intValue();
-			int colIndexOfMin = 0;
-			//step 5: scan the vmSuffrage list to assign cloudlet to vm;
-			cloudletList.get(targetCloudletId).setVmId(vmList.get(column.intValue()).getId());
-			
-			//step 6: add the cloudlet to sorted list
-			Cloudlet cloudlet =cloudletList.get(targetCloudletId);
-			sortList.add(cloudlet);	
-			//step 8: update ready times
-			assignAndUpdate(vmSuffrage, readyTime, tasksVmsMatrix, cloudletList, vmList, row.intValue(), column.intValue());
-			//step 7: remove the row after the cloudlet has been assigned
-			removeRow(tasksVmsMatrix, targetCloudletId);
-			
-			
-			System.out.println("This is end of iteration " + count);
-			System.out.println("========================");
-			++count;
-		} while (tasksVmsMatrix.size() > 0);
-	}
-
-	/* HELPER FUNCTIONS FOR SUFFRAGE ALGORITHM!! */
-	private static List<List<Double>> create2DMatrix(List<? extends Cloudlet> cloudletList,List<? extends Vm> vmList){
-		List<List<Double>> table= new ArrayList<List<Double>>();
-		for(int i= 0; i<cloudletList.size(); i++){
-			//original cloudlet id is added as last column
-			Double originalCloudletId = (double) cloudletList.get(i).getCloudletId();
-			//System.out.println("the original cloudlet id is:" + originalCloudletId);
-			List<Double> temp=new ArrayList<Double>();
-			
-			for(int j = 0; j<vmList.size(); j++){
-				Double load = cloudletList.get(i).getCloudletLength() / vmList.get(j).getMips();
-				temp.add(load);
-			}
-			temp.add(originalCloudletId); 
-			table.add(temp);
-		}
-		return table;
-	}
-	
-	private static void print2DArrayList(List<List<Double>> table) {
-		 String indent="           ";
-		 System.out.println("The current required exceution time matrix is as below,with size of "+ table.size()+" by "+table.get(0).size());
-		 //System.out.printf(indent);
-		 for(int j=0;j<vmNum + 1;j++)
-		 {
-			 System.out.printf("    Vm"+j+indent);
-		 }
-		 System.out.println("cloudletNum");
-		 for(int i=0;i<table.size();i++)
-		 {
-	 		//System.out.printf(indent);
-	 		 String indent2="   "; 
-			 for(int j=0;j<table.get(i).size();j++)
-			 {
-				 System.out.printf("%-15.5f", table.get(i).get(j));
-				 System.out.printf(indent2);
-			 }
-			 System.out.printf("\n");
-		 }
-		 
-		 
-	 }
-
-	/* reset the vm suffrage record */
-	private static void resetSuffrage(List<Double[]> vmSuffrage) {
-		for (int i = 0; i < vmSuffrage.size(); i++) {
-			Double[] temp = {0.0, 0.0};
-			vmSuffrage.set(i, temp);
-		}
-		System.out.println("Suffrage reset successfully and is shown as below");
-		printSuffrageList(vmSuffrage);
-	}
-	
-	/*calculate the difference between first and second smallest */
-	private static Double calculateSuffrage(Double[] arr) {
-		Double first, largest;
-		first = largest = Double.MAX_VALUE;
-		int arr_size = arr.length;
-		
-		/* There should be at least two elements */
-		if (arr_size < 2) {
-			System.out.println("Invalid Input");
-			return 0.0;
-		}
-		
-		for (int i = 0; i < arr_size; i++) {
-			/*if current element is no greater than first then update both
-			 * first and second; should use <= b/c there may be a tie
-			*/
-			if (arr[i] <= first) {
-				first = arr[i];
-				if (i == 0) {
-					largest = first;
-				}
-			}
-			 /* If arr[i] is greater than largest then update largest
-			 */
-			else if (arr[i] > largest && arr[i] > first)
-				largest = arr[i];
+	/**
+	 * Binds every cloudlet to a vm with the given policy.
+	 * 
+	 * @param policy the binding policy
+	 * @pre policy != null
+	 * @post $none
+	 */
+	public void bindCloudletsToVms(BindingPolicy policy) {
+		if (policy != BindingPolicy.SUFFRAGE && policy != BindingPolicy.ROUND_ROBIN
+				&& getVmList().isEmpty()) {
+			getBrokerLog().log(BrokerLog.Event.ERROR, "%s: no vms to bind the cloudlets to", getName());
+			return;
 		}
-		if (largest == Double.MAX_VALUE)
-			System.out.println("There is no largest element");
-		else
-			System.out.printf("The smallest is %.4f and largest is %.4f \n", first, largest);
-		Double suffrage = largest - first;
-		System.out.printf("The suffrage is %.4f \n", suffrage);
-		return suffrage;
-	}
-	
-	/* check if the vm has been assigned */
-	private static void checkSuffrage(List<Double[]> vmSuffrage, Integer colIndexOfMin, Integer targetCloudletId, Double currentSuffrage) {
-		// colIndexOfMin is actually the vm id, which is also the vm position in
-		// the vmSuffrage array
-		Double existingCloudletId = vmSuffrage.get(colIndexOfMin)[0];
-		Double existingSuffrage = vmSuffrage.get(colIndexOfMin)[1];
-		if (existingCloudletId != 0.0) {
-			System.out.printf("Existing cloudlet id is %d and suffrage is %.4f \n", existingCloudletId.intValue(), existingSuffrage);
-		} else 
-	       System.out.printf("There is no cloudlet assigned to vm %d yet\n", colIndexOfMin);
-		System.out.println("So the cloudlet " + targetCloudletId + " will try vm " + colIndexOfMin);
-		
-		
-		// case when the cloudlet has not assigned or will be replaced
-		if (existingSuffrage < currentSuffrage) {
-			Double[] temp = { (double) targetCloudletId, currentSuffrage};
-			System.out.printf("Current suffrage %.4f > existing one %.4f \n", currentSuffrage, existingSuffrage);
-			// MUST use set to change the value!
-			vmSuffrage.set(colIndexOfMin, temp);
-			System.out.printf("Cloudlet %d is assigned to vm %d for now \n", targetCloudletId, colIndexOfMin);
+		switch (policy) {
+			case SUFFRAGE:
+				bindCloutletToVmsSuffrage();
+				break;
+			// unbound cloudlets are distributed by submitCloudlets()
+			case ROUND_ROBIN:
+				break;
+			case MCT:
+				bindCloudletsToVms(ClassicHeuristics.mct(getCloudletList(), getVmList()));
+				break;
+			case MIN_MIN:
+				bindCloudletsToVms(ClassicHeuristics.minMin(getCloudletList(), getVmList()));
+				break;
+			case MAX_MIN:
+				bindCloudletsToVms(ClassicHeuristics.maxMin(getCloudletList(), getVmList()));
+				break;
+			case ROBUST:
+				bindCloudletsRobust();
+				break;
+			// the prices and hosts are only known once the vms are created in a datacenter
+			case COST_AWARE:
+			case ENERGY_AWARE:
+				deferredPolicy = policy;
+				break;
 		}
 	}
-	
-	private static void assignAndUpdate(List<Double[]> vmSuffrage, Double[] readyTime, List<List<Double>> tasksVmsMatrix, List<? extends Cloudlet> cloudletList,List<? extends Vm> vmList, int row, int colIndexOfMin) {
-		
-		double min = tasksVmsMatrix.get(row).get(colIndexOfMin);
-		
-		//step 7: update ready time; 
-		Double oldReadyTime = readyTime[colIndexOfMin];
-		readyTime[colIndexOfMin] = min;
-		System.out.printf("The ready time array is %s \n", Arrays.toString(readyTime));
-		
-		//step 8: update total time; update the cloudlet-vm matrix with current ready time
-		updateTotalTimeMatrix(colIndexOfMin, oldReadyTime, readyTime, tasksVmsMatrix);
 
+	/**
+	 * Binds every cloudlet of the cloudlet list to a vm of the vm list.
+	 * 
+	 * @param assignment the vm index of every cloudlet, in list order
+	 * @pre assignment.length == getCloudletList().size()
+	 * @post $none
+	 */
+	protected void bindCloudletsToVms(int[] assignment) {
+		for (int i = 0; i < assignment.length; i++) {
+			bindCloudlet(getCloudletList().get(i), getVmList().get(assignment[i]));
+		}
 	}
+
 	
-	/* update the expected completion time */
-	private static void updateTotalTimeMatrix(Integer colIndexOfMin, Double oldReadyTime, Double[] readyTime, List<List<Double>> tasksVmsMatrix) {
-		// by adding current ready time to old corresponding expected completion time
-		Double newReadyTime = readyTime[colIndexOfMin];
-		Double readyTimeDifference = newReadyTime - oldReadyTime;
-		for (int row = 0; row < tasksVmsMatrix.size(); row++) {
-			Double oldTotalTime = tasksVmsMatrix.get(row).get(colIndexOfMin);
-			Double newTotalTime = oldTotalTime + newReadyTime;
-			tasksVmsMatrix.get(row).set(colIndexOfMin,  newTotalTime);
-		}
-		
-		
-	}
-	
-	/* print out the list of double[] */
-	private static void printSuffrageList(List<Double[]> list) {
-		for (int i = 0; i < list.size(); i++) {
-			Integer storedCloudletId = list.get(i)[0].intValue();
-			Double storedSuffrage = list.get(i)[1];
-			System.out.printf("vm %d => cloudlet %d with suffrage %.4f \n", i, storedCloudletId, storedSuffrage);
+	/**
+	 * Binds the unbound cloudlets to the created vms with the suffrage algorithm weighted by
+	 * {@link #getCostWeight()}, using the prices of the datacenters the vms were created in. This
+	 * is called by {@link #submitCloudlets()} when {@link BindingPolicy#COST_AWARE} was requested.
+	 * 
+	 * @pre $none
+	 * @post $none
+	 * @see CostAwareScheduling
+	 */
+	protected void bindCloudletsCostAware() {
+		List<Cloudlet> unbound = getUnboundCloudlets();
+		List<Vm> createdVms = getVmsCreatedList();
+		if (unbound.isEmpty() || createdVms.isEmpty()) {
+			return;
+		}
+		CostModel costModel = CostModel.fromCharacteristics(createdVms, getVmsToDatacentersMap(),
+				getDatacenterCharacteristicsList());
+		costAwareSchedule = CostAwareScheduling.schedule(unbound, createdVms, costModel, getCostWeight(),
+				getSchedulerSetup());
+		int[] assignment = costAwareSchedule.getAssignment();
+		for (int i = 0; i < assignment.length; i++) {
+			bindCloudlet(unbound.get(i), createdVms.get(assignment[i]));
+		}
+		if (getBrokerLog().isEnabled(BrokerLog.Event.SCHEDULER)) {
+			getBrokerLog().log(BrokerLog.Event.SCHEDULER,
+					"%s: %s: %d cloudlet(s) bound with cost weight %s: expected makespan %s, cost %s",
+					CloudSim.clock(), getName(), unbound.size(), getCostWeight(),
+					costAwareSchedule.getMakespan(), costAwareSchedule.getCost());
 		}
 	}
-	
-	/* remove a row from the matrix based on cloudlet id */
-	private static void removeRow(List<List<Double>> matrix, Integer cloudletId) {
-		// this method is necessary since with removal of rows, the row number
-		// will change such that we can not use matrix.remove(cloudletId);
-		// instead we need to use the cloudlet to find which row to be removed;
-		int rowNum = matrix.size();
-		int colNum = matrix.get(0).size();
-		// System.out.println("row number is " + rowNum);
-		// System.out.println("column number is " + colNum);
-		System.out.println("Looking for cloudlet " + cloudletId + " in the matrix ......");
-		for (int row = 0; row < rowNum; row++) {
-			Double target = matrix.get(row).get(colNum - 1);
-			// System.out.println("current cloudlet id is " + target);
-			if (target.intValue() == cloudletId) {
-				System.out.println("Found! And row " + row + " will be removed from the matrix");
-				matrix.remove(row);
-				break;
-			}
+
+	/**
+	 * Binds the unbound cloudlets to the created vms with the energy-aware suffrage algorithm,
+	 * using the power models of the hosts the vms were created on. The binding may be up to
+	 * {@link #getEnergyMakespanThreshold()} slower than plain suffrage. This is called by
+	 * {@link #submitCloudlets()} when {@link BindingPolicy#ENERGY_AWARE} was requested; if the vms
+	 * are not on power hosts the cloudlets are left unbound.
+	 * 
+	 * @pre $none
+	 * @post $none
+	 * @see EnergyAwareScheduling
+	 */
+	protected void bindCloudletsEnergyAware() {
+		List<Cloudlet> unbound = getUnboundCloudlets();
+		List<Vm> createdVms = getVmsCreatedList();
+		if (unbound.isEmpty() || createdVms.isEmpty()) {
+			return;
+		}
+		EnergyModel energyModel;
+		try {
+			energyModel = EnergyModel.fromHosts(createdVms);
+		} catch (IllegalArgumentException e) {
+			getBrokerLog().log(BrokerLog.Event.ERROR, "%s: %s: no energy-aware binding: %s", CloudSim.clock(),
+					getName(), e.getMessage());
+			return;
+		}
+		energyAwareSchedule = EnergyAwareScheduling.schedule(unbound, createdVms, energyModel,
+				getEnergyMakespanThreshold(), getSchedulerSetup());
+		int[] assignment = energyAwareSchedule.getAssignment();
+		for (int i = 0; i < assignment.length; i++) {
+			bindCloudlet(unbound.get(i), createdVms.get(assignment[i]));
 		}
+		if (getBrokerLog().isEnabled(BrokerLog.Event.SCHEDULER)) {
+			getBrokerLog().log(BrokerLog.Event.SCHEDULER,
+					"%s: %s: %d cloudlet(s) bound on %d of %d host(s): expected makespan %s (suffrage %s), "
+							+ "energy %s Ws (suffrage %s Ws)", CloudSim.clock(), getName(), unbound.size(),
+					energyAwareSchedule.getHostCount(), energyModel.getHostNum(),
+					energyAwareSchedule.getMakespan(), energyAwareSchedule.getBaselineMakespan(),
+					energyAwareSchedule.getEnergy(), energyAwareSchedule.getBaselineEnergy());
+		}
+	}
+
+	/**
+	 * Binds every cloudlet to a vm with the risk-adjusted suffrage algorithm, using the length
+	 * distributions set with {@link #setLengthDistribution(int, LengthDistribution)}. The candidate
+	 * schedules are checked by Monte Carlo sampling on every available processor. Like the
+	 * suffrage binding, the candidates use the runtime model, the data-affinity keys and the
+	 * shared view, if set.
+	 * 
+	 * @pre $none
+	 * @post $none
+	 * @see RobustScheduling
+	 */
+	protected void bindCloudletsRobust() {
+		if (getCloudletList().isEmpty()) {
+			return;
+		}
+		try {
+			robustSchedule = RobustScheduling.schedule(getCloudletList(), getVmList(), lengthDistributions,
+					getRiskFactor(), getMonteCarloSamples(), Runtime.getRuntime().availableProcessors(),
+					0L, getSchedulerSetup());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			getBrokerLog().log(BrokerLog.Event.ERROR, "%s: robust binding interrupted", getName());
+			return;
+		}
+		bindCloudletsToVms(robustSchedule.getAssignment());
+		if (getBrokerLog().isEnabled(BrokerLog.Event.SCHEDULER)) {
+			getBrokerLog().log(BrokerLog.Event.SCHEDULER,
+					"%s: %d cloudlet(s) bound with risk factor %s: expected makespan %s, p95 makespan %s",
+					getName(), getCloudletList().size(), robustSchedule.getRiskFactor(),
+					robustSchedule.getExpectedMakespan(), robustSchedule.getP95Makespan());
+		}
+	}
+
+	/* the cloudlets waiting for submission that are not bound to a vm */
+	private List<Cloudlet> getUnboundCloudlets() {
+		List<Cloudlet> unbound = new ArrayList<Cloudlet>();
+		for (Cloudlet cloudlet : getCloudletList()) {
+			if (cloudlet.getVmId() == -1) {
+				unbound.add(cloudlet);
+			}
+		}
+		return unbound;
+	}
+
+	/**
+	 * Replaces the unbound cloudlets shorter than a threshold by composite cloudlets, so that they
+	 * are scheduled and simulated as a few larger jobs. Call it before binding; the composites are
+	 * bound, submitted and returned like any cloudlet, and their members are put back in the
+	 * received list (or the result sink and latency statistics) when they return.
+	 * <p>
+	 * Cloudlets with different data-affinity keys are not coalesced together, and a composite
+	 * takes the key of its members. If a member has a length distribution, the composite gets the
+	 * distribution of the sum of the member lengths (see {@link LengthDistribution#sum(List)}),
+	 * the other members counting as exact.
+	 * 
+	 * @param lengthThreshold the length below which a cloudlet is coalesced, and the largest
+	 *            length of a composite
+	 * @return the number of composites created
+	 * @pre lengthThreshold > 0
+	 * @post $none
+	 * @see CompositeCloudlet
+	 */
+	public int coalesceCloudlets(long lengthThreshold) {
+		int firstId = 0;
+		for (Cloudlet cloudlet : getCloudletList()) {
+			firstId = Math.max(firstId, cloudlet.getCloudletId() + 1);
+		}
+		for (Cloudlet cloudlet : getCloudletSubmittedList()) {
+			firstId = Math.max(firstId, cloudlet.getCloudletId() + 1);
+		}
+		int before = getCloudletList().size();
+		List<Cloudlet> coalesced = CompositeCloudlet.coalesce(getCloudletList(), lengthThreshold, firstId,
+				dataAffinityKeys.isEmpty() ? null : dataAffinityKeys);
+		int composites = 0;
+		int members = 0;
+		for (Cloudlet cloudlet : coalesced) {
+			if (cloudlet instanceof CompositeCloudlet) {
+				CompositeCloudlet composite = (CompositeCloudlet) cloudlet;
+				composites++;
+				members += composite.getMemberCount();
+				carryOver(composite);
+			}
+		}
+		List<Cloudlet> waiting = getCloudletList();
+		waiting.clear();
+		waiting.addAll(coalesced);
+		if (getBrokerLog().isEnabled(BrokerLog.Event.SCHEDULER)) {
+			getBrokerLog().log(BrokerLog.Event.SCHEDULER,
+					"%s: %d cloudlet(s) coalesced into %d composite(s): %d cloudlet(s) to schedule instead of %d",
+					getName(), members, composites, waiting.size(), before);
+		}
+		return composites;
+	}
+
+	/* give a composite the data-affinity key and the summed length distribution of its members */
+	private void carryOver(CompositeCloudlet composite) {
+		List<Cloudlet> members = composite.getMembers();
+		// the members share their key, if any
+		String key = dataAffinityKeys.get(members.get(0).getCloudletId());
+		if (key != null) {
+			dataAffinityKeys.put(composite.getCloudletId(), key);
+		}
+		List<LengthDistribution> parts = new ArrayList<LengthDistribution>(members.size());
+		boolean uncertain = false;
+		for (Cloudlet member : members) {
+			LengthDistribution part = lengthDistributions.get(member.getCloudletId());
+			if (part == null) {
+				part = LengthDistribution.exact(member.getCloudletLength());
+			} else {
+				uncertain = true;
+			}
+			parts.add(part);
+		}
+		if (uncertain) {
+			lengthDistributions.put(composite.getCloudletId(), LengthDistribution.sum(parts));
+		}
+	}
+
+	/**
+	 * Binds every cloudlet to a vm with the hybrid FCFS/suffrage algorithm. If a checkpoint file
+	 * is set, the scheduler state is saved to it every {@link #getCheckpointInterval()}
+	 * iterations. If a scheduling budget is set and the iterations run out of time, the cloudlets
+	 * left are bound to the vm with the earliest ready time (see
+	 * {@link SuffrageScheduler#finishWithFallback()}).
+	 * 
+	 * @pre $none
+	 * @post $none
+	 * @see SuffrageScheduler
+	 */
+	public void bindCloutletToVmsSuffrage() {
+		if (getVmList().isEmpty()) {
+			getBrokerLog().log(BrokerLog.Event.ERROR, "%s: no vms to bind the cloudlets to", getName());
+			return;
+		}
+		runSuffrage(new SuffrageScheduler(getCloudletList(), getVmList()));
+	}
+
+	/**
+	 * Starts binding every cloudlet with the suffrage algorithm on a background thread, so that
+	 * the simulation can start before the binding is over. The scheduler thread hands the bound
+	 * cloudlets over in waves of waveSize cloudlets, in assignment order, through a queue holding
+	 * at most queueCapacity waves; it waits when the queue is full.
+	 * <p>
+	 * The broker submits the first wave when the vms are created, and every later wave at the
+	 * simulation time before which none of its cloudlets is planned to start (see
+	 * {@link SuffrageScheduler#getEarliestStartTime()}), waiting for the scheduler thread if it
+	 * is not ready yet. The simulation runs the earlier waves meanwhile, and the simulated
+	 * schedule does not depend on the speed of the scheduler thread: it is deterministic, and the
+	 * same as with {@link #bindCloutletToVmsSuffrage()} as long as the vms run the cloudlets in
+	 * the planned order, unless a scheduling budget forces the fallback. The checkpoint, decision
+	 * log and shared view settings apply as for the batch binding. The last wave is handed over
+	 * once the statistics of the binding are recorded, its last checkpoint written and its
+	 * decision log closed, and the broker waits for the scheduler thread to end before it goes on
+	 * or shuts down.
+	 * <p>
+	 * Call it instead of {@link #bindCloutletToVmsSuffrage()}, after the vm and cloudlet lists
+	 * are submitted and before the simulation starts. Autoscaling is not supported, nor is a
+	 * shared view with several tenants: their scheduler threads would commit to it in an order
+	 * that changes from run to run.
+	 * 
+	 * @param waveSize the number of cloudlets of a wave
+	 * @param queueCapacity the number of waves the scheduler thread may be ahead of the broker
+	 * @throws IllegalArgumentException if waveSize or queueCapacity is not positive
+	 * @throws IllegalStateException if autoscaling is on, the shared view has several tenants or
+	 *             a pipelined binding is pending
+	 * @pre $none
+	 * @post $none
+	 */
+	public void startPipelinedSuffrage(int waveSize, int queueCapacity) {
+		if (waveSize <= 0 || queueCapacity <= 0) {
+			throw new IllegalArgumentException("Wave size and queue capacity must be positive, got "
+					+ waveSize + " and " + queueCapacity);
+		}
+		if (isAutoscaling()) {
+			throw new IllegalStateException("Pipelined binding does not support autoscaling");
+		}
+		if (sharedView != null && sharedView.getTenantNum() > 1) {
+			throw new IllegalStateException("Pipelined binding does not support a shared fleet");
+		}
+		if (pipeline != null) {
+			throw new IllegalStateException("A pipelined binding is already pending");
+		}
+		if (getVmList().isEmpty()) {
+			getBrokerLog().log(BrokerLog.Event.ERROR, "%s: no vms to bind the cloudlets to", getName());
+			return;
+		}
+		List<Cloudlet> waiting = getCloudletList();
+		if (waiting.isEmpty()) {
+			return;
+		}
+
+		// the pipeline owns the cloudlets until their wave is submitted
+		final Pipeline waves = new Pipeline(waveSize, queueCapacity, new ArrayList<Cloudlet>(waiting));
+		waiting.clear();
+		final SuffrageScheduler scheduler = new SuffrageScheduler(waves.cloudlets, getVmList());
+		waves.thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					runSuffrage(scheduler, waves);
+				} catch (RuntimeException e) {
+					// the broker must not wait for a wave that never comes
+					waves.waves.clear();
+					waves.waves.offer(new Wave(null, 0.0, true, e));
+				}
+			}
+		}, getName() + "-scheduler");
+		pipeline = waves;
+		waves.thread.start();
+	}
+
+	/*
+	 * hand over the complete waves; release < 0 takes the bound of the rows left at each cut. The
+	 * last wave is only handed over with finish, once the run is accounted for and its files closed.
+	 */
+	private void emitWaves(SuffrageScheduler scheduler, Pipeline waves, double release, boolean finish)
+			throws InterruptedException {
+		while (waves.emitted < scheduler.getOrderCount()) {
+			int end = Math.min(waves.emitted + waves.waveSize, scheduler.getOrderCount());
+			boolean last = end == scheduler.getRowNum();
+			if (end - waves.emitted < waves.waveSize && !last || last && !finish) {
+				return; // wait for a full wave, or for the end of the run
+			}
+			List<Cloudlet> cloudlets = new ArrayList<Cloudlet>(end - waves.emitted);
+			for (int i = waves.emitted; i < end; i++) {
+				int row = scheduler.getOrder(i);
+				Cloudlet cloudlet = waves.cloudlets.get(row);
+				bindCloudlet(cloudlet, getVmList().get(scheduler.getAssignment(row)));
+				cloudlets.add(cloudlet);
+				if (resultSink == null) {
+					sortList.add(cloudlet);
+				}
+			}
+			waves.emitted = end;
+			waves.waves.put(new Wave(cloudlets, release >= 0 ? release : scheduler.getEarliestStartTime(),
+					last, null));
+		}
+	}
+
+	/* submit the next wave of the pipelined binding, waiting for the scheduler thread if needed */
+	private void submitNextWave() {
+		Wave wave;
+		try {
+			wave = pipeline.waves.take();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			wave = new Wave(null, 0.0, true, e);
+		}
+		if (wave.error != null) {
+			getBrokerLog().log(BrokerLog.Event.ERROR, "%s: %s: pipelined binding failed: %s", CloudSim.clock(),
+					getName(), wave.error);
+			stopPipeline();
+			if (cloudletsSubmitted == 0) {
+				finishExecution();
+			}
+			return;
+		}
+		double startTime = pipeline.startTime;
+		if (wave.last) {
+			stopPipeline();
+		}
+		List<Cloudlet> waiting = getCloudletList();
+		waiting.addAll(wave.cloudlets);
+		wavesSubmitted++;
+		if (getBrokerLog().isEnabled(BrokerLog.Event.SCHEDULER)) {
+			getBrokerLog().log(BrokerLog.Event.SCHEDULER, "%s: %s: submitting wave %d of %d cloudlet(s)",
+					CloudSim.clock(), getName(), wavesSubmitted, wave.cloudlets.size());
+		}
+		submitCloudlets();
+		if (!wave.last) {
+			schedule(getId(), Math.max(0.0, startTime + wave.nextRelease - CloudSim.clock()), PIPELINE_WAVE);
+		}
+	}
+
+	/* stop the scheduler thread of the pipeline if it still runs, wait for it and drop the pipeline */
+	private void stopPipeline() {
+		Thread thread = pipeline.thread;
+		pipeline = null;
+		thread.interrupt();
+		boolean interrupted = false;
+		while (true) {
+			try {
+				thread.join();
+				break;
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Binds every cloudlet with the suffrage algorithm and then improves the binding with
+	 * {@link ScheduleOptimizer}, using one annealing chain per available processor. Only the
+	 * cloudlets whose vm changed are rebound.
+	 * <p>
+	 * The optimizer scores the schedules with the ETC the suffrage binding used, corrected by the
+	 * runtime model if any. Its loads simply add up, so the suffrage binding is kept as it is when
+	 * a vm is time-shared, data-affinity keys are set or the shared view has other tenants: the
+	 * optimizer would undo what the suffrage binding planned for them.
+	 * 
+	 * @param timeBudgetMillis the wall time the optimizer may take
+	 * @param targetMakespan the optimizer stops as soon as it finds a schedule this good; 0 to use
+	 *            the whole time budget
+	 * @throws InterruptedException if the thread is interrupted while the optimizer runs
+	 * @pre timeBudgetMillis >= 0
+	 * @post $none
+	 */
+	public void optimizeCloudletBinding(long timeBudgetMillis, double targetMakespan)
+			throws InterruptedException {
+		bindCloutletToVmsSuffrage();
+		if (getVmList().isEmpty()) {
+			return;
+		}
+		String unsupported = null;
+		for (Vm vm : getVmList()) {
+			if (vm.getCloudletScheduler() instanceof CloudletSchedulerTimeShared) {
+				unsupported = "time-shared vms";
+				break;
+			}
+		}
+		if (!dataAffinityKeys.isEmpty()) {
+			unsupported = "data affinity";
+		}
+		if (sharedView != null && sharedView.getTenantNum() > 1) {
+			unsupported = "a shared fleet";
+		}
+		if (unsupported != null) {
+			getBrokerLog().log(BrokerLog.Event.SCHEDULER,
+					"%s: suffrage binding kept, the optimizer does not model %s", getName(), unsupported);
+			return;
+		}
+
+		Map<Integer, Integer> vmIndex = new HashMap<Integer, Integer>();
+		for (int i = 0; i < getVmList().size(); i++) {
+			vmIndex.put(getVmList().get(i).getId(), i);
+		}
+		List<Cloudlet> cloudlets = getCloudletList();
+		int[] initial = new int[cloudlets.size()];
+		for (int i = 0; i < initial.length; i++) {
+			initial[i] = vmIndex.get(cloudlets.get(i).getVmId());
+		}
+
+		List<Vm> vms = getVmList();
+		double[] etc = new double[cloudlets.size() * vms.size()];
+		for (int row = 0; row < cloudlets.size(); row++) {
+			for (int col = 0; col < vms.size(); col++) {
+				etc[row * vms.size() + col] = getPlannedRuntime(cloudlets.get(row), vms.get(col));
+			}
+		}
+		// the suffrage binding starts every vm at 0 as well
+		ScheduleOptimizer optimizer = new ScheduleOptimizer(etc, new double[vms.size()]);
+		int[] best = optimizer.optimize(initial, timeBudgetMillis, targetMakespan,
+				Runtime.getRuntime().availableProcessors(), 0L);
+		if (getBrokerLog().isEnabled(BrokerLog.Event.SCHEDULER)) {
+			getBrokerLog().log(BrokerLog.Event.SCHEDULER,
+					"%s: expected makespan %s after suffrage, %s after optimization", getName(),
+					optimizer.makespan(initial), optimizer.makespan(best));
+		}
+
+		// bind through the list index: looking each cloudlet up by id would be quadratic
+		for (int i = 0; i < best.length; i++) {
+			if (best[i] != initial[i]) {
+				bindCloudlet(cloudlets.get(i), getVmList().get(best[i]));
+			}
+		}
+	}
+
+	/**
+	 * Resumes a suffrage binding from a checkpoint taken by {@link #bindCloutletToVmsSuffrage()}.
+	 * The broker must hold the same cloudlet and vm lists the checkpoint was taken with.
+	 * 
+	 * @param checkpointFile the checkpoint file
+	 * @throws IOException if the checkpoint cannot be read or does not match the lists
+	 * @pre checkpointFile != null
+	 * @post $none
+	 */
+	public void resumeCloutletToVmsSuffrage(String checkpointFile) throws IOException {
+		SuffrageScheduler scheduler = SuffrageCheckpoint.read(new File(checkpointFile), getCloudletList(),
+				getVmList());
+		getBrokerLog().log(BrokerLog.Event.SCHEDULER,
+				"%s: resuming suffrage binding at iteration %d with %d cloudlet(s) left", getName(),
+				scheduler.getIteration(), scheduler.getRemainingCount());
+		runSuffrage(scheduler);
+	}
+
+	/**
+	 * Runs a scheduler until every cloudlet is assigned and binds the cloudlets accordingly.
+	 * 
+	 * @param scheduler the scheduler, fresh or restored from a checkpoint
+	 * @pre scheduler != null
+	 * @post $none
+	 */
+	protected void runSuffrage(SuffrageScheduler scheduler) {
+		runSuffrage(scheduler, null);
+	}
+
+	/* run a scheduler; with a pipeline the bindings are handed over in waves instead of at the end */
+	private void runSuffrage(SuffrageScheduler scheduler, Pipeline waves) {
+		scheduler.setVerbose(isVerbose());
+		configureScheduler(scheduler, waves != null ? waves.cloudlets : getCloudletList(), getVmList());
+		DecisionLog decisionLog = null;
+		if (getDecisionLogFile() != null) {
+			try {
+				decisionLog = new DecisionLog(new File(getDecisionLogFile()), scheduler.getVmIds());
+				scheduler.setDecisionLog(decisionLog);
+			} catch (IOException e) {
+				getBrokerLog().log(BrokerLog.Event.ERROR, "%s: could not open decision log %s: %s", getName(),
+						getDecisionLogFile(), e.getMessage());
+			}
+		}
+
+		int startIteration = scheduler.getIteration();
+		long startNanos = System.nanoTime();
+		long deadline = startNanos + getSchedulingBudget() * 1000000L;
+		activeScheduler = scheduler;
+		try {
+			while (!scheduler.isFinished()) {
+				if (waves != null && Thread.interrupted()) {
+					throw new InterruptedException();
+				}
+				if (getSchedulingBudget() > 0 && System.nanoTime() - deadline >= 0) {
+					// the fallback assigns every row at once, so the bound is taken before
+					double release = scheduler.getEarliestStartTime();
+					scheduler.finishWithFallback();
+					if (waves != null) {
+						emitWaves(scheduler, waves, release, false);
+					}
+					break;
+				}
+				scheduler.step();
+				if (waves != null) {
+					emitWaves(scheduler, waves, -1, false);
+				}
+				if (getCheckpointFile() != null && getCheckpointInterval() > 0
+						&& scheduler.getIteration() % getCheckpointInterval() == 0) {
+					saveCheckpoint(scheduler);
+				}
+			}
+		} catch (InterruptedException e) {
+			// the broker shut down before taking every wave
+			Thread.currentThread().interrupt();
+			return;
+		} finally {
+			activeScheduler = null;
+			closeDecisionLog(decisionLog);
+		}
+		bindingNanos += System.nanoTime() - startNanos;
+		scanNanos += scheduler.getScanNanos();
+		assignNanos += scheduler.getAssignNanos();
+		fallbackPlacedCount = scheduler.getFallbackCount();
+		suffragePlacedCount = scheduler.getIteration() - startIteration - fallbackPlacedCount;
+		transferVolume = scheduler.getTransferVolume();
+		crossVmTransferVolume = scheduler.getCrossVmTransferVolume();
+		if (getBrokerLog().isEnabled(BrokerLog.Event.SCHEDULER)) {
+			getBrokerLog().log(BrokerLog.Event.SCHEDULER,
+					"%s: %d cloudlet(s) placed by suffrage, %d by the earliest-ready fallback", getName(),
+					suffragePlacedCount, fallbackPlacedCount);
+			if (!dataAffinityKeys.isEmpty()) {
+				getBrokerLog().log(BrokerLog.Event.SCHEDULER,
+						"%s: %s of input data staged on the vms, %s of it already held by another vm",
+						getName(), transferVolume, crossVmTransferVolume);
+			}
+		}
+		if (getCheckpointFile() != null) {
+			saveCheckpoint(scheduler);
+		}
+
+		//step 5: assign cloudlet to vm; step 6: add the cloudlet to sorted list
+		if (waves != null) {
+			// done wave by wave; the broker may finish as soon as it has the last one
+			try {
+				emitWaves(scheduler, waves, -1, true);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return;
+		}
+		for (int i = 0; i < scheduler.getOrderCount(); i++) {
+			int row = scheduler.getOrder(i);
+			Cloudlet cloudlet = getCloudletList().get(row);
+			bindCloudlet(cloudlet, getVmList().get(scheduler.getAssignment(row)));
+			if (resultSink == null) {
+				sortList.add(cloudlet);
+			}
+		}
+	}
+
+	/* close the decision log of a run, if any */
+	private void closeDecisionLog(DecisionLog decisionLog) {
+		if (decisionLog == null) {
+			return;
+		}
+		try {
+			decisionLog.close();
+		} catch (IOException e) {
+			getBrokerLog().log(BrokerLog.Event.ERROR, "%s: could not write decision log %s: %s", getName(),
+					getDecisionLogFile(), e.getMessage());
+		}
+	}
+
+	/* give a scheduler the shared view, runtime correction and data affinity of the broker, if any */
+	private void configureScheduler(SuffrageScheduler scheduler, List<? extends Cloudlet> cloudlets,
+			List<? extends Vm> vms) {
+		if (sharedView != null) {
+			scheduler.setSharedView(sharedView, tenant, getFleetSlots(vms));
+		}
+		if (runtimeModel != null) {
+			setRuntimeCorrection(scheduler, cloudlets, vms);
+		}
+		if (!dataAffinityKeys.isEmpty()) {
+			setDataAffinity(scheduler, cloudlets, vms);
+		}
+	}
+
+	/* the fleet slot of every vm of a list, -1 for the vms outside the fleet */
+	private int[] getFleetSlots(List<? extends Vm> vms) {
+		int[] slots = new int[vms.size()];
+		for (int col = 0; col < slots.length; col++) {
+			Integer slot = fleetSlots.get(vms.get(col).getId());
+			slots[col] = slot != null ? slot : -1;
+		}
+		return slots;
+	}
+
+	/* the expected execution time of a cloudlet on a vm, corrected by the runtime model if any */
+	private double getPlannedRuntime(Cloudlet cloudlet, Vm vm) {
+		double runtime = cloudlet.getCloudletLength() / vm.getMips();
+		if (runtimeModel != null) {
+			runtime *= runtimeModel.getFactor(RuntimeModel.cloudletClass(cloudlet), RuntimeModel.vmType(vm));
+		}
+		return runtime;
+	}
+
+	/*
+	 * bind a cloudlet to a vm, or unbind it if vm is null, moving the work it committed to the
+	 * shared view along
+	 */
+	private void bindCloudlet(Cloudlet cloudlet, Vm vm) {
+		if (sharedView != null) {
+			Commitment old = commitments.remove(cloudlet.getCloudletId());
+			if (old != null) {
+				sharedView.commit(old.slot, tenant, -old.work);
+			}
+			Integer slot = vm != null ? fleetSlots.get(vm.getId()) : null;
+			if (slot != null) {
+				double work = getPlannedRuntime(cloudlet, vm);
+				sharedView.commit(slot, tenant, work);
+				commitments.put(cloudlet.getCloudletId(), new Commitment(slot, work));
+			}
+		}
+		cloudlet.setVmId(vm != null ? vm.getId() : -1);
+	}
+
+	/* the setup configuring the schedulers built by a scheduling strategy as the broker's own */
+	private SuffrageScheduler.Setup getSchedulerSetup() {
+		return new SuffrageScheduler.Setup() {
+			@Override
+			public void configure(SuffrageScheduler scheduler, List<? extends Cloudlet> cloudletList,
+					List<? extends Vm> vmList) {
+				configureScheduler(scheduler, cloudletList, vmList);
+			}
+		};
+	}
+
+	/* give the scheduler the correction factors of the runtime model for its rows and columns */
+	private void setRuntimeCorrection(SuffrageScheduler scheduler, List<? extends Cloudlet> cloudlets,
+			List<? extends Vm> vms) {
+		Map<String, Integer> classIndex = new HashMap<String, Integer>();
+		int[] rowClass = new int[cloudlets.size()];
+		for (int row = 0; row < rowClass.length; row++) {
+			String cloudletClass = RuntimeModel.cloudletClass(cloudlets.get(row));
+			Integer index = classIndex.get(cloudletClass);
+			if (index == null) {
+				index = classIndex.size();
+				classIndex.put(cloudletClass, index);
+			}
+			rowClass[row] = index;
+		}
+		Map<String, Integer> typeIndex = new HashMap<String, Integer>();
+		int[] colType = new int[vms.size()];
+		for (int col = 0; col < colType.length; col++) {
+			String vmType = RuntimeModel.vmType(vms.get(col));
+			Integer index = typeIndex.get(vmType);
+			if (index == null) {
+				index = typeIndex.size();
+				typeIndex.put(vmType, index);
+			}
+			colType[col] = index;
+		}
+		double[][] factor = new double[classIndex.size()][typeIndex.size()];
+		for (Map.Entry<String, Integer> cloudletClass : classIndex.entrySet()) {
+			for (Map.Entry<String, Integer> vmType : typeIndex.entrySet()) {
+				factor[cloudletClass.getValue()][vmType.getValue()] = runtimeModel.getFactor(
+						cloudletClass.getKey(), vmType.getKey());
+			}
+		}
+		scheduler.setRuntimeCorrection(rowClass, colType, factor);
+	}
+
+	/* give the scheduler the data-affinity key, file size and vm bandwidth of its rows and columns */
+	private void setDataAffinity(SuffrageScheduler scheduler, List<? extends Cloudlet> cloudlets,
+			List<? extends Vm> vms) {
+		Map<String, Integer> keyIndex = new HashMap<String, Integer>();
+		int[] dataKey = new int[cloudlets.size()];
+		double[] dataSize = new double[cloudlets.size()];
+		for (int row = 0; row < dataKey.length; row++) {
+			Cloudlet cloudlet = cloudlets.get(row);
+			String key = dataAffinityKeys.get(cloudlet.getCloudletId());
+			if (key == null) {
+				dataKey[row] = -1;
+			} else {
+				Integer index = keyIndex.get(key);
+				if (index == null) {
+					index = keyIndex.size();
+					keyIndex.put(key, index);
+				}
+				dataKey[row] = index;
+			}
+			dataSize[row] = getDataSize(cloudlet);
+		}
+		double[] bandwidth = new double[vms.size()];
+		for (int col = 0; col < bandwidth.length; col++) {
+			bandwidth[col] = vms.get(col).getBw();
+		}
+		scheduler.setDataAffinity(dataKey, dataSize, bandwidth);
+	}
+
+	/* the size of the input data of a cloudlet; the members of a composite share theirs */
+	private static double getDataSize(Cloudlet cloudlet) {
+		if (!(cloudlet instanceof CompositeCloudlet)) {
+			return cloudlet.getCloudletFileSize();
+		}
+		long size = 0;
+		for (Cloudlet member : ((CompositeCloudlet) cloudlet).getMembers()) {
+			size = Math.max(size, member.getCloudletFileSize());
+		}
+		return size;
+	}
+
+	/**
+	 * Binds the cloudlets as recorded in a decision log, without running the scheduler again.
+	 * 
+	 * @param decisionLogFile the decision log written by a previous run
+	 * @throws IOException if the log cannot be read or names a cloudlet not in the cloudlet list or
+	 *             a vm not in the vm list
+	 * @pre decisionLogFile != null
+	 * @post $none
+	 * @see DecisionLogTool
+	 */
+	public void replayCloutletToVms(String decisionLogFile) throws IOException {
+		// one lookup per record: searching the list for every record would be quadratic
+		Map<Integer, Cloudlet> cloudlets = new HashMap<Integer, Cloudlet>();
+		for (Cloudlet cloudlet : getCloudletList()) {
+			cloudlets.put(cloudlet.getCloudletId(), cloudlet);
+		}
+		Map<Integer, Vm> vms = new HashMap<Integer, Vm>();
+		for (Vm vm : getVmList()) {
+			vms.put(vm.getId(), vm);
+		}
+		DecisionLogReader reader = new DecisionLogReader(new File(decisionLogFile));
+		try {
+			while (reader.next()) {
+				Cloudlet cloudlet = cloudlets.get(reader.getCloudletId());
+				if (cloudlet == null) {
+					throw new IOException(decisionLogFile + " binds cloudlet " + reader.getCloudletId()
+							+ ", which is not in the cloudlet list");
+				}
+				Vm vm = vms.get(reader.getVmId(reader.getVmIndex()));
+				if (vm == null) {
+					throw new IOException(decisionLogFile + " binds cloudlet " + reader.getCloudletId()
+							+ " to vm " + reader.getVmId(reader.getVmIndex()) + ", which is not in the vm list");
+				}
+				bindCloudlet(cloudlet, vm);
+				if (resultSink == null) {
+					sortList.add(cloudlet);
+				}
+			}
+		} finally {
+			reader.close();
+		}
+	}
+
+	/* write a checkpoint; a failed checkpoint is reported but does not stop the scheduling */
+	private void saveCheckpoint(SuffrageScheduler scheduler) {
+		long startNanos = System.nanoTime();
+		try {
+			SuffrageCheckpoint.write(scheduler, new File(getCheckpointFile()));
+		} catch (IOException e) {
+			getBrokerLog().log(BrokerLog.Event.ERROR, "%s: could not write checkpoint %s: %s", getName(),
+					getCheckpointFile(), e.getMessage());
+		}
+		checkpointNanos += System.nanoTime() - startNanos;
+	}
+
+	/**
+	 * Gets the number of waves of pipelined bindings submitted so far.
+	 * 
+	 * @return the wave count
+	 * @see #startPipelinedSuffrage(int, int)
+	 */
+	public int getWavesSubmitted() {
+		return wavesSubmitted;
+	}
+
+	/**
+	 * Gets the sink returned cloudlets are streamed to.
+	 * 
+	 * @return the result sink, or null if the returned cloudlets are kept
+	 */
+	public CloudletResultSink getResultSink() {
+		return resultSink;
+	}
+
+	/**
+	 * Streams the returned cloudlets to a sink instead of keeping them. With a sink, the received,
+	 * submitted and sorted lists stay empty, so the memory of the broker does not grow with the
+	 * number of cloudlets that have run; the results are read from the sink file and aggregates.
+	 * The broker closes the sink when it shuts down. Must be set before the simulation starts.
+	 * 
+	 * @param resultSink the result sink, or null to keep the returned cloudlets
+	 */
+	public void setResultSink(CloudletResultSink resultSink) {
+		this.resultSink = resultSink;
+	}
+
+	/**
+	 * Gets the latency histograms of the returned cloudlets.
+	 * 
+	 * @return the latency statistics, or null if latencies are not recorded
+	 */
+	public CloudletLatencyStats getLatencyStats() {
+		return latencyStats;
+	}
+
+	/**
+	 * Records the wait, execution and response time of every returned cloudlet, globally and per
+	 * vm. The statistics can be queried while the simulation runs.
+	 * 
+	 * @param latencyStats the latency statistics, or null to stop recording
+	 */
+	public void setLatencyStats(CloudletLatencyStats latencyStats) {
+		this.latencyStats = latencyStats;
+	}
+
+	/**
+	 * Gets the number of cloudlets returned so far, whether they are kept or streamed to a sink.
+	 * 
+	 * @return the returned cloudlet count
+	 */
+	public int getCloudletsReturned() {
+		return cloudletsReturned;
+	}
+
+	/**
+	 * Gets the number of cloudlets submitted and not returned yet.
+	 * 
+	 * @return the cloudlets in flight
+	 */
+	public int getCloudletsSubmitted() {
+		return cloudletsSubmitted;
+	}
+
+	/**
+	 * Gets the suffrage scheduler currently binding cloudlets, for monitoring from another thread.
+	 * 
+	 * @return the running scheduler, or null between bindings
+	 */
+	SuffrageScheduler getActiveScheduler() {
+		return activeScheduler;
+	}
+
+	/**
+	 * Gets the wall time of the finished suffrage bindings and of the cost-aware and energy-aware
+	 * bindings, which run when the vms are created.
+	 * 
+	 * @return the binding time, in nanoseconds
+	 */
+	long getBindingNanos() {
+		return bindingNanos;
+	}
+
+	/**
+	 * Gets the window scan time of the finished suffrage bindings.
+	 * 
+	 * @return the scan time, in nanoseconds
+	 */
+	long getScanNanos() {
+		return scanNanos;
+	}
+
+	/**
+	 * Gets the assignment time of the finished suffrage bindings.
+	 * 
+	 * @return the assignment time, in nanoseconds
+	 */
+	long getAssignNanos() {
+		return assignNanos;
+	}
+
+	/**
+	 * Gets the wall time spent writing checkpoints.
+	 * 
+	 * @return the checkpoint time, in nanoseconds
+	 */
+	long getCheckpointNanos() {
+		return checkpointNanos;
+	}
+
+	/**
+	 * Gets the wall clock when the broker started.
+	 * 
+	 * @return the start time, in nanoseconds, or 0 if the broker has not started
+	 */
+	long getStartWallNanos() {
+		return startWallNanos;
+	}
+
+	/**
+	 * Gets the cloudlets in the order the suffrage scheduler assigned them.
+	 * 
+	 * @return the sorted list
+	 */
+	public List<Cloudlet> getSortList() {
+		return sortList;
+	}
+
+	/**
+	 * Gets the log of the broker events.
+	 * 
+	 * @return the broker log
+	 */
+	public BrokerLog getBrokerLog() {
+		return brokerLog;
+	}
+
+	/**
+	 * Sets the log of the broker events.
+	 * 
+	 * @param brokerLog the broker log, synchronous to the CloudSim Log or asynchronous to a file
+	 */
+	public void setBrokerLog(BrokerLog brokerLog) {
+		this.brokerLog = brokerLog;
+	}
+
+	/**
+	 * Gets the vm fleet view shared with other tenant brokers.
+	 * 
+	 * @return the shared view, or null if this broker has its vms for itself
+	 */
+	public SharedReadyTimeView getSharedView() {
+		return sharedView;
+	}
+
+	/**
+	 * Gets the decision log file.
+	 * 
+	 * @return the decision log file, or null if decisions are not logged
+	 */
+	public String getDecisionLogFile() {
+		return decisionLogFile;
+	}
+
+	/**
+	 * Sets the decision log file. A resumed binding writes a new log starting at the resumed
+	 * iteration.
+	 * 
+	 * @param decisionLogFile the decision log file, or null to disable the log
+	 */
+	public void setDecisionLogFile(String decisionLogFile) {
+		this.decisionLogFile = decisionLogFile;
+	}
+
+	/**
+	 * Checks whether the suffrage scheduler traces every step to System.out.
+	 * 
+	 * @return true if the scheduler is verbose
+	 */
+	public boolean isVerbose() {
+		return verbose;
+	}
+
+	/**
+	 * Sets whether the suffrage scheduler traces every step to System.out.
+	 * 
+	 * @param verbose false to run the scheduler silently
+	 */
+	public void setVerbose(boolean verbose) {
+		this.verbose = verbose;
+	}
+
+	/**
+	 * Checks whether cloudlets bound to vms that could not be created are rescheduled.
+	 * 
+	 * @return true if failed bindings are rescheduled on the created vms
+	 */
+	public boolean isReplanOnVmFailure() {
+		return replanOnVmFailure;
+	}
+
+	/**
+	 * Sets whether cloudlets bound to vms that could not be created are rescheduled on the
+	 * created vms, rather than postponed until the vms are created again.
+	 * 
+	 * @param replanOnVmFailure false to postpone them
+	 */
+	public void setReplanOnVmFailure(boolean replanOnVmFailure) {
+		this.replanOnVmFailure = replanOnVmFailure;
+	}
+
+	/**
+	 * Gets the weight of the monetary cost in the cost-aware binding.
+	 * 
+	 * @return the cost weight
+	 */
+	public double getCostWeight() {
+		return costWeight;
+	}
+
+	/**
+	 * Sets the weight of the monetary cost in the cost-aware binding: 0 minimizes the makespan
+	 * only, values close to 1 minimize the cost only.
+	 * 
+	 * @param costWeight the cost weight, from 0 (inclusive) to 1 (exclusive)
+	 * @throws IllegalArgumentException if the weight is out of range
+	 */
+	public void setCostWeight(double costWeight) {
+		if (costWeight < 0.0 || costWeight >= 1.0) {
+			throw new IllegalArgumentException("Cost weight must be in [0, 1), got " + costWeight);
+		}
+		this.costWeight = costWeight;
+	}
+
+	/**
+	 * Gets the expected makespan and cost of the last cost-aware binding.
+	 * 
+	 * @return the schedule, or null if no cost-aware binding was made
+	 */
+	public CostAwareScheduling.Schedule getCostAwareSchedule() {
+		return costAwareSchedule;
+	}
+
+	/**
+	 * Gets the relative makespan increase the energy-aware binding may accept to save energy.
+	 * 
+	 * @return the threshold, e.g. 0.1 for 10%
+	 */
+	public double getEnergyMakespanThreshold() {
+		return energyMakespanThreshold;
+	}
+
+	/**
+	 * Sets the relative makespan increase the energy-aware binding may accept to save energy.
+	 * 
+	 * @param energyMakespanThreshold the threshold, e.g. 0.1 for 10%; 0 only accepts bindings as
+	 *            fast as plain suffrage
+	 */
+	public void setEnergyMakespanThreshold(double energyMakespanThreshold) {
+		this.energyMakespanThreshold = energyMakespanThreshold;
+	}
+
+	/**
+	 * Gets the expected makespan and energy of the last energy-aware binding.
+	 * 
+	 * @return the schedule, or null if no energy-aware binding was made
+	 */
+	public EnergyAwareScheduling.Schedule getEnergyAwareSchedule() {
+		return energyAwareSchedule;
+	}
+
+	/**
+	 * Sets the distribution of the actual length of a cloudlet whose length is an estimate, for
+	 * the robust binding.
+	 * 
+	 * @param cloudletId the cloudlet id
+	 * @param distribution the length distribution, or null if the length is exact
+	 */
+	public void setLengthDistribution(int cloudletId, LengthDistribution distribution) {
+		if (distribution == null) {
+			lengthDistributions.remove(cloudletId);
+		} else {
+			lengthDistributions.put(cloudletId, distribution);
+		}
+	}
+
+	/**
+	 * Gets the distribution of the actual length of a cloudlet.
+	 * 
+	 * @param cloudletId the cloudlet id
+	 * @return the length distribution, or null if the length is taken as exact
+	 */
+	public LengthDistribution getLengthDistribution(int cloudletId) {
+		return lengthDistributions.get(cloudletId);
+	}
+
+	/**
+	 * Sets the data-affinity key of a cloudlet: the cloudlets with the same key read the same input
+	 * data, of their file size. Once a key is set, the suffrage binding adds to every cloudlet the
+	 * time to stage its file on the vm (file size / vm bandwidth), except on a vm that holds the
+	 * data of its key already, so that the cloudlets sharing data gather on the vms holding it (see
+	 * {@link SuffrageScheduler#setDataAffinity(int[], double[], double[])}). The other policies
+	 * ignore the keys.
+	 * 
+	 * @param cloudletId the cloudlet id
+	 * @param key the data-affinity key, or null if the cloudlet shares no data
+	 * @see #getCrossVmTransferVolume()
+	 */
+	public void setDataAffinity(int cloudletId, String key) {
+		if (key == null) {
+			dataAffinityKeys.remove(cloudletId);
+		} else {
+			dataAffinityKeys.put(cloudletId, key);
+		}
+	}
+
+	/**
+	 * Gets the data-affinity key of a cloudlet.
+	 * 
+	 * @param cloudletId the cloudlet id
+	 * @return the data-affinity key, or null if the cloudlet shares no data
+	 */
+	public String getDataAffinity(int cloudletId) {
+		return dataAffinityKeys.get(cloudletId);
+	}
+
+	/**
+	 * Gets the learned runtime correction of the suffrage binding.
+	 * 
+	 * @return the runtime model, or null if the ETC is not corrected
+	 */
+	public RuntimeModel getRuntimeModel() {
+		return runtimeModel;
+	}
+
+	/**
+	 * Sets the learned runtime correction of the suffrage binding. The suffrage bindings multiply
+	 * the ETC of every cloudlet on every vm by the factor the model holds for their class and
+	 * type, and every cloudlet returning successfully from a space-shared vm updates the model with
+	 * its actual CPU time. Read the model with {@link RuntimeModel#read(File)} before the
+	 * run and write it back after it so that the estimates keep improving from run to run.
+	 * 
+	 * @param runtimeModel the runtime model, or null to use the nominal length / mips
+	 */
+	public void setRuntimeModel(RuntimeModel runtimeModel) {
+		this.runtimeModel = runtimeModel;
+	}
+
+	/**
+	 * Gets the input data the last suffrage binding staged on the vms, when data-affinity keys are
+	 * set.
+	 * 
+	 * @return the transfer volume, in file size units
+	 */
+	public double getTransferVolume() {
+		return transferVolume;
+	}
+
+	/**
+	 * Gets the part of the input data the last suffrage binding copied to a vm while another vm
+	 * already held the data of its key: the traffic that a perfect data locality would save.
+	 * 
+	 * @return the cross-vm transfer volume, in file size units
+	 */
+	public double getCrossVmTransferVolume() {
+		return crossVmTransferVolume;
+	}
+
+	/**
+	 * Gets the number of standard deviations the robust binding adds to the mean completion times.
+	 * 
+	 * @return the risk factor
+	 */
+	public double getRiskFactor() {
+		return riskFactor;
+	}
+
+	/**
+	 * Sets the number of standard deviations the robust binding adds to the mean completion times.
+	 * {@link RobustScheduling#riskFactorForQuantile(double)} gives the factor for a quantile.
+	 * 
+	 * @param riskFactor the risk factor, 0 to schedule on the mean lengths
+	 */
+	public void setRiskFactor(double riskFactor) {
+		this.riskFactor = riskFactor;
+	}
+
+	/**
+	 * Gets the number of Monte Carlo samples the robust binding evaluates its candidates on.
+	 * 
+	 * @return the number of samples
+	 */
+	public int getMonteCarloSamples() {
+		return monteCarloSamples;
+	}
+
+	/**
+	 * Sets the number of Monte Carlo samples the robust binding evaluates its candidates on.
+	 * 
+	 * @param monteCarloSamples the number of samples
+	 */
+	public void setMonteCarloSamples(int monteCarloSamples) {
+		this.monteCarloSamples = monteCarloSamples;
+	}
+
+	/**
+	 * Gets the schedule chosen by the last robust binding, with its expected and p95 makespan.
+	 * 
+	 * @return the schedule, or null if no robust binding was made
+	 */
+	public RobustScheduling.Schedule getRobustSchedule() {
+		return robustSchedule;
+	}
+
+	/**
+	 * Enables vm autoscaling. Before the cloudlets are submitted, copies of the template are
+	 * created while the projected makespan of the waiting cloudlets is above the target, and the
+	 * cloudlets are rebound across the grown fleet; vms left without work are destroyed while the
+	 * run goes on.
+	 * 
+	 * @param template the vm the new vms are copies of (mips, PEs, ram, bw, size, vmm and type of
+	 *            cloudlet scheduler)
+	 * @param minVms the number of created vms autoscaling never goes below
+	 * @param maxVms the number of created vms autoscaling never goes above
+	 * @param targetMakespan the projected makespan, from the submission of the cloudlets, above
+	 *            which vms are added
+	 * @pre template != null && minVms >= 0 && maxVms >= minVms && targetMakespan > 0
+	 * @post isAutoscaling()
+	 */
+	public void setAutoscaling(Vm template, int minVms, int maxVms, double targetMakespan) {
+		autoscaleTemplate = template;
+		autoscaleMinVms = minVms;
+		autoscaleMaxVms = maxVms;
+		autoscaleTargetMakespan = targetMakespan;
+		outstandingCloudlets = new HashMap<Integer, Integer>();
+		outstandingWork = new HashMap<Integer, Double>();
+		outstandingRuntime = new HashMap<Integer, Double>();
+	}
+
+	/**
+	 * Checks whether vm autoscaling is enabled.
+	 * 
+	 * @return true if the broker adds and destroys vms
+	 */
+	public boolean isAutoscaling() {
+		return autoscaleTemplate != null;
+	}
+
+	/**
+	 * Gets the number of created vms autoscaling never goes below.
+	 * 
+	 * @return the minimum number of vms
+	 */
+	public int getAutoscaleMinVms() {
+		return autoscaleMinVms;
+	}
+
+	/**
+	 * Gets the number of created vms autoscaling never goes above.
+	 * 
+	 * @return the maximum number of vms
+	 */
+	public int getAutoscaleMaxVms() {
+		return autoscaleMaxVms;
+	}
+
+	/**
+	 * Gets the projected makespan above which autoscaling adds vms.
+	 * 
+	 * @return the target makespan
+	 */
+	public double getAutoscaleTargetMakespan() {
+		return autoscaleTargetMakespan;
+	}
+
+	/**
+	 * Gets the number of vms created by autoscaling.
+	 * 
+	 * @return the number of added vms
+	 */
+	public int getVmsAddedCount() {
+		return vmsAddedCount;
+	}
+
+	/**
+	 * Gets the number of idle vms destroyed by autoscaling.
+	 * 
+	 * @return the number of retired vms
+	 */
+	public int getVmsRetiredCount() {
+		return vmsRetiredCount;
+	}
+
+	/**
+	 * Gets the makespan of the waiting cloudlets projected by the last autoscaling check.
+	 * 
+	 * @return the projected makespan
+	 */
+	public double getProjectedMakespan() {
+		return projectedMakespan;
+	}
+
+	/**
+	 * Gets the mean queue wait of the waiting cloudlets projected by the last autoscaling check.
+	 * 
+	 * @return the projected mean wait before a cloudlet starts
+	 */
+	public double getProjectedQueueWait() {
+		return projectedQueueWait;
+	}
+
+	/**
+	 * Gets the scheduling budget.
+	 * 
+	 * @return the wall time the suffrage iterations may take, in milliseconds; 0 for no limit
+	 */
+	public long getSchedulingBudget() {
+		return schedulingBudget;
+	}
+
+	/**
+	 * Sets the scheduling budget. When it is spent, the suffrage binding stops iterating and
+	 * binds the remaining cloudlets to the vm with the earliest ready time.
+	 * 
+	 * @param schedulingBudget the wall time the suffrage iterations may take, in milliseconds; 0
+	 *            for no limit
+	 */
+	public void setSchedulingBudget(long schedulingBudget) {
+		this.schedulingBudget = schedulingBudget;
+	}
+
+	/**
+	 * Gets the number of cloudlets the last suffrage binding placed with the suffrage iterations.
+	 * 
+	 * @return the number of cloudlets placed by suffrage
+	 */
+	public int getSuffragePlacedCount() {
+		return suffragePlacedCount;
+	}
+
+	/**
+	 * Gets the number of cloudlets the last suffrage binding placed with the earliest-ready
+	 * fallback because the scheduling budget was spent.
+	 * 
+	 * @return the number of cloudlets placed by the fallback
+	 */
+	public int getFallbackPlacedCount() {
+		return fallbackPlacedCount;
+	}
+
+	/**
+	 * Gets the checkpoint file.
+	 * 
+	 * @return the checkpoint file, or null if checkpointing is disabled
+	 */
+	public String getCheckpointFile() {
+		return checkpointFile;
+	}
+
+	/**
+	 * Sets the checkpoint file.
+	 * 
+	 * @param checkpointFile the checkpoint file, or null to disable checkpointing
+	 */
+	public void setCheckpointFile(String checkpointFile) {
+		this.checkpointFile = checkpointFile;
+	}
+
+	/**
+	 * Gets the checkpoint interval.
+	 * 
+	 * @return the number of iterations between two checkpoints
+	 */
+	public int getCheckpointInterval() {
+		return checkpointInterval;
+	}
+
+	/**
+	 * Sets the checkpoint interval.
+	 * 
+	 * @param checkpointInterval the number of iterations between two checkpoints; 0 only writes
+	 *            the final state
+	 */
+	public void setCheckpointInterval(int checkpointInterval) {
+		this.checkpointInterval = checkpointInterval;
 	}
 
 }
@@ -0,0 +1,173 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.examples;
+
+/**
+ * The JMX management interface of a {@link DatacenterBroker}, implemented by
+ * {@link BrokerMonitor}. Every attribute is read-only and may be read from any thread while the
+ * simulation runs; values are snapshots and may lag the simulation thread slightly.
+ */
+public interface DatacenterBrokerMBean {
+
+	/**
+	 * Gets the name of the broker.
+	 *
+	 * @return the broker name
+	 */
+	String getName();
+
+	/**
+	 * Gets the simulation clock.
+	 *
+	 * @return the simulated time
+	 */
+	double getSimulationClock();
+
+	/**
+	 * Gets the number of cloudlets submitted and not returned yet.
+	 *
+	 * @return the cloudlets in flight
+	 */
+	int getCloudletsSubmitted();
+
+	/**
+	 * Gets the number of cloudlets returned so far.
+	 *
+	 * @return the returned cloudlet count
+	 */
+	int getCloudletsReturned();
+
+	/**
+	 * Gets the number of cloudlets waiting to be submitted.
+	 *
+	 * @return the size of the cloudlet list
+	 */
+	int getCloudletListSize();
+
+	/**
+	 * Gets the number of cloudlets kept in the submitted list.
+	 *
+	 * @return the size of the submitted list
+	 */
+	int getCloudletSubmittedListSize();
+
+	/**
+	 * Gets the number of cloudlets kept in the received list.
+	 *
+	 * @return the size of the received list
+	 */
+	int getCloudletReceivedListSize();
+
+	/**
+	 * Gets the number of vms of the broker.
+	 *
+	 * @return the size of the vm list
+	 */
+	int getVmListSize();
+
+	/**
+	 * Gets the number of vms created.
+	 *
+	 * @return the size of the created vm list
+	 */
+	int getVmsCreatedListSize();
+
+	/**
+	 * Gets the number of vm creations requested in the last round.
+	 *
+	 * @return the requested vm count
+	 */
+	int getVmsRequested();
+
+	/**
+	 * Gets the number of vm creation answers received in the last round.
+	 *
+	 * @return the vm acks
+	 */
+	int getVmsAcks();
+
+	/**
+	 * Gets the number of vms destroyed.
+	 *
+	 * @return the destroyed vm count
+	 */
+	int getVmsDestroyed();
+
+	/**
+	 * Gets the iteration of the running suffrage binding.
+	 *
+	 * @return the iteration, or -1 if no binding is running
+	 */
+	int getSchedulerIteration();
+
+	/**
+	 * Gets the number of cloudlets the running suffrage binding scans per iteration.
+	 *
+	 * @return the window size, or -1 if no binding is running
+	 */
+	int getSchedulerWindowSize();
+
+	/**
+	 * Gets the number of cloudlets the running suffrage binding has not assigned yet.
+	 *
+	 * @return the remaining cloudlets, or -1 if no binding is running
+	 */
+	int getSchedulerRemaining();
+
+	/**
+	 * Gets the iterations per second of the running suffrage binding.
+	 *
+	 * @return the iteration rate, or 0 if no binding is running
+	 */
+	double getSchedulerIterationRate();
+
+	/**
+	 * Gets the wall time of the finished suffrage bindings.
+	 *
+	 * @return the binding time, in milliseconds
+	 */
+	double getBindingMillis();
+
+	/**
+	 * Gets the time the suffrage bindings spent scanning their window, including the running one.
+	 *
+	 * @return the scan time, in milliseconds
+	 */
+	double getScanMillis();
+
+	/**
+	 * Gets the time the suffrage bindings spent choosing and assigning winners, including the
+	 * running one.
+	 *
+	 * @return the assignment time, in milliseconds
+	 */
+	double getAssignMillis();
+
+	/**
+	 * Gets the wall time spent writing checkpoints.
+	 *
+	 * @return the checkpoint time, in milliseconds
+	 */
+	double getCheckpointMillis();
+
+	/**
+	 * Gets the cloudlets returned per wall-clock second since the broker started.
+	 *
+	 * @return the wall-clock return rate
+	 */
+	double getReturnRate();
+
+	/**
+	 * Gets the cloudlets returned per simulated second.
+	 *
+	 * @return the simulated return rate
+	 */
+	double getSimulatedReturnRate();
+
+}
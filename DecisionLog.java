@@ -0,0 +1,159 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.examples;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A compact binary log of the decisions taken by a {@link SuffrageScheduler}, written through a
+ * buffered file channel.
+ * <p>
+ * The file starts with a header (magic, version, number of vms and their ids) followed by one
+ * record per iteration:
+ * <ul>
+ * <li>iteration number (int)</li>
+ * <li>number of vms that received a candidate (int), then for each of them the vm index (int),
+ * the candidate cloudlet id (int) and its suffrage (double)</li>
+ * <li>the assigned cloudlet id (int), the vm index it was assigned to (int) and the new ready
+ * time of that vm (double)</li>
+ * </ul>
+ * Logs are read back by {@link DecisionLogReader} and compared by {@link DecisionLogTool}.
+ * <p>
+ * Write errors do not interrupt the scheduler: the first one stops the logging and is thrown by
+ * {@link #close()}.
+ */
+public class DecisionLog {
+
+	/** The file magic number, "SUFL". */
+	static final int MAGIC = 0x5355464C;
+
+	/** The format version. */
+	static final int VERSION = 1;
+
+	/** The size of the write buffer. */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/** The channel the log is written to. */
+	private final FileChannel channel;
+
+	/** The write buffer. */
+	private final ByteBuffer buffer;
+
+	/** The first write error, if any. */
+	private IOException error;
+
+	/**
+	 * Creates a new decision log, replacing the file if it exists.
+	 *
+	 * @param file the log file
+	 * @param vmIds the id of the vm in every column of the scheduler
+	 * @throws IOException if the file cannot be created
+	 * @pre file != null && vmIds != null
+	 * @post $none
+	 */
+	public DecisionLog(File file, int[] vmIds) throws IOException {
+		channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+		try {
+			buffer.putInt(MAGIC);
+			buffer.putInt(VERSION);
+			buffer.putInt(vmIds.length);
+			for (int vmId : vmIds) {
+				ensure(4);
+				buffer.putInt(vmId);
+			}
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Records one iteration of the scheduler.
+	 *
+	 * @param iteration the iteration number, starting at 1
+	 * @param candidateRow the candidate row of every vm, or -1 if it has none
+	 * @param candidateSuffrage the suffrage of the candidate of every vm
+	 * @param cloudletIds the cloudlet id of every row
+	 * @param cloudletId the cloudlet assigned in this iteration
+	 * @param vmIndex the vm index it was assigned to
+	 * @param readyTime the new ready time of that vm
+	 */
+	void record(int iteration, int[] candidateRow, double[] candidateSuffrage, int[] cloudletIds,
+			int cloudletId, int vmIndex, double readyTime) {
+		if (error != null) {
+			return;
+		}
+		try {
+			int candidates = 0;
+			for (int row : candidateRow) {
+				if (row != -1) {
+					candidates++;
+				}
+			}
+			ensure(8);
+			buffer.putInt(iteration);
+			buffer.putInt(candidates);
+			for (int col = 0; col < candidateRow.length; col++) {
+				if (candidateRow[col] != -1) {
+					ensure(16);
+					buffer.putInt(col);
+					buffer.putInt(cloudletIds[candidateRow[col]]);
+					buffer.putDouble(candidateSuffrage[col]);
+				}
+			}
+			ensure(16);
+			buffer.putInt(cloudletId);
+			buffer.putInt(vmIndex);
+			buffer.putDouble(readyTime);
+		} catch (IOException e) {
+			error = e;
+		}
+	}
+
+	/* make room for the given number of bytes, flushing the buffer if needed */
+	private void ensure(int bytes) throws IOException {
+		if (buffer.remaining() < bytes) {
+			flush();
+		}
+	}
+
+	/* write the buffer content to the channel */
+	private void flush() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * Flushes and closes the log.
+	 *
+	 * @throws IOException if this or any previous write failed
+	 */
+	public void close() throws IOException {
+		try {
+			if (error == null) {
+				flush();
+			}
+		} finally {
+			channel.close();
+		}
+		if (error != null) {
+			throw error;
+		}
+	}
+
+}
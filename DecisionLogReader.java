@@ -0,0 +1,248 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.examples;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads a {@link DecisionLog} one iteration at a time. The fields of the current record are
+ * overwritten by every call to {@link #next()}.
+ */
+public class DecisionLogReader {
+
+	/** The size of the read buffer. */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/** The channel the log is read from. */
+	private final FileChannel channel;
+
+	/** The read buffer. */
+	private final ByteBuffer buffer;
+
+	/** The vm id of every vm index. */
+	private final int[] vmIds;
+
+	/** The iteration number of the current record. */
+	private int iteration;
+
+	/** The candidate cloudlet id of every vm in the current record, or -1. */
+	private final int[] candidateCloudletIds;
+
+	/** The candidate suffrage of every vm in the current record. */
+	private final double[] candidateSuffrage;
+
+	/** The cloudlet assigned in the current record. */
+	private int cloudletId;
+
+	/** The vm index the cloudlet was assigned to in the current record. */
+	private int vmIndex;
+
+	/** The new ready time of that vm in the current record. */
+	private double readyTime;
+
+	/**
+	 * Opens a decision log and reads its header.
+	 *
+	 * @param file the log file
+	 * @throws IOException if the file cannot be read, is not a decision log or its vm count does
+	 *             not fit in the file
+	 * @pre file != null
+	 * @post $none
+	 */
+	public DecisionLogReader(File file) throws IOException {
+		channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+		buffer.flip();
+		try {
+			if (!fill(12)) {
+				throw new EOFException(file + " is empty");
+			}
+			if (buffer.getInt() != DecisionLog.MAGIC) {
+				throw new IOException(file + " is not a decision log");
+			}
+			int version = buffer.getInt();
+			if (version != DecisionLog.VERSION) {
+				throw new IOException(file + " has unsupported decision log version " + version);
+			}
+			// every vm id takes 4 bytes of the header, which bounds the count of a corrupt one
+			int vmNum = buffer.getInt();
+			if (vmNum <= 0 || vmNum > (channel.size() - 12) / 4) {
+				throw new IOException(file + " is corrupted: " + vmNum + " vms");
+			}
+			vmIds = new int[vmNum];
+			for (int i = 0; i < vmIds.length; i++) {
+				require(4);
+				vmIds[i] = buffer.getInt();
+			}
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+		candidateCloudletIds = new int[vmIds.length];
+		candidateSuffrage = new double[vmIds.length];
+	}
+
+	/**
+	 * Reads the next record.
+	 *
+	 * @return false if the end of the log was reached
+	 * @throws IOException if the log cannot be read, ends in the middle of a record or holds a
+	 *             candidate count or vm index out of range
+	 */
+	public boolean next() throws IOException {
+		if (!fill(8)) {
+			return false;
+		}
+		iteration = buffer.getInt();
+		int candidates = buffer.getInt();
+		if (candidates < 0 || candidates > vmIds.length) {
+			throw new IOException("decision log is corrupted: " + candidates + " candidates in iteration "
+					+ iteration + ", expected at most " + vmIds.length);
+		}
+		Arrays.fill(candidateCloudletIds, -1);
+		Arrays.fill(candidateSuffrage, 0.0);
+		for (int i = 0; i < candidates; i++) {
+			require(16);
+			int col = checkVmIndex(buffer.getInt());
+			candidateCloudletIds[col] = buffer.getInt();
+			candidateSuffrage[col] = buffer.getDouble();
+		}
+		require(16);
+		cloudletId = buffer.getInt();
+		vmIndex = checkVmIndex(buffer.getInt());
+		readyTime = buffer.getDouble();
+		return true;
+	}
+
+	/* a vm index read from the current record, which must be one of the vms of the header */
+	private int checkVmIndex(int index) throws IOException {
+		if (index < 0 || index >= vmIds.length) {
+			throw new IOException("decision log is corrupted: vm index " + index + " out of "
+					+ vmIds.length + " in iteration " + iteration);
+		}
+		return index;
+	}
+
+	/* make sure the given number of bytes can be read; false if the log ends cleanly before */
+	private boolean fill(int bytes) throws IOException {
+		if (buffer.remaining() >= bytes) {
+			return true;
+		}
+		buffer.compact();
+		while (buffer.position() < bytes) {
+			if (channel.read(buffer) < 0) {
+				buffer.flip();
+				if (buffer.hasRemaining()) {
+					throw new EOFException("decision log ends in the middle of a record");
+				}
+				return false;
+			}
+		}
+		buffer.flip();
+		return true;
+	}
+
+	/* like fill, but the end of the log is an error */
+	private void require(int bytes) throws IOException {
+		if (!fill(bytes)) {
+			throw new EOFException("decision log ends in the middle of a record");
+		}
+	}
+
+	/**
+	 * Closes the log.
+	 *
+	 * @throws IOException if the log cannot be closed
+	 */
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	/**
+	 * Gets the number of vms in the log.
+	 *
+	 * @return the number of vms
+	 */
+	public int getVmNum() {
+		return vmIds.length;
+	}
+
+	/**
+	 * Gets the id of a vm.
+	 *
+	 * @param vmIndex the vm index
+	 * @return the vm id
+	 */
+	public int getVmId(int vmIndex) {
+		return vmIds[vmIndex];
+	}
+
+	/**
+	 * Gets the iteration number of the current record.
+	 *
+	 * @return the iteration number
+	 */
+	public int getIteration() {
+		return iteration;
+	}
+
+	/**
+	 * Gets the candidate cloudlet of a vm in the current record.
+	 *
+	 * @param vmIndex the vm index
+	 * @return the candidate cloudlet id, or -1 if the vm had no candidate
+	 */
+	public int getCandidateCloudletId(int vmIndex) {
+		return candidateCloudletIds[vmIndex];
+	}
+
+	/**
+	 * Gets the suffrage of the candidate of a vm in the current record.
+	 *
+	 * @param vmIndex the vm index
+	 * @return the suffrage
+	 */
+	public double getCandidateSuffrage(int vmIndex) {
+		return candidateSuffrage[vmIndex];
+	}
+
+	/**
+	 * Gets the cloudlet assigned in the current record.
+	 *
+	 * @return the cloudlet id
+	 */
+	public int getCloudletId() {
+		return cloudletId;
+	}
+
+	/**
+	 * Gets the vm index the cloudlet was assigned to in the current record.
+	 *
+	 * @return the vm index
+	 */
+	public int getVmIndex() {
+		return vmIndex;
+	}
+
+	/**
+	 * Gets the new ready time of the vm in the current record.
+	 *
+	 * @return the ready time
+	 */
+	public double getReadyTime() {
+		return readyTime;
+	}
+
+}
@@ -0,0 +1,152 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.examples;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Command line tool for decision logs written by {@link DecisionLog}.
+ *
+ * <pre>
+ * DecisionLogTool replay &lt;log&gt;       prints the schedule recorded in a log
+ * DecisionLogTool diff &lt;log1&gt; &lt;log2&gt; prints the first iteration where two runs diverge
+ * </pre>
+ *
+ * The diff exits with status 1 if the runs diverge and 0 if they are identical.
+ */
+public class DecisionLogTool {
+
+	/**
+	 * Runs the tool.
+	 *
+	 * @param args the command and its log files
+	 */
+	public static void main(String[] args) {
+		try {
+			if (args.length == 2 && args[0].equals("replay")) {
+				replay(new File(args[1]));
+			} else if (args.length == 3 && args[0].equals("diff")) {
+				if (diff(new File(args[1]), new File(args[2]))) {
+					System.exit(1);
+				}
+			} else {
+				System.err.println("usage: DecisionLogTool replay <log> | diff <log1> <log2>");
+				System.exit(2);
+			}
+		} catch (IOException e) {
+			System.err.println(e.getMessage());
+			System.exit(2);
+		}
+	}
+
+	/**
+	 * Prints the assignments recorded in a log and the final ready time of every vm.
+	 *
+	 * @param file the log file
+	 * @throws IOException if the log cannot be read
+	 */
+	public static void replay(File file) throws IOException {
+		DecisionLogReader reader = new DecisionLogReader(file);
+		try {
+			double[] readyTime = new double[reader.getVmNum()];
+			while (reader.next()) {
+				int vmIndex = reader.getVmIndex();
+				readyTime[vmIndex] = reader.getReadyTime();
+				System.out.printf("iteration %d: cloudlet %d => vm %d (ready at %.4f)\n",
+						reader.getIteration(), reader.getCloudletId(), reader.getVmId(vmIndex),
+						reader.getReadyTime());
+			}
+			double makespan = 0.0;
+			for (int i = 0; i < readyTime.length; i++) {
+				System.out.printf("vm %d ready at %.4f\n", reader.getVmId(i), readyTime[i]);
+				makespan = Math.max(makespan, readyTime[i]);
+			}
+			System.out.printf("Expected makespan: %.4f\n", makespan);
+		} finally {
+			reader.close();
+		}
+	}
+
+	/**
+	 * Compares two logs record by record and prints the first difference.
+	 *
+	 * @param file1 the first log
+	 * @param file2 the second log
+	 * @return true if the logs diverge
+	 * @throws IOException if a log cannot be read
+	 */
+	public static boolean diff(File file1, File file2) throws IOException {
+		DecisionLogReader a = new DecisionLogReader(file1);
+		DecisionLogReader b = new DecisionLogReader(file2);
+		try {
+			if (a.getVmNum() != b.getVmNum()) {
+				System.out.println("Runs have different vm counts: " + a.getVmNum() + " and "
+						+ b.getVmNum());
+				return true;
+			}
+			for (int i = 0; i < a.getVmNum(); i++) {
+				if (a.getVmId(i) != b.getVmId(i)) {
+					System.out.println("Runs have different vms at index " + i + ": vm " + a.getVmId(i)
+							+ " and vm " + b.getVmId(i));
+					return true;
+				}
+			}
+
+			int records = 0;
+			while (true) {
+				boolean hasA = a.next();
+				boolean hasB = b.next();
+				if (!hasA || !hasB) {
+					if (hasA != hasB) {
+						System.out.println("Runs diverge after " + records + " iterations: "
+								+ (hasA ? file2 : file1) + " ends first");
+						return true;
+					}
+					System.out.println("Runs are identical over " + records + " iterations");
+					return false;
+				}
+				String difference = compare(a, b);
+				if (difference != null) {
+					System.out.println("Runs diverge at iteration " + a.getIteration() + ": " + difference);
+					return true;
+				}
+				records++;
+			}
+		} finally {
+			a.close();
+			b.close();
+		}
+	}
+
+	/* describe the first difference between the current records of two logs, or null */
+	private static String compare(DecisionLogReader a, DecisionLogReader b) {
+		if (a.getIteration() != b.getIteration()) {
+			return "iteration numbers " + a.getIteration() + " and " + b.getIteration();
+		}
+		for (int i = 0; i < a.getVmNum(); i++) {
+			if (a.getCandidateCloudletId(i) != b.getCandidateCloudletId(i)
+					|| Double.compare(a.getCandidateSuffrage(i), b.getCandidateSuffrage(i)) != 0) {
+				return String.format("vm %d candidate is cloudlet %d (suffrage %.4f) vs cloudlet %d"
+						+ " (suffrage %.4f)", a.getVmId(i), a.getCandidateCloudletId(i),
+						a.getCandidateSuffrage(i), b.getCandidateCloudletId(i), b.getCandidateSuffrage(i));
+			}
+		}
+		if (a.getCloudletId() != b.getCloudletId() || a.getVmIndex() != b.getVmIndex()) {
+			return String.format("cloudlet %d => vm %d vs cloudlet %d => vm %d", a.getCloudletId(),
+					a.getVmId(a.getVmIndex()), b.getCloudletId(), b.getVmId(b.getVmIndex()));
+		}
+		if (Double.compare(a.getReadyTime(), b.getReadyTime()) != 0) {
+			return String.format("vm %d ready at %.4f vs %.4f", a.getVmId(a.getVmIndex()),
+					a.getReadyTime(), b.getReadyTime());
+		}
+		return null;
+	}
+
+}
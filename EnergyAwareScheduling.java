@@ -0,0 +1,247 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.examples;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.Vm;
+
+/**
+ * Energy-aware suffrage scheduling: the binding with the least expected energy whose makespan is
+ * at most (1 + threshold) times the makespan of the plain suffrage binding.
+ * <p>
+ * The hosts are ranked from the most to the least efficient (energy per MI at full utilization).
+ * For k = 1 to the number of hosts, the suffrage algorithm is run on the vms of the k most
+ * efficient hosts only, once ranking the vms by completion time and once by completion time plus
+ * energy (see {@link SuffrageScheduler#setCostPenalty(double[], double)}, with the energy matrix
+ * of {@link EnergyModel} as the penalty). Small k consolidates the work on few efficient hosts
+ * and lets the others stay idle; the threshold bounds how much makespan that may cost. The plain
+ * suffrage binding on every vm is always a candidate, so the result is never worse than it on
+ * both objectives.
+ * <p>
+ * A {@link SuffrageScheduler.Setup} gives every run the settings of the caller, such as the
+ * runtime correction, data affinity and shared fleet view of a broker, over the vms of the run.
+ */
+public class EnergyAwareScheduling {
+
+	/** The weight of the energy penalty in the energy-ranked runs. */
+	public static final double ENERGY_WEIGHT = 0.5;
+
+	/** An energy-aware schedule and the plain suffrage schedule it was compared with. */
+	public static class Schedule {
+
+		/** The number of hosts the schedule may use. */
+		private final int hostCount;
+
+		/** The expected makespan. */
+		private final double makespan;
+
+		/** The expected energy, in watt seconds. */
+		private final double energy;
+
+		/** The expected makespan of the plain suffrage schedule. */
+		private final double baselineMakespan;
+
+		/** The expected energy of the plain suffrage schedule, in watt seconds. */
+		private final double baselineEnergy;
+
+		/** The vm index of every cloudlet. */
+		private final int[] assignment;
+
+		Schedule(int hostCount, double makespan, double energy, double baselineMakespan,
+				double baselineEnergy, int[] assignment) {
+			this.hostCount = hostCount;
+			this.makespan = makespan;
+			this.energy = energy;
+			this.baselineMakespan = baselineMakespan;
+			this.baselineEnergy = baselineEnergy;
+			this.assignment = assignment;
+		}
+
+		/**
+		 * Gets the number of hosts, the most efficient first, the schedule was restricted to.
+		 *
+		 * @return the host count
+		 */
+		public int getHostCount() {
+			return hostCount;
+		}
+
+		/**
+		 * Gets the expected makespan.
+		 *
+		 * @return the makespan
+		 */
+		public double getMakespan() {
+			return makespan;
+		}
+
+		/**
+		 * Gets the expected energy.
+		 *
+		 * @return the energy, in watt seconds
+		 */
+		public double getEnergy() {
+			return energy;
+		}
+
+		/**
+		 * Gets the expected makespan of the plain suffrage schedule on every vm.
+		 *
+		 * @return the baseline makespan
+		 */
+		public double getBaselineMakespan() {
+			return baselineMakespan;
+		}
+
+		/**
+		 * Gets the expected energy of the plain suffrage schedule on every vm.
+		 *
+		 * @return the baseline energy, in watt seconds
+		 */
+		public double getBaselineEnergy() {
+			return baselineEnergy;
+		}
+
+		/**
+		 * Gets the vm index of every cloudlet, in list order.
+		 *
+		 * @return a copy of the assignment
+		 */
+		public int[] getAssignment() {
+			return assignment.clone();
+		}
+	}
+
+	/**
+	 * Builds the energy-aware schedule.
+	 *
+	 * @param cloudletList the cloudlets, in FCFS order
+	 * @param vmList the vms
+	 * @param energyModel the hosts of the vms, in list order
+	 * @param threshold the allowed relative makespan increase over plain suffrage, e.g. 0.1
+	 * @return the schedule with the least energy within the threshold
+	 * @pre cloudletList != null && vmList != null && vmList.size() > 0 && threshold >= 0
+	 * @post $none
+	 */
+	public static Schedule schedule(List<? extends Cloudlet> cloudletList, List<? extends Vm> vmList,
+			EnergyModel energyModel, double threshold) {
+		return schedule(cloudletList, vmList, energyModel, threshold, null);
+	}
+
+	/**
+	 * Builds the energy-aware schedule with the given scheduler setup.
+	 *
+	 * @param cloudletList the cloudlets, in FCFS order
+	 * @param vmList the vms
+	 * @param energyModel the hosts of the vms, in list order
+	 * @param threshold the allowed relative makespan increase over plain suffrage, e.g. 0.1
+	 * @param setup configures the scheduler of every run before its energy penalty is set, or null
+	 * @return the schedule with the least energy within the threshold
+	 * @pre cloudletList != null && vmList != null && vmList.size() > 0 && threshold >= 0
+	 * @post $none
+	 */
+	public static Schedule schedule(List<? extends Cloudlet> cloudletList, List<? extends Vm> vmList,
+			final EnergyModel energyModel, double threshold, SuffrageScheduler.Setup setup) {
+		int[] all = new int[vmList.size()];
+		for (int col = 0; col < all.length; col++) {
+			all[col] = col;
+		}
+		double[] energy = energyModel.energyMatrix(cloudletList, vmList);
+		double[] baseline = new double[2];
+		int[] baselineAssignment = run(cloudletList, vmList, energyModel, energy, all, 0.0, setup,
+				baseline);
+		int hostNum = energyModel.getHostNum();
+		Schedule best = new Schedule(hostNum, baseline[0], baseline[1], baseline[0], baseline[1],
+				baselineAssignment);
+		double limit = baseline[0] * (1.0 + threshold);
+
+		List<Integer> hosts = new ArrayList<Integer>();
+		for (int h = 0; h < hostNum; h++) {
+			hosts.add(h);
+		}
+		Collections.sort(hosts, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer a, Integer b) {
+				return Double.compare(energyModel.getEnergyPerMi(a), energyModel.getEnergyPerMi(b));
+			}
+		});
+
+		boolean[] allowed = new boolean[hostNum];
+		for (int k = 1; k <= hostNum; k++) {
+			allowed[hosts.get(k - 1)] = true;
+			int[] columns = new int[vmList.size()];
+			int count = 0;
+			for (int col = 0; col < vmList.size(); col++) {
+				if (allowed[energyModel.getHost(col)]) {
+					columns[count++] = col;
+				}
+			}
+			if (count == 0) {
+				continue;
+			}
+			columns = Arrays.copyOf(columns, count);
+			for (double weight : new double[] { 0.0, ENERGY_WEIGHT }) {
+				double[] result = new double[2];
+				int[] assignment = run(cloudletList, vmList, energyModel, energy, columns, weight, setup,
+						result);
+				if (result[0] <= limit && (result[1] < best.getEnergy()
+						|| (result[1] == best.getEnergy() && result[0] < best.getMakespan()))) {
+					best = new Schedule(k, result[0], result[1], baseline[0], baseline[1], assignment);
+				}
+			}
+		}
+		return best;
+	}
+
+	/* one suffrage run on a subset of the vms; result receives the makespan and the energy */
+	private static int[] run(List<? extends Cloudlet> cloudletList, List<? extends Vm> vmList,
+			EnergyModel energyModel, double[] energy, int[] columns, double weight,
+			SuffrageScheduler.Setup setup, double[] result) {
+		List<Vm> subset = new ArrayList<Vm>(columns.length);
+		for (int col : columns) {
+			subset.add(vmList.get(col));
+		}
+		SuffrageScheduler scheduler = new SuffrageScheduler(cloudletList, subset);
+		scheduler.setVerbose(false);
+		if (setup != null) {
+			setup.configure(scheduler, cloudletList, subset);
+		}
+		if (weight > 0.0) {
+			double[] subsetEnergy = new double[cloudletList.size() * columns.length];
+			for (int row = 0; row < cloudletList.size(); row++) {
+				for (int i = 0; i < columns.length; i++) {
+					subsetEnergy[row * columns.length + i] = energy[row * vmList.size() + columns[i]];
+				}
+			}
+			scheduler.setCostPenalty(subsetEnergy, weight);
+		}
+		while (!scheduler.isFinished()) {
+			scheduler.step();
+		}
+
+		int[] assignment = new int[cloudletList.size()];
+		for (int row = 0; row < assignment.length; row++) {
+			assignment[row] = columns[scheduler.getAssignment(row)];
+		}
+		double makespan = 0.0;
+		for (int i = 0; i < columns.length; i++) {
+			makespan = Math.max(makespan, scheduler.getReadyTime(i));
+		}
+		result[0] = makespan;
+		result[1] = energyModel.energy(cloudletList, vmList, assignment);
+		return assignment;
+	}
+
+}
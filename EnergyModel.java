@@ -0,0 +1,196 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.examples;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.power.PowerHost;
+import org.cloudbus.cloudsim.power.models.PowerModel;
+
+/**
+ * The energy a binding is expected to use, from the power models of the hosts running the vms.
+ * <p>
+ * Every host power model is reduced to a line through its power at half and at full utilization:
+ * a static power drawn while the host has work, and a dynamic power proportional to the
+ * utilization. A cloudlet running on a vm adds the vm's share of the host mips to the host
+ * utilization for length / mips seconds, as in the completion time model of
+ * {@link SuffrageScheduler}. A host is busy until the last of its vms finishes and draws nothing
+ * when it has no work, as the CloudSim power models do at zero utilization. Energies are in watt
+ * seconds, like {@link org.cloudbus.cloudsim.power.PowerDatacenter#getPower()}.
+ */
+public class EnergyModel {
+
+	/** The host index of every vm. */
+	private final int[] hostOf;
+
+	/** The share of its host mips every vm uses when it runs a cloudlet. */
+	private final double[] vmShare;
+
+	/** The static power of every host, in watts. */
+	private final double[] staticPower;
+
+	/** The power at full utilization of every host, in watts. */
+	private final double[] maxPower;
+
+	/** The total mips of every host. */
+	private final double[] hostMips;
+
+	/**
+	 * Creates a new energy model from explicit host data.
+	 *
+	 * @param hostOf the host index of every vm
+	 * @param vmShare the share of its host mips every vm uses when it runs a cloudlet
+	 * @param staticPower the static power of every host, in watts
+	 * @param maxPower the power at full utilization of every host, in watts
+	 * @param hostMips the total mips of every host
+	 * @pre hostOf.length == vmShare.length
+	 * @pre staticPower.length == maxPower.length && maxPower.length == hostMips.length
+	 * @post $none
+	 */
+	public EnergyModel(int[] hostOf, double[] vmShare, double[] staticPower, double[] maxPower,
+			double[] hostMips) {
+		this.hostOf = hostOf.clone();
+		this.vmShare = vmShare.clone();
+		this.staticPower = staticPower.clone();
+		this.maxPower = maxPower.clone();
+		this.hostMips = hostMips.clone();
+	}
+
+	/**
+	 * Creates an energy model from the hosts the vms were created on.
+	 *
+	 * @param vmList the created vms
+	 * @return the energy model, one vm entry per vm in list order
+	 * @throws IllegalArgumentException if a vm is not placed on a {@link PowerHost}
+	 */
+	public static EnergyModel fromHosts(List<? extends Vm> vmList) {
+		int vmNum = vmList.size();
+		int[] hostOf = new int[vmNum];
+		double[] vmShare = new double[vmNum];
+		Map<Host, Integer> hostIndex = new HashMap<Host, Integer>();
+		List<PowerHost> hosts = new ArrayList<PowerHost>();
+		for (int j = 0; j < vmNum; j++) {
+			Vm vm = vmList.get(j);
+			if (!(vm.getHost() instanceof PowerHost)) {
+				throw new IllegalArgumentException("Vm #" + vm.getId() + " is not placed on a power host");
+			}
+			PowerHost host = (PowerHost) vm.getHost();
+			Integer index = hostIndex.get(host);
+			if (index == null) {
+				index = hosts.size();
+				hostIndex.put(host, index);
+				hosts.add(host);
+			}
+			hostOf[j] = index;
+			vmShare[j] = Math.min(1.0, vm.getMips() / host.getTotalMips());
+		}
+
+		int hostNum = hosts.size();
+		double[] staticPower = new double[hostNum];
+		double[] maxPower = new double[hostNum];
+		double[] hostMips = new double[hostNum];
+		for (int h = 0; h < hostNum; h++) {
+			PowerModel powerModel = hosts.get(h).getPowerModel();
+			double full = powerModel.getPower(1.0);
+			maxPower[h] = full;
+			staticPower[h] = Math.max(0.0, 2.0 * powerModel.getPower(0.5) - full);
+			hostMips[h] = hosts.get(h).getTotalMips();
+		}
+		return new EnergyModel(hostOf, vmShare, staticPower, maxPower, hostMips);
+	}
+
+	/**
+	 * Gets the number of hosts.
+	 *
+	 * @return the host count
+	 */
+	public int getHostNum() {
+		return staticPower.length;
+	}
+
+	/**
+	 * Gets the host index of a vm.
+	 *
+	 * @param col the index of the vm in the model
+	 * @return the host index
+	 */
+	public int getHost(int col) {
+		return hostOf[col];
+	}
+
+	/**
+	 * Gets the energy a host uses per million instructions at full utilization; the smaller, the
+	 * more efficient the host.
+	 *
+	 * @param host the host index
+	 * @return the energy per MI, in watt seconds
+	 */
+	public double getEnergyPerMi(int host) {
+		return maxPower[host] / hostMips[host];
+	}
+
+	/**
+	 * Computes the energy every cloudlet uses on every vm while it runs: the dynamic power of its
+	 * share of the host plus the static power of the host.
+	 *
+	 * @param cloudletList the cloudlets
+	 * @param vmList the vms, in the order of the model
+	 * @return the energy matrix, row-major: energy[row * vms + col]
+	 */
+	public double[] energyMatrix(List<? extends Cloudlet> cloudletList, List<? extends Vm> vmList) {
+		int colNum = vmList.size();
+		double[] power = new double[colNum];
+		for (int col = 0; col < colNum; col++) {
+			int h = hostOf[col];
+			power[col] = staticPower[h] + (maxPower[h] - staticPower[h]) * vmShare[col];
+		}
+		double[] energy = new double[cloudletList.size() * colNum];
+		for (int row = 0; row < cloudletList.size(); row++) {
+			long length = cloudletList.get(row).getCloudletLength();
+			for (int col = 0; col < colNum; col++) {
+				energy[row * colNum + col] = power[col] * length / vmList.get(col).getMips();
+			}
+		}
+		return energy;
+	}
+
+	/**
+	 * Computes the energy of a binding: every used host draws its static power until its last vm
+	 * finishes, plus the dynamic power of the work it runs.
+	 *
+	 * @param cloudletList the cloudlets
+	 * @param vmList the vms, in the order of the model
+	 * @param assignment the vm index of every cloudlet
+	 * @return the energy, in watt seconds
+	 */
+	public double energy(List<? extends Cloudlet> cloudletList, List<? extends Vm> vmList, int[] assignment) {
+		double[] busy = new double[vmList.size()];
+		double[] hostBusy = new double[staticPower.length];
+		double total = 0.0;
+		for (int row = 0; row < assignment.length; row++) {
+			int col = assignment[row];
+			int h = hostOf[col];
+			double time = cloudletList.get(row).getCloudletLength() / vmList.get(col).getMips();
+			busy[col] += time;
+			hostBusy[h] = Math.max(hostBusy[h], busy[col]);
+			total += (maxPower[h] - staticPower[h]) * vmShare[col] * time;
+		}
+		for (int h = 0; h < hostBusy.length; h++) {
+			total += staticPower[h] * hostBusy[h];
+		}
+		return total;
+	}
+
+}
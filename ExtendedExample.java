@@ -8,25 +8,20 @@ import java.util.Calendar;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
+
+import javax.management.ObjectName;
 import java.lang.Math;
 
 import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.CloudletScheduler;
 import org.cloudbus.cloudsim.CloudletSchedulerSpaceShared;
+import org.cloudbus.cloudsim.CloudletSchedulerTimeShared;
 import org.cloudbus.cloudsim.Datacenter;
-import org.cloudbus.cloudsim.DatacenterCharacteristics;
-import org.cloudbus.cloudsim.Host;
 import org.cloudbus.cloudsim.Log;
-import org.cloudbus.cloudsim.Pe;
-import org.cloudbus.cloudsim.Storage;
 import org.cloudbus.cloudsim.UtilizationModel;
 import org.cloudbus.cloudsim.UtilizationModelFull;
 import org.cloudbus.cloudsim.Vm;
-import org.cloudbus.cloudsim.VmAllocationPolicySimple;
-import org.cloudbus.cloudsim.VmSchedulerTimeShared;
 import org.cloudbus.cloudsim.core.CloudSim;
-import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
-import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
-import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
 
 
 /**
@@ -43,6 +38,27 @@ public class ExtendedExample {
 	private static List<Vm> vmList;
 	private static int vmNum=3;
 
+	/** The number of tenants, each with its own broker, vms and cloudlets. */
+	private static int tenantNum=1;
+
+	/** The length below which cloudlets are coalesced into composite cloudlets; 0 to disable. */
+	private static long coalesceThreshold=0;
+
+	/** Whether the vms share their PEs among their cloudlets (CloudletSchedulerTimeShared). */
+	private static boolean timeSharedVms=false;
+
+	/**
+	 * The coefficient of variation of the actual cloudlet lengths around their estimate; above 0
+	 * the cloudlets are bound with the robust policy.
+	 */
+	private static double lengthErrorCv=0;
+
+	/**
+	 * The number of cloudlets per wave of a pipelined suffrage binding, which runs on while the
+	 * simulation starts; 0 binds the whole batch before the simulation. Only with one tenant.
+	 */
+	private static int pipelineWaveSize=0;
+
 	/**
 	 * Creates main() to run this example
 	 */
@@ -53,7 +69,7 @@ public class ExtendedExample {
 		try {
 			// First step: Initialize the CloudSim package. It should be called
 			// before creating any entities.
-			int num_user = 1;   // number of cloud users
+			int num_user = tenantNum;   // number of cloud users
 			Calendar calendar = Calendar.getInstance();
 			boolean trace_flag = false;  // mean trace events
 
@@ -62,44 +78,89 @@ public class ExtendedExample {
 
 			// Second step: Create Datacenters
 			//Datacenters are the resource providers in CloudSim. We need at list one of them to run a CloudSim simulation
-			Datacenter datacenter0 = createDatacenter("Datacenter_0");
-
-			//Third step: Create Broker
-			DatacenterBroker broker = createBroker();
-			int brokerId = broker.getId();
-
-			//Create VMs and Cloudlets and send them to broker
-			vmList = createVM(brokerId, vmNum, 0); //creating 2 vms
-			cloudletList = createCloudlet(brokerId, cloudletNum, 0); // creating 3 cloudlets
-
-			//submit vm list to the broker
-			broker.submitVmList(vmList);
-
-
-			//submit cloudlet list to the broker
-			broker.submitCloudletList(cloudletList);
+			//The tenants share one host per vm slot: vm i of every tenant runs on host i, and the
+			//host splits its capacity between the busy tenants by the weights of the fleet view
+			SharedReadyTimeView fleet = new SharedReadyTimeView(vmNum);
+			Datacenter datacenter0 = createFleetDatacenter("Datacenter_0", fleet);
+
+			//Third step: Create one Broker per tenant. The tenants share the same vm fleet:
+			//vm i of every tenant is slot i of the fleet and competes for the capacity of host i.
+			//Tenant t has weight t + 1, so the later tenants get the larger shares
+			List<DatacenterBroker> brokers = new ArrayList<DatacenterBroker>();
+			List<ObjectName> monitors = new ArrayList<ObjectName>();
+			for (int tenant = 0; tenant < tenantNum; tenant++) {
+				DatacenterBroker broker = createBroker("Broker_" + tenant, fleet, tenant + 1.0);
+				int brokerId = broker.getId();
+				// tracing every step of several brokers at once is unreadable
+				broker.setVerbose(tenantNum == 1);
+				broker.setLatencyStats(new CloudletLatencyStats());
+				// watch the run with jconsole under org.cloudbus.cloudsim.examples
+				monitors.add(BrokerMonitor.register(broker));
+
+				//Create VMs and Cloudlets and send them to broker
+				vmList = createVM(brokerId, vmNum, tenant * vmNum);
+				cloudletList = createCloudlet(brokerId, cloudletNum, tenant * cloudletNum);
+				if (lengthErrorCv > 0) {
+					for (Cloudlet cloudlet : cloudletList) {
+						broker.setLengthDistribution(cloudlet.getCloudletId(),
+								LengthDistribution.lognormal(cloudlet.getCloudletLength(), lengthErrorCv));
+					}
+				}
+
+				//submit vm list to the broker
+				broker.submitVmList(vmList);
+
+				//submit cloudlet list to the broker
+				broker.submitCloudletList(cloudletList);
+				if (coalesceThreshold > 0) {
+					broker.coalesceCloudlets(coalesceThreshold);
+				}
+				brokers.add(broker);
+			}
 
 
 			//bind the cloudlets to the vms. This way, the broker
 			//will submit the bound cloudlets to VMs that aim to 
-			//minimize the total execution time.
+			//minimize the total execution time. The tenants are scheduled one after the other,
+			//each seeing the work of the previous ones, so the schedules are the same on every run.
 			long startTime = System.nanoTime();
-			broker.bindCloutletToVmsSuffrage();
+			for (DatacenterBroker broker : brokers) {
+				if (lengthErrorCv > 0) {
+					broker.bindCloudletsToVms(BindingPolicy.ROBUST);
+				} else if (pipelineWaveSize > 0) {
+					broker.startPipelinedSuffrage(pipelineWaveSize, 4);
+				} else {
+					broker.bindCloutletToVmsSuffrage();
+				}
+			}
 			long endTime = System.nanoTime();
-			long runTime = endTime = startTime;
-			long convertedTime = TimeUnit.SECONDS.convert(runTime, TimeUnit.NANOSECONDS);
-			Log.printLine("Algorithm Runtime: " + convertedTime + " seconds");
+			long runTime = endTime - startTime;
+			long convertedTime = TimeUnit.MILLISECONDS.convert(runTime, TimeUnit.NANOSECONDS);
+			Log.printLine("Algorithm Runtime: " + convertedTime + " ms");
 
 			// Sixth step: Starts the simulation
 			CloudSim.startSimulation();
 
 
 			// Final step: Print results when simulation is over
-			List<Cloudlet> newList = broker.getCloudletReceivedList();
-
 			CloudSim.stopSimulation();
+			for (ObjectName monitor : monitors) {
+				BrokerMonitor.unregister(monitor);
+			}
 
-        	printCloudletList(newList);
+			for (DatacenterBroker broker : brokers) {
+				List<Cloudlet> newList = broker.getCloudletReceivedList();
+				Log.printLine(broker.getName() + ":");
+				printCloudletList(newList);
+				printPrediction(broker);
+				if (broker.getRobustSchedule() != null) {
+					DecimalFormat dft = new DecimalFormat("###.##");
+					Log.printLine("Robust binding: expected makespan "
+							+ dft.format(broker.getRobustSchedule().getExpectedMakespan()) + ", p95 makespan "
+							+ dft.format(broker.getRobustSchedule().getP95Makespan()));
+				}
+				printLatencies(broker.getLatencyStats());
+			}
 
 			//Print the debt of each user to each datacenter
 			//datacenter0.printDebts();
@@ -116,7 +177,7 @@ public class ExtendedExample {
 	}
 
 	/* function to create vmlist*/
-	private static List<Vm> createVM(int userId, int vms, int idShift) {
+	static List<Vm> createVM(int userId, int vms, int idShift) {
 		//Creates a container to store VMs. This list is passed to the broker later
 		LinkedList<Vm> list = new LinkedList<Vm>();
 		//Random rand=new Random();
@@ -132,8 +193,10 @@ public class ExtendedExample {
 		Vm[] vm = new Vm[vms];
 
 		for(int i=0;i<vms;i++){
-			mips=100+(i*50); 
-			vm[i] = new Vm(idShift + i, userId,mips , pesNumber, ram, bw, size, vmm, new CloudletSchedulerSpaceShared());
+			mips=vmMips(i); 
+			CloudletScheduler cloudletScheduler = timeSharedVms ? new CloudletSchedulerTimeShared()
+					: new CloudletSchedulerSpaceShared();
+			vm[i] = new Vm(idShift + i, userId,mips , pesNumber, ram, bw, size, vmm, cloudletScheduler);
 			list.add(vm[i]);
 			System.out.println("");
 			System.out.println("Vm"+i+"  mips:"+mips);
@@ -166,63 +229,62 @@ public class ExtendedExample {
 		return list;
 	}
 	
-	private static Datacenter createDatacenter(String name){
+	/* the MIPS rating of the vm of a slot */
+	static int vmMips(int slot) {
+		return 100 + slot * 50;
+	}
 
-		// Here are the steps needed to create a PowerDatacenter:
-		// 1. We need to create a list to store
-		//    our machine
-		List<Host> hostList = new ArrayList<Host>();
-		
-		int mips = 1000;
+	/* one host per vm slot, as fast as the vm of its slot, shared by the vms of every tenant */
+	private static Datacenter createFleetDatacenter(String name, SharedReadyTimeView fleet) {
+		TopologyBuilder topology = new TopologyBuilder();
+		for (int slot = 0; slot < vmNum; slot++) {
+			// room for the memory, bandwidth and image of one vm per tenant
+			topology.addHostGroup(1, 1, vmMips(slot), 512 * tenantNum, 1000L * tenantNum,
+					Math.max(1000000L, 10000L * tenantNum));
+		}
+		topology.setSharedFleet(fleet);
 
-		int hostId=0;
+		Datacenter datacenter = null;
+		try {
+			datacenter = topology.build(name);
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+		return datacenter;
+	}
+
+	static Datacenter createDatacenter(String name, int hostNum){
+		return createDatacenter(name, hostNum, false);
+	}
+
+	/* power=true builds a PowerDatacenter whose hosts alternate between an older model
+	 * and a more efficient one, so that the energy can be measured */
+	static Datacenter createDatacenter(String name, int hostNum, boolean power){
+
+		// Every host has one 1000 MIPS core, 2048 MB of memory, 10000 of bandwidth and
+		// 1000000 of storage. The builder creates them in bulk, see TopologyBuilder.
+		int mips = 1000;
 		int ram = 2048; //host memory (MB)
 		long storage = 1000000; //host storage
 		int bw = 10000;
 
-		for(int i=0;i<vmNum;i++){
-			// 2. A Machine contains one or more PEs or CPUs/Cores.
-			// In this example, it will have only one core.
-			List<Pe> peList = new ArrayList<Pe>();
-			
-			// 3. Create PEs and add these into a list.
-			peList.add(new Pe(0, new PeProvisionerSimple(mips))); // need to store Pe id and MIPS Rating
-			
-			//4. Create Hosts with its id and list of PEs and add them to the list of machines
-			hostList.add(
-	    			new Host(
-	    				hostId,
-	    				new RamProvisionerSimple(ram),
-	    				new BwProvisionerSimple(bw),
-	    				storage,
-	    				peList,
-	    				new VmSchedulerTimeShared(peList)
-	    			)
-	    	);
-			hostId++;			
+		TopologyBuilder topology = new TopologyBuilder();
+		if (power) {
+			// hosts 0, 2, 4... are the older model, 1, 3, 5... the efficient one
+			topology.addPowerHostGroup((hostNum + 1) / 2, 1, mips, ram, bw, storage,
+					TopologyBuilder.createOlderPowerModel());
+			if (hostNum > 1) {
+				topology.addPowerHostGroup(hostNum / 2, 1, mips, ram, bw, storage,
+						TopologyBuilder.createEfficientPowerModel());
+			}
+			topology.setInterleaved(true);
+		} else {
+			topology.addHostGroup(hostNum, 1, mips, ram, bw, storage);
 		}
 
-		// 5. Create a DatacenterCharacteristics object that stores the
-		//    properties of a data center: architecture, OS, list of
-		//    Machines, allocation policy: time- or space-shared, time zone
-		//    and its price (G$/Pe time unit).
-		String arch = "x86";      // system architecture
-		String os = "Linux";          // operating system
-		String vmm = "Xen";
-		double time_zone = 10.0;         // time zone this resource located
-		double cost = 3.0;              // the cost of using processing in this resource
-		double costPerMem = 0.05;		// the cost of using memory in this resource
-		double costPerStorage = 0.001;	// the cost of using storage in this resource
-		double costPerBw = 0.0;			// the cost of using bw in this resource
-		LinkedList<Storage> storageList = new LinkedList<Storage>();	//we are not adding SAN devices by now
-
-        DatacenterCharacteristics characteristics = new DatacenterCharacteristics(
-                arch, os, vmm, hostList, time_zone, cost, costPerMem, costPerStorage, costPerBw);
-
-		// 6. Finally, we need to create a PowerDatacenter object.
 		Datacenter datacenter = null;
 		try {
-			datacenter = new Datacenter(name, characteristics, new VmAllocationPolicySimple(hostList), storageList, 0);
+			datacenter = topology.build(name);
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
@@ -232,11 +294,11 @@ public class ExtendedExample {
 
 	//We strongly encourage users to develop their own broker policies, to submit vms and cloudlets according
 	//to the specific rules of the simulated scenario
-	private static DatacenterBroker createBroker(){
+	private static DatacenterBroker createBroker(String name, SharedReadyTimeView fleet, double weight){
 
 		DatacenterBroker broker = null;
 		try {
-			broker = new DatacenterBroker("Broker");
+			broker = new DatacenterBroker(name, fleet, weight);
 		} catch (Exception e) {
 			e.printStackTrace();
 			return null;
@@ -244,6 +306,45 @@ public class ExtendedExample {
 		return broker;
 	}
 
+	/**
+	 * Prints the makespan predicted by the analytical evaluator next to the simulated one
+	 * @param broker  a broker whose simulation is over
+	 */
+	private static void printPrediction(DatacenterBroker broker) {
+		List<Cloudlet> received = broker.getCloudletReceivedList();
+		if (received.isEmpty()) {
+			return;
+		}
+		double submissionTime = Double.MAX_VALUE;
+		double simulatedMakespan = 0.0;
+		for (Cloudlet cloudlet : received) {
+			submissionTime = Math.min(submissionTime, cloudlet.getSubmissionTime());
+			simulatedMakespan = Math.max(simulatedMakespan, cloudlet.getFinishTime());
+		}
+		AnalyticalEvaluator evaluator = new AnalyticalEvaluator(broker.getCloudletSubmittedList(),
+				broker.getVmList());
+		double predictedMakespan = evaluator.evaluateBindings(submissionTime);
+		DecimalFormat dft = new DecimalFormat("###.##");
+		Log.printLine("Predicted makespan: " + dft.format(predictedMakespan) + ", simulated makespan: "
+				+ dft.format(simulatedMakespan) + ", largest finish time error: "
+				+ dft.format(evaluator.getMaxFinishTimeError(received)));
+	}
+
+	/**
+	 * Prints the median and tail latencies of the returned cloudlets
+	 * @param stats  the latency statistics of a broker
+	 */
+	private static void printLatencies(CloudletLatencyStats stats) {
+		String indent = "    ";
+		DecimalFormat dft = new DecimalFormat("###.##");
+		Log.printLine("Latency" + indent + "p50" + indent + "p99" + indent + "p99.9");
+		for (CloudletLatencyStats.Metric metric : CloudletLatencyStats.Metric.values()) {
+			Log.printLine(metric + indent + dft.format(stats.getQuantile(metric, 0.5)) + indent
+					+ dft.format(stats.getQuantile(metric, 0.99)) + indent
+					+ dft.format(stats.getQuantile(metric, 0.999)));
+		}
+	}
+
 	/**
 	 * Prints the Cloudlet objects
 	 * @param list  list of Cloudlets
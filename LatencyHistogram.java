@@ -0,0 +1,168 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.examples;
+
+/**
+ * A fixed-memory histogram of durations with log-linear buckets, for tail quantiles of cloudlet
+ * latencies.
+ * <p>
+ * Every power of two from 2^MIN_EXPONENT to 2^MAX_EXPONENT seconds is split into SUB_BUCKETS
+ * equal buckets, so a quantile is known within 1/SUB_BUCKETS (about 3%) of its value whatever its
+ * magnitude. The bucket of a value is read from the exponent and the top mantissa bits of the
+ * double, without a logarithm. Values below 2^MIN_EXPONENT (including 0) share the first bucket,
+ * values above the range the last one; the exact minimum and maximum are kept aside.
+ */
+public class LatencyHistogram {
+
+	/** The number of mantissa bits that select the bucket within a power of two. */
+	private static final int SUB_BUCKET_BITS = 5;
+
+	/** The number of buckets per power of two. */
+	public static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	/** The exponent of the smallest power of two with its own buckets (about 1 ms). */
+	public static final int MIN_EXPONENT = -10;
+
+	/** The exponent of the largest power of two with its own buckets (about 34 years). */
+	public static final int MAX_EXPONENT = 30;
+
+	/** The number of buckets, the first one holding the values below the range. */
+	private static final int BUCKETS = 1 + (MAX_EXPONENT - MIN_EXPONENT + 1) * SUB_BUCKETS;
+
+	/** The smallest value with its own buckets. */
+	private static final double MIN_VALUE = Math.scalb(1.0, MIN_EXPONENT);
+
+	/** The number of values in every bucket. */
+	private final long[] counts;
+
+	/** The number of values recorded. */
+	private long count;
+
+	/** The sum of the values recorded. */
+	private double sum;
+
+	/** The smallest value recorded. */
+	private double min;
+
+	/** The largest value recorded. */
+	private double max;
+
+	/**
+	 * Creates an empty histogram.
+	 */
+	public LatencyHistogram() {
+		counts = new long[BUCKETS];
+		min = Double.POSITIVE_INFINITY;
+		max = Double.NEGATIVE_INFINITY;
+	}
+
+	/**
+	 * Records a value.
+	 *
+	 * @param value the duration, in seconds
+	 */
+	public void record(double value) {
+		counts[bucketOf(value)]++;
+		count++;
+		sum += value;
+		if (value < min) {
+			min = value;
+		}
+		if (value > max) {
+			max = value;
+		}
+	}
+
+	/* the bucket of a value */
+	private static int bucketOf(double value) {
+		if (!(value >= MIN_VALUE)) {
+			return 0;
+		}
+		int exponent = Math.getExponent(value);
+		if (exponent > MAX_EXPONENT) {
+			return BUCKETS - 1;
+		}
+		int sub = (int) (Double.doubleToRawLongBits(value) >>> (52 - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return 1 + (exponent - MIN_EXPONENT) * SUB_BUCKETS + sub;
+	}
+
+	/* the smallest value of a bucket */
+	private static double lowerBound(int bucket) {
+		if (bucket == 0) {
+			return 0.0;
+		}
+		int exponent = MIN_EXPONENT + (bucket - 1) / SUB_BUCKETS;
+		int sub = (bucket - 1) % SUB_BUCKETS;
+		return Math.scalb(1.0 + (double) sub / SUB_BUCKETS, exponent);
+	}
+
+	/**
+	 * Gets a quantile of the recorded values: the middle of the bucket holding the value of that
+	 * rank, clamped to the recorded minimum and maximum.
+	 *
+	 * @param quantile the quantile, e.g. 0.5, 0.99 or 0.999
+	 * @return the value, or 0 if nothing was recorded
+	 * @pre quantile >= 0 && quantile <= 1
+	 */
+	public double getQuantile(double quantile) {
+		if (count == 0) {
+			return 0.0;
+		}
+		long rank = Math.max(1L, (long) Math.ceil(quantile * count));
+		long seen = 0;
+		for (int bucket = 0; bucket < BUCKETS; bucket++) {
+			seen += counts[bucket];
+			if (seen >= rank) {
+				if (bucket == BUCKETS - 1) {
+					return max;
+				}
+				double middle = (lowerBound(bucket) + lowerBound(bucket + 1)) / 2;
+				return Math.min(max, Math.max(min, middle));
+			}
+		}
+		return max;
+	}
+
+	/**
+	 * Gets the number of values recorded.
+	 *
+	 * @return the count
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Gets the mean of the values recorded.
+	 *
+	 * @return the mean, or 0 if nothing was recorded
+	 */
+	public double getMean() {
+		return count == 0 ? 0.0 : sum / count;
+	}
+
+	/**
+	 * Gets the smallest value recorded.
+	 *
+	 * @return the minimum, or 0 if nothing was recorded
+	 */
+	public double getMin() {
+		return count == 0 ? 0.0 : min;
+	}
+
+	/**
+	 * Gets the largest value recorded.
+	 *
+	 * @return the maximum, or 0 if nothing was recorded
+	 */
+	public double getMax() {
+		return count == 0 ? 0.0 : max;
+	}
+
+}
@@ -0,0 +1,172 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.examples;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The distribution of the actual length of a cloudlet whose length is only an estimate, for
+ * {@link RobustScheduling}.
+ * <p>
+ * Estimation errors of job runtimes are multiplicative and heavy-tailed, so the length is
+ * log-normal: ln(length) is normal with mean mu and standard deviation sigma. A distribution is
+ * given by its mean and coefficient of variation (standard deviation / mean), so the estimate can
+ * be used as the mean. A coefficient of variation of 0 gives an exact length.
+ */
+public class LengthDistribution {
+
+	/** The mean length. */
+	private final double mean;
+
+	/** The standard deviation of the length. */
+	private final double stdDev;
+
+	/** The mean of ln(length). */
+	private final double mu;
+
+	/** The standard deviation of ln(length); 0 for an exact length. */
+	private final double sigma;
+
+	private LengthDistribution(double mean, double coefficientOfVariation) {
+		this.mean = mean;
+		stdDev = mean * coefficientOfVariation;
+		sigma = Math.sqrt(Math.log1p(coefficientOfVariation * coefficientOfVariation));
+		mu = Math.log(mean) - sigma * sigma / 2;
+	}
+
+	/**
+	 * Creates the distribution of a length known exactly.
+	 *
+	 * @param length the length
+	 * @return the distribution
+	 * @pre length >= 0
+	 */
+	public static LengthDistribution exact(double length) {
+		return new LengthDistribution(length, 0.0);
+	}
+
+	/**
+	 * Creates a log-normal length distribution.
+	 *
+	 * @param mean the mean length, normally the estimate
+	 * @param coefficientOfVariation the standard deviation divided by the mean
+	 * @return the distribution
+	 * @throws IllegalArgumentException if the mean or the coefficient of variation is negative
+	 */
+	public static LengthDistribution lognormal(double mean, double coefficientOfVariation) {
+		if (mean < 0.0 || coefficientOfVariation < 0.0) {
+			throw new IllegalArgumentException("Mean and coefficient of variation must be >= 0, got "
+					+ mean + " and " + coefficientOfVariation);
+		}
+		return new LengthDistribution(mean, coefficientOfVariation);
+	}
+
+	/**
+	 * Creates the distribution of the total length of cloudlets run one after the other, e.g. the
+	 * members of a {@link CompositeCloudlet}: the log-normal with the mean and variance of the sum
+	 * of their lengths, taken as independent.
+	 *
+	 * @param parts the distributions of the lengths
+	 * @return the distribution of the sum
+	 * @pre parts.size() > 0
+	 */
+	public static LengthDistribution sum(List<LengthDistribution> parts) {
+		double mean = 0.0;
+		double variance = 0.0;
+		for (LengthDistribution part : parts) {
+			mean += part.getMean();
+			variance += part.getVariance();
+		}
+		return mean > 0.0 ? lognormal(mean, Math.sqrt(variance) / mean) : exact(0.0);
+	}
+
+	/**
+	 * Gets the mean length.
+	 *
+	 * @return the mean
+	 */
+	public double getMean() {
+		return mean;
+	}
+
+	/**
+	 * Gets the standard deviation of the length.
+	 *
+	 * @return the standard deviation
+	 */
+	public double getStdDev() {
+		return stdDev;
+	}
+
+	/**
+	 * Gets the variance of the length.
+	 *
+	 * @return the variance
+	 */
+	public double getVariance() {
+		return stdDev * stdDev;
+	}
+
+	/**
+	 * Gets a quantile of the length.
+	 *
+	 * @param quantile the quantile, e.g. 0.95
+	 * @return the length not exceeded with that probability
+	 * @pre quantile > 0 && quantile < 1
+	 */
+	public double getQuantile(double quantile) {
+		return sigma == 0.0 ? mean : Math.exp(mu + sigma * normalQuantile(quantile));
+	}
+
+	/**
+	 * Draws a length.
+	 *
+	 * @param rand the random generator
+	 * @return the length
+	 */
+	public double sample(Random rand) {
+		return sigma == 0.0 ? mean : Math.exp(mu + sigma * rand.nextGaussian());
+	}
+
+	/**
+	 * Computes a quantile of the standard normal distribution, with the rational approximation of
+	 * P. J. Acklam (relative error below 1.2e-9).
+	 *
+	 * @param p the probability
+	 * @return the value z such that P(Z <= z) = p
+	 * @pre p > 0 && p < 1
+	 */
+	public static double normalQuantile(double p) {
+		final double[] a = { -3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02,
+				1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00 };
+		final double[] b = { -5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02,
+				6.680131188771972e+01, -1.328068155288572e+01 };
+		final double[] c = { -7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00,
+				-2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00 };
+		final double[] d = { 7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00,
+				3.754408661907416e+00 };
+		double low = 0.02425;
+		if (p < low) {
+			double q = Math.sqrt(-2 * Math.log(p));
+			return (((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5])
+					/ ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+		}
+		if (p > 1 - low) {
+			double q = Math.sqrt(-2 * Math.log(1 - p));
+			return -(((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5])
+					/ ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+		}
+		double q = p - 0.5;
+		double r = q * q;
+		return (((((a[0] * r + a[1]) * r + a[2]) * r + a[3]) * r + a[4]) * r + a[5]) * q
+				/ (((((b[0] * r + b[1]) * r + b[2]) * r + b[3]) * r + b[4]) * r + 1);
+	}
+
+}
@@ -0,0 +1,308 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.examples;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.Datacenter;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.UtilizationModel;
+import org.cloudbus.cloudsim.UtilizationModelFull;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.power.PowerDatacenter;
+
+/**
+ * Runs every {@link BindingPolicy} on the same seeded workload and compares the scheduling wall
+ * time and the simulated makespan of one policy against a stored baseline. The processing cost
+ * charged by the datacenter is reported for every policy but not gated, and so is the energy
+ * when the datacenter is built from power hosts.
+ * <p>
+ * A single wall time is too noisy to gate on, so every policy is first run a few times to warm
+ * the JVM up and then timed over several runs, of which the median is kept; a scheduling time
+ * regression must also exceed an absolute slack, as a small relative change of a few
+ * milliseconds is noise. The simulated results do not change between runs.
+ * <p>
+ * Arguments are key=value pairs:
+ * <ul>
+ * <li>baseline: the baseline properties file (default policy-baseline.properties)</li>
+ * <li>gate: the policy checked against the baseline (default SUFFRAGE)</li>
+ * <li>threshold: the allowed relative makespan regression (default 0.02)</li>
+ * <li>runtimeThreshold: the allowed relative scheduling time regression (default 0.5)</li>
+ * <li>runtimeSlackMs: the scheduling time regression always allowed, in milliseconds (default
+ * 5)</li>
+ * <li>warmup: the untimed runs of every policy (default 2)</li>
+ * <li>repetitions: the timed runs of every policy, the median is kept (default 5)</li>
+ * <li>seed, cloudlets, vms: the workload (default 42, 200, 8)</li>
+ * <li>power: true to simulate power hosts and report the energy (default false)</li>
+ * <li>update: true to overwrite the baseline with this run</li>
+ * </ul>
+ * If the baseline does not exist it is created. The process exits with status 1 when the gated
+ * policy regresses beyond a threshold, and 2 on errors.
+ */
+public class PolicyComparison {
+
+	/**
+	 * Runs the comparison.
+	 *
+	 * @param args key=value arguments
+	 */
+	public static void main(String[] args) {
+		Map<String, String> options = new LinkedHashMap<String, String>();
+		options.put("baseline", "policy-baseline.properties");
+		options.put("gate", BindingPolicy.SUFFRAGE.name());
+		options.put("threshold", "0.02");
+		options.put("runtimeThreshold", "0.5");
+		options.put("runtimeSlackMs", "5");
+		options.put("warmup", "2");
+		options.put("repetitions", "5");
+		options.put("seed", "42");
+		options.put("cloudlets", "200");
+		options.put("vms", "8");
+		options.put("power", "false");
+		options.put("update", "false");
+		for (String arg : args) {
+			int eq = arg.indexOf('=');
+			if (eq < 0 || !options.containsKey(arg.substring(0, eq))) {
+				System.err.println("Unknown argument " + arg + ", expected one of " + options.keySet());
+				System.exit(2);
+			}
+			options.put(arg.substring(0, eq), arg.substring(eq + 1));
+		}
+
+		try {
+			long seed = Long.parseLong(options.get("seed"));
+			int cloudlets = Integer.parseInt(options.get("cloudlets"));
+			int vms = Integer.parseInt(options.get("vms"));
+			BindingPolicy gate = BindingPolicy.valueOf(options.get("gate"));
+			boolean power = Boolean.parseBoolean(options.get("power"));
+			int warmup = Integer.parseInt(options.get("warmup"));
+			int repetitions = Integer.parseInt(options.get("repetitions"));
+			if (warmup < 0 || repetitions < 1) {
+				System.err.println("Expected warmup >= 0 and repetitions >= 1");
+				System.exit(2);
+			}
+
+			Properties current = new Properties();
+			current.setProperty("seed", String.valueOf(seed));
+			current.setProperty("cloudlets", String.valueOf(cloudlets));
+			current.setProperty("vms", String.valueOf(vms));
+
+			System.out.printf("%-12s %15s %18s %15s%s\n", "Policy", "Makespan", "Scheduling (ms)", "Cost",
+					power ? String.format(" %15s", "Energy (Wh)") : "");
+			for (BindingPolicy policy : BindingPolicy.values()) {
+				double[] result = measure(policy, seed, cloudlets, vms, power, warmup, repetitions);
+				current.setProperty(policy.name() + ".makespan", String.valueOf(result[0]));
+				current.setProperty(policy.name() + ".schedulingMs", String.valueOf(result[1]));
+				current.setProperty(policy.name() + ".cost", String.valueOf(result[2]));
+				if (power) {
+					current.setProperty(policy.name() + ".energy", String.valueOf(result[3]));
+				}
+				System.out.printf("%-12s %15.2f %18.3f %15.2f%s\n", policy.name(), result[0], result[1],
+						result[2], power ? String.format(" %15.2f", result[3] / 3600) : "");
+			}
+
+			File baselineFile = new File(options.get("baseline"));
+			if (!baselineFile.exists() || Boolean.parseBoolean(options.get("update"))) {
+				store(current, baselineFile);
+				System.out.println("Baseline written to " + baselineFile);
+				return;
+			}
+
+			Properties baseline = load(baselineFile);
+			for (String key : new String[] { "seed", "cloudlets", "vms" }) {
+				if (!current.getProperty(key).equals(baseline.getProperty(key))) {
+					System.err.println("Baseline " + baselineFile + " was taken with " + key + "="
+							+ baseline.getProperty(key) + ", not " + current.getProperty(key));
+					System.exit(2);
+				}
+			}
+			boolean regressed = check(gate.name() + ".makespan", current, baseline,
+					Double.parseDouble(options.get("threshold")), 0.0);
+			regressed |= check(gate.name() + ".schedulingMs", current, baseline,
+					Double.parseDouble(options.get("runtimeThreshold")),
+					Double.parseDouble(options.get("runtimeSlackMs")));
+			if (regressed) {
+				System.exit(1);
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+			System.exit(2);
+		}
+	}
+
+	/**
+	 * Runs one policy several times on fresh simulations.
+	 *
+	 * @param policy the binding policy
+	 * @param seed the workload seed
+	 * @param cloudlets the number of cloudlets
+	 * @param vms the number of vms
+	 * @param power true to build the datacenter from power hosts
+	 * @param warmup the number of runs before the timed ones, whose results are dropped
+	 * @param repetitions the number of timed runs
+	 * @return the results of the last run as {@link #run(BindingPolicy, long, int, int, boolean)}
+	 *         returns them, with the median scheduling time of the timed runs
+	 * @throws Exception if the simulation cannot be set up
+	 */
+	public static double[] measure(BindingPolicy policy, long seed, int cloudlets, int vms, boolean power,
+			int warmup, int repetitions) throws Exception {
+		for (int i = 0; i < warmup; i++) {
+			run(policy, seed, cloudlets, vms, power);
+		}
+		double[] schedulingMs = new double[repetitions];
+		double[] result = null;
+		for (int i = 0; i < repetitions; i++) {
+			result = run(policy, seed, cloudlets, vms, power);
+			schedulingMs[i] = result[1];
+		}
+		Arrays.sort(schedulingMs);
+		result[1] = repetitions % 2 == 1 ? schedulingMs[repetitions / 2]
+				: (schedulingMs[repetitions / 2 - 1] + schedulingMs[repetitions / 2]) / 2;
+		return result;
+	}
+
+	/**
+	 * Runs one policy on a fresh simulation.
+	 *
+	 * @param policy the binding policy
+	 * @param seed the workload seed
+	 * @param cloudlets the number of cloudlets
+	 * @param vms the number of vms
+	 * @return the simulated makespan, the scheduling wall time in milliseconds, the processing
+	 *         cost of the cloudlets and 0, as no energy is measured
+	 * @throws Exception if the simulation cannot be set up
+	 */
+	public static double[] run(BindingPolicy policy, long seed, int cloudlets, int vms) throws Exception {
+		return run(policy, seed, cloudlets, vms, false);
+	}
+
+	/**
+	 * Runs one policy on a fresh simulation, optionally on power hosts.
+	 *
+	 * @param policy the binding policy
+	 * @param seed the workload seed
+	 * @param cloudlets the number of cloudlets
+	 * @param vms the number of vms
+	 * @param power true to build the datacenter from power hosts
+	 * @return the simulated makespan, the scheduling wall time in milliseconds, the processing
+	 *         cost of the cloudlets and the energy used by the datacenter in watt seconds (0
+	 *         without power hosts)
+	 * @throws Exception if the simulation cannot be set up
+	 */
+	public static double[] run(BindingPolicy policy, long seed, int cloudlets, int vms, boolean power)
+			throws Exception {
+		Log.disable();
+		try {
+			CloudSim.init(1, Calendar.getInstance(), false);
+			Datacenter datacenter = ExtendedExample.createDatacenter("Datacenter_0", vms, power);
+			DatacenterBroker broker = new DatacenterBroker("Broker");
+			broker.setVerbose(false);
+			broker.submitVmList(ExtendedExample.createVM(broker.getId(), vms, 0));
+			broker.submitCloudletList(createWorkload(broker.getId(), cloudlets, seed));
+
+			long startTime = System.nanoTime();
+			broker.bindCloudletsToVms(policy);
+			double schedulingMs = (System.nanoTime() - startTime) / 1e6;
+			long bindingNanos = broker.getBindingNanos();
+
+			CloudSim.startSimulation();
+			List<Cloudlet> received = broker.getCloudletReceivedList();
+			CloudSim.stopSimulation();
+			// the cost- and energy-aware bindings are deferred until the vms are created
+			schedulingMs += (broker.getBindingNanos() - bindingNanos) / 1e6;
+
+			double makespan = 0.0;
+			double cost = 0.0;
+			for (Cloudlet cloudlet : received) {
+				makespan = Math.max(makespan, cloudlet.getFinishTime());
+				cost += cloudlet.getProcessingCost();
+			}
+			double energy = power ? ((PowerDatacenter) datacenter).getPower() : 0.0;
+			return new double[] { makespan, schedulingMs, cost, energy };
+		} finally {
+			Log.enable();
+		}
+	}
+
+	/**
+	 * Creates a seeded workload of cloudlets with lengths uniformly drawn between 1000 and 20000
+	 * MI.
+	 *
+	 * @param userId the broker id
+	 * @param cloudlets the number of cloudlets
+	 * @param seed the seed
+	 * @return the cloudlets
+	 */
+	public static List<Cloudlet> createWorkload(int userId, int cloudlets, long seed) {
+		Random rand = new Random(seed);
+		UtilizationModel utilizationModel = new UtilizationModelFull();
+		List<Cloudlet> list = new ArrayList<Cloudlet>(cloudlets);
+		for (int i = 0; i < cloudlets; i++) {
+			Cloudlet cloudlet = new Cloudlet(i, 1000 + rand.nextInt(19001), 1, 300, 300, utilizationModel,
+					utilizationModel, utilizationModel);
+			cloudlet.setUserId(userId);
+			list.add(cloudlet);
+		}
+		return list;
+	}
+
+	/* compare one metric with the baseline; true if it regressed beyond both the threshold and the slack */
+	private static boolean check(String key, Properties current, Properties baseline, double threshold,
+			double slack) {
+		if (baseline.getProperty(key) == null) {
+			System.out.println(key + ": no baseline value");
+			return false;
+		}
+		double now = Double.parseDouble(current.getProperty(key));
+		double before = Double.parseDouble(baseline.getProperty(key));
+		double change = before == 0.0 ? 0.0 : (now - before) / before;
+		boolean regressed = change > threshold && now - before > slack;
+		System.out.printf("%s: %.3f vs baseline %.3f (%+.2f%%, threshold %.2f%%) %s\n", key, now, before,
+				change * 100, threshold * 100, regressed ? "REGRESSED" : "ok");
+		return regressed;
+	}
+
+	/* load a properties file */
+	private static Properties load(File file) throws IOException {
+		Properties properties = new Properties();
+		InputStream in = new FileInputStream(file);
+		try {
+			properties.load(in);
+		} finally {
+			in.close();
+		}
+		return properties;
+	}
+
+	/* store a properties file */
+	private static void store(Properties properties, File file) throws IOException {
+		OutputStream out = new FileOutputStream(file);
+		try {
+			properties.store(out, "PolicyComparison baseline");
+		} finally {
+			out.close();
+		}
+	}
+
+}
@@ -0,0 +1,343 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.examples;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.Vm;
+
+/**
+ * Suffrage scheduling when the cloudlet lengths are estimates with a known error distribution.
+ * <p>
+ * Candidate schedules are built with the risk-adjusted suffrage of
+ * {@link SuffrageScheduler#setRuntimeUncertainty(double[], double[], double)} for the risk factor
+ * asked for and a few multiples of it (0 being plain suffrage on the mean lengths). Every
+ * candidate is then run on the same Monte Carlo samples of the actual lengths with the
+ * {@link AnalyticalEvaluator}, the samples being spread over several threads, and the candidate
+ * with the smallest 95th percentile makespan is kept. Sample i always uses the seed seed + i, so
+ * the result does not depend on the number of threads.
+ * <p>
+ * A {@link SuffrageScheduler.Setup} gives the candidate schedulers the settings of the caller,
+ * such as the runtime correction and data affinity of a broker. The samples are then run with
+ * the runtime correction of the candidates too, but without the input staging.
+ */
+public class RobustScheduling {
+
+	/** The multiples of the risk factor the candidate schedules are built with. */
+	public static final double[] RISK_SCALES = { 0.0, 0.5, 1.0, 2.0 };
+
+	/** The quantile of the makespan the candidates are compared by. */
+	public static final double MAKESPAN_QUANTILE = 0.95;
+
+	/** A schedule with its makespan distribution. */
+	public static class Schedule {
+
+		/** The risk factor the schedule was built with. */
+		private final double riskFactor;
+
+		/** The mean makespan over the samples. */
+		private final double expectedMakespan;
+
+		/** The 95th percentile of the makespan over the samples. */
+		private final double p95Makespan;
+
+		/** The vm index of every cloudlet. */
+		private final int[] assignment;
+
+		Schedule(double riskFactor, double expectedMakespan, double p95Makespan, int[] assignment) {
+			this.riskFactor = riskFactor;
+			this.expectedMakespan = expectedMakespan;
+			this.p95Makespan = p95Makespan;
+			this.assignment = assignment;
+		}
+
+		/**
+		 * Gets the risk factor the schedule was built with.
+		 *
+		 * @return the number of standard deviations added to the mean completion times
+		 */
+		public double getRiskFactor() {
+			return riskFactor;
+		}
+
+		/**
+		 * Gets the mean makespan over the Monte Carlo samples.
+		 *
+		 * @return the expected makespan
+		 */
+		public double getExpectedMakespan() {
+			return expectedMakespan;
+		}
+
+		/**
+		 * Gets the 95th percentile of the makespan over the Monte Carlo samples.
+		 *
+		 * @return the p95 makespan
+		 */
+		public double getP95Makespan() {
+			return p95Makespan;
+		}
+
+		/**
+		 * Gets the vm index of every cloudlet, in list order.
+		 *
+		 * @return a copy of the assignment
+		 */
+		public int[] getAssignment() {
+			return assignment.clone();
+		}
+	}
+
+	/**
+	 * Gets the risk factor that makes mean + k * sigma a quantile of a normal completion time, to
+	 * schedule for a quantile rather than a number of standard deviations.
+	 *
+	 * @param quantile the quantile, e.g. 0.95
+	 * @return the risk factor, 0 for quantiles up to the median
+	 * @pre quantile > 0 && quantile < 1
+	 */
+	public static double riskFactorForQuantile(double quantile) {
+		return Math.max(0.0, LengthDistribution.normalQuantile(quantile));
+	}
+
+	/**
+	 * Builds the candidate schedules and keeps the one with the smallest p95 makespan.
+	 *
+	 * @param cloudletList the cloudlets, in FCFS order
+	 * @param vmList the vms
+	 * @param distributions the length distribution of the cloudlets, by cloudlet id; the length of
+	 *            the cloudlets without one is taken as exact
+	 * @param riskFactor the number of standard deviations added to the mean completion times
+	 * @param samples the number of Monte Carlo samples
+	 * @param threads the number of threads the samples are spread over
+	 * @param seed the seed of the first sample
+	 * @return the schedule
+	 * @throws InterruptedException if the calling thread is interrupted while waiting
+	 * @pre cloudletList != null && vmList.size() > 0 && samples > 0 && threads > 0
+	 * @post $none
+	 */
+	public static Schedule schedule(List<? extends Cloudlet> cloudletList, List<? extends Vm> vmList,
+			Map<Integer, LengthDistribution> distributions, double riskFactor, int samples, int threads,
+			long seed) throws InterruptedException {
+		return schedule(cloudletList, vmList, distributions, riskFactor, samples, threads, seed, null);
+	}
+
+	/**
+	 * Builds the candidate schedules with the given scheduler setup and keeps the one with the
+	 * smallest p95 makespan.
+	 *
+	 * @param cloudletList the cloudlets, in FCFS order
+	 * @param vmList the vms
+	 * @param distributions the length distribution of the cloudlets, by cloudlet id; the length of
+	 *            the cloudlets without one is taken as exact
+	 * @param riskFactor the number of standard deviations added to the mean completion times
+	 * @param samples the number of Monte Carlo samples
+	 * @param threads the number of threads the samples are spread over
+	 * @param seed the seed of the first sample
+	 * @param setup configures every candidate scheduler before its uncertainty is set, or null
+	 * @return the schedule
+	 * @throws InterruptedException if the calling thread is interrupted while waiting
+	 * @pre cloudletList != null && vmList.size() > 0 && samples > 0 && threads > 0
+	 * @post $none
+	 */
+	public static Schedule schedule(List<? extends Cloudlet> cloudletList, List<? extends Vm> vmList,
+			Map<Integer, LengthDistribution> distributions, double riskFactor, int samples, int threads,
+			long seed, SuffrageScheduler.Setup setup) throws InterruptedException {
+		Schedule best = null;
+		for (Schedule candidate : candidates(cloudletList, vmList, distributions, riskFactor, samples,
+				threads, seed, setup)) {
+			if (best == null || candidate.getP95Makespan() < best.getP95Makespan()
+					|| (candidate.getP95Makespan() == best.getP95Makespan()
+					&& candidate.getExpectedMakespan() < best.getExpectedMakespan())) {
+				best = candidate;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Builds and evaluates a candidate schedule for every multiple of the risk factor in
+	 * {@link #RISK_SCALES}.
+	 *
+	 * @param cloudletList the cloudlets, in FCFS order
+	 * @param vmList the vms
+	 * @param distributions the length distribution of the cloudlets, by cloudlet id; the length of
+	 *            the cloudlets without one is taken as exact
+	 * @param riskFactor the number of standard deviations added to the mean completion times
+	 * @param samples the number of Monte Carlo samples
+	 * @param threads the number of threads the samples are spread over
+	 * @param seed the seed of the first sample
+	 * @return the distinct candidate schedules, by increasing risk factor
+	 * @throws InterruptedException if the calling thread is interrupted while waiting
+	 * @pre cloudletList != null && vmList.size() > 0 && samples > 0 && threads > 0
+	 * @post $none
+	 */
+	public static List<Schedule> candidates(List<? extends Cloudlet> cloudletList,
+			List<? extends Vm> vmList, Map<Integer, LengthDistribution> distributions,
+			double riskFactor, int samples, int threads, long seed) throws InterruptedException {
+		return candidates(cloudletList, vmList, distributions, riskFactor, samples, threads, seed, null);
+	}
+
+	/**
+	 * Builds and evaluates a candidate schedule for every multiple of the risk factor in
+	 * {@link #RISK_SCALES}, every candidate scheduler being configured by the given setup.
+	 *
+	 * @param cloudletList the cloudlets, in FCFS order
+	 * @param vmList the vms
+	 * @param distributions the length distribution of the cloudlets, by cloudlet id; the length of
+	 *            the cloudlets without one is taken as exact
+	 * @param riskFactor the number of standard deviations added to the mean completion times
+	 * @param samples the number of Monte Carlo samples
+	 * @param threads the number of threads the samples are spread over
+	 * @param seed the seed of the first sample
+	 * @param setup configures every candidate scheduler before its uncertainty is set, or null
+	 * @return the distinct candidate schedules, by increasing risk factor
+	 * @throws InterruptedException if the calling thread is interrupted while waiting
+	 * @pre cloudletList != null && vmList.size() > 0 && samples > 0 && threads > 0
+	 * @post $none
+	 */
+	public static List<Schedule> candidates(final List<? extends Cloudlet> cloudletList,
+			final List<? extends Vm> vmList, Map<Integer, LengthDistribution> distributions,
+			double riskFactor, final int samples, int threads, final long seed,
+			SuffrageScheduler.Setup setup) throws InterruptedException {
+		int rowNum = cloudletList.size();
+		int colNum = vmList.size();
+		final LengthDistribution[] distribution = new LengthDistribution[rowNum];
+		double[] meanEtc = new double[rowNum * colNum];
+		double[] etcVariance = new double[rowNum * colNum];
+		for (int row = 0; row < rowNum; row++) {
+			Cloudlet cloudlet = cloudletList.get(row);
+			LengthDistribution d = distributions.get(cloudlet.getCloudletId());
+			distribution[row] = d != null ? d : LengthDistribution.exact(cloudlet.getCloudletLength());
+			for (int col = 0; col < colNum; col++) {
+				double mips = vmList.get(col).getMips();
+				meanEtc[row * colNum + col] = distribution[row].getMean() / mips;
+				etcVariance[row * colNum + col] = distribution[row].getVariance() / (mips * mips);
+			}
+		}
+
+		// one suffrage schedule per risk factor, without duplicates
+		List<Double> riskFactors = new ArrayList<Double>();
+		final List<int[]> assignments = new ArrayList<int[]>();
+		double[] runtimeFactor = null;
+		for (double scale : RISK_SCALES) {
+			SuffrageScheduler scheduler = suffrage(cloudletList, vmList, meanEtc, etcVariance,
+					riskFactor * scale, setup);
+			if (setup != null && riskFactors.isEmpty()) {
+				// the setup gives every candidate the same correction
+				runtimeFactor = getRuntimeFactors(scheduler);
+			}
+			int[] assignment = new int[rowNum];
+			for (int row = 0; row < rowNum; row++) {
+				assignment[row] = scheduler.getAssignment(row);
+			}
+			boolean duplicate = false;
+			for (int[] other : assignments) {
+				duplicate |= Arrays.equals(other, assignment);
+			}
+			if (!duplicate) {
+				riskFactors.add(riskFactor * scale);
+				assignments.add(assignment);
+			}
+		}
+
+		// every thread evaluates every candidate on its share of the samples
+		final double[] sampleFactor = runtimeFactor;
+		final double[][] makespans = new double[assignments.size()][samples];
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		List<Future<?>> parts = new ArrayList<Future<?>>();
+		for (int t = 0; t < threads; t++) {
+			final int from = (int) ((long) samples * t / threads);
+			final int to = (int) ((long) samples * (t + 1) / threads);
+			parts.add(executor.submit(new Callable<Void>() {
+				@Override
+				public Void call() {
+					AnalyticalEvaluator evaluator = new AnalyticalEvaluator(cloudletList, vmList);
+					evaluator.setRuntimeFactors(sampleFactor);
+					double[] lengths = new double[distribution.length];
+					for (int sample = from; sample < to; sample++) {
+						Random rand = new Random(seed + sample);
+						for (int row = 0; row < lengths.length; row++) {
+							lengths[row] = distribution[row].sample(rand);
+						}
+						evaluator.setLengths(lengths);
+						for (int c = 0; c < makespans.length; c++) {
+							makespans[c][sample] = evaluator.evaluate(assignments.get(c), 0.0);
+						}
+					}
+					return null;
+				}
+			}));
+		}
+		try {
+			for (Future<?> part : parts) {
+				part.get();
+			}
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Monte Carlo evaluation failed", e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+
+		List<Schedule> candidates = new ArrayList<Schedule>();
+		for (int c = 0; c < makespans.length; c++) {
+			double[] sorted = makespans[c];
+			Arrays.sort(sorted);
+			double sum = 0.0;
+			for (double makespan : sorted) {
+				sum += makespan;
+			}
+			int p95 = Math.max(0, (int) Math.ceil(MAKESPAN_QUANTILE * samples) - 1);
+			candidates.add(new Schedule(riskFactors.get(c), sum / samples, sorted[p95], assignments.get(c)));
+		}
+		return candidates;
+	}
+
+	/* one risk-adjusted suffrage run, configured by the setup if any */
+	private static SuffrageScheduler suffrage(List<? extends Cloudlet> cloudletList,
+			List<? extends Vm> vmList, double[] meanEtc, double[] etcVariance, double riskFactor,
+			SuffrageScheduler.Setup setup) {
+		SuffrageScheduler scheduler = new SuffrageScheduler(cloudletList, vmList);
+		scheduler.setVerbose(false);
+		if (setup != null) {
+			setup.configure(scheduler, cloudletList, vmList);
+		}
+		scheduler.setRuntimeUncertainty(meanEtc, etcVariance, riskFactor);
+		while (!scheduler.isFinished()) {
+			scheduler.step();
+		}
+		return scheduler;
+	}
+
+	/* the runtime correction of a scheduler on every cell, row-major; null if it has none */
+	private static double[] getRuntimeFactors(SuffrageScheduler scheduler) {
+		int rowNum = scheduler.getRowNum();
+		int colNum = scheduler.getColNum();
+		double[] factor = new double[rowNum * colNum];
+		boolean corrected = false;
+		for (int row = 0; row < rowNum; row++) {
+			for (int col = 0; col < colNum; col++) {
+				factor[row * colNum + col] = scheduler.getRuntimeCorrection(row, col);
+				corrected |= factor[row * colNum + col] != 1.0;
+			}
+		}
+		return corrected ? factor : null;
+	}
+
+}
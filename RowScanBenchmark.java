@@ -0,0 +1,130 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.examples;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Measures the time per row of the scalar {@link RowScanKernel} and of the SIMD kernel (run
+ * with --add-modules jdk.incubator.vector), and checks that both find the same minimum column,
+ * minimum and maximum on every row. Rows are drawn from a few distinct values so that ties are
+ * frequent. Use it to decide whether to run the scheduler with -Dsuffrage.rowScan=vector.
+ * <p>
+ * Arguments are key=value pairs:
+ * <ul>
+ * <li>vms: comma-separated fleet sizes (default 256,512,1024,2048,4096)</li>
+ * <li>rows: the number of rows of the matrix (default 1024)</li>
+ * <li>millis: the measuring time per kernel and fleet size (default 500)</li>
+ * <li>seed: the seed of the matrix (default 42)</li>
+ * </ul>
+ * The process exits with status 1 if the kernels disagree, and 2 on errors.
+ */
+public class RowScanBenchmark {
+
+	/** Keeps the results alive so the scans are not optimized away. */
+	private static double sink;
+
+	/**
+	 * Runs the benchmark.
+	 *
+	 * @param args key=value arguments
+	 */
+	public static void main(String[] args) {
+		Map<String, String> options = new LinkedHashMap<String, String>();
+		options.put("vms", "256,512,1024,2048,4096");
+		options.put("rows", "1024");
+		options.put("millis", "500");
+		options.put("seed", "42");
+		for (String arg : args) {
+			int eq = arg.indexOf('=');
+			if (eq < 0 || !options.containsKey(arg.substring(0, eq))) {
+				System.err.println("Unknown argument " + arg + ", expected one of " + options.keySet());
+				System.exit(2);
+			}
+			options.put(arg.substring(0, eq), arg.substring(eq + 1));
+		}
+
+		try {
+			int rows = Integer.parseInt(options.get("rows"));
+			long millis = Long.parseLong(options.get("millis"));
+			long seed = Long.parseLong(options.get("seed"));
+			RowScanKernel scalar = new RowScanKernel();
+			RowScanKernel fast = RowScanKernel.createVector();
+			if (fast == null) {
+				System.err.println("The vector API is not available, run with --add-modules jdk.incubator.vector");
+				System.exit(2);
+			}
+			System.out.println("Kernel: " + fast.getName());
+			System.out.printf("%8s %16s %16s %10s\n", "VMs", "Scalar (ns/row)", "Kernel (ns/row)", "Speedup");
+			boolean mismatch = false;
+			for (String size : options.get("vms").split(",")) {
+				int colNum = Integer.parseInt(size.trim());
+				Random rand = new Random(seed);
+				double[] score = new double[rows * colNum];
+				double[] readyTime = new double[colNum];
+				double[] externalDelay = new double[colNum];
+				for (int i = 0; i < score.length; i++) {
+					score[i] = rand.nextInt(64) / 4.0;
+				}
+				for (int col = 0; col < colNum; col++) {
+					readyTime[col] = rand.nextInt(16);
+				}
+
+				for (int row = 0; row < rows; row++) {
+					scalar.scan(score, row * colNum, readyTime, externalDelay, colNum);
+					fast.scan(score, row * colNum, readyTime, externalDelay, colNum);
+					if (scalar.getMinIndex() != fast.getMinIndex() || scalar.getMin() != fast.getMin()
+							|| scalar.getMax() != fast.getMax()) {
+						System.err.println("Kernels disagree on row " + row + " of " + colNum + " vms: column "
+								+ scalar.getMinIndex() + " vs " + fast.getMinIndex());
+						mismatch = true;
+						break;
+					}
+				}
+
+				double scalarNanos = measure(scalar, score, readyTime, externalDelay, rows, colNum, millis);
+				double fastNanos = measure(fast, score, readyTime, externalDelay, rows, colNum, millis);
+				System.out.printf("%8d %16.1f %16.1f %9.2fx\n", colNum, scalarNanos, fastNanos, scalarNanos
+						/ fastNanos);
+			}
+			if (sink == 42.0) {
+				System.out.println();
+			}
+			if (mismatch) {
+				System.exit(1);
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+			System.exit(2);
+		}
+	}
+
+	/* the mean time of one row scan, after a warm-up of the same length */
+	private static double measure(RowScanKernel kernel, double[] score, double[] readyTime,
+			double[] externalDelay, int rows, int colNum, long millis) {
+		long scans = 0;
+		long start = 0;
+		for (int pass = 0; pass < 2; pass++) {
+			scans = 0;
+			start = System.nanoTime();
+			long deadline = start + millis * 1000000L;
+			do {
+				for (int row = 0; row < rows; row++) {
+					kernel.scan(score, row * colNum, readyTime, externalDelay, colNum);
+					sink += kernel.getMin();
+				}
+				scans += rows;
+			} while (System.nanoTime() < deadline);
+		}
+		return (double) (System.nanoTime() - start) / scans;
+	}
+
+}
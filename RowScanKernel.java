@@ -0,0 +1,173 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.examples;
+
+/**
+ * The row scan of the suffrage engine: over the completion times score[base + col] +
+ * readyTime[col] + externalDelay[col] of one row, finds the smallest one with its column and the
+ * largest one. The smallest gives the candidate vm of the row and the difference with the largest
+ * gives its suffrage.
+ * <p>
+ * This class is the scalar kernel. VectorRowScanKernel is a SIMD kernel which needs the
+ * jdk.incubator.vector module; its source is kept apart, in the vector directory, so that the
+ * default build does not need the module. Whether it beats the scalar loop depends on the JVM and
+ * the CPU (run {@link RowScanBenchmark} to find out), so {@link #create()} only returns it when
+ * the system property suffrage.rowScan is set to "vector", the kernel was built and the module is
+ * present, and the scalar kernel otherwise. Both return the first column holding the smallest completion time, so the
+ * schedules do not depend on the kernel.
+ * <p>
+ * A kernel keeps the result of its last scan and must not be shared between threads.
+ */
+public class RowScanKernel {
+
+	/** The system property selecting the kernel: "scalar" (the default) or "vector". */
+	public static final String KERNEL_PROPERTY = "suffrage.rowScan";
+
+	/** The class name of the SIMD kernel, loaded by reflection so this class needs no module. */
+	private static final String VECTOR_KERNEL = "org.cloudbus.cloudsim.examples.VectorRowScanKernel";
+
+	/** The SIMD kernel class, null if it could not be loaded; set on first use. */
+	private static Class<? extends RowScanKernel> vectorKernel;
+
+	/** Whether the SIMD kernel class was looked up. */
+	private static boolean vectorKernelLoaded;
+
+	/** The smallest completion time of the last scan. */
+	protected double min;
+
+	/** The first column holding the smallest completion time of the last scan. */
+	protected int minIndex;
+
+	/** The largest completion time of the last scan. */
+	protected double max;
+
+	/**
+	 * Creates a scalar kernel.
+	 */
+	public RowScanKernel() {
+	}
+
+	/**
+	 * Creates the kernel selected by the suffrage.rowScan system property: the SIMD kernel for
+	 * "vector" if the jdk.incubator.vector module is present (run with --add-modules
+	 * jdk.incubator.vector), the scalar kernel otherwise.
+	 *
+	 * @return a new kernel
+	 */
+	public static RowScanKernel create() {
+		if ("vector".equals(System.getProperty(KERNEL_PROPERTY))) {
+			RowScanKernel kernel = createVector();
+			if (kernel != null) {
+				return kernel;
+			}
+		}
+		return new RowScanKernel();
+	}
+
+	/**
+	 * Creates a SIMD kernel.
+	 *
+	 * @return a new SIMD kernel, or null if it was not built or the jdk.incubator.vector module is
+	 *         not available
+	 */
+	public static RowScanKernel createVector() {
+		Class<? extends RowScanKernel> kernelClass = getVectorKernel();
+		if (kernelClass != null) {
+			try {
+				return kernelClass.getDeclaredConstructor().newInstance();
+			} catch (Exception e) {
+				// the class was instantiated once already, this does not happen
+			}
+		}
+		return null;
+	}
+
+	/* the SIMD kernel class, looked up once */
+	private static synchronized Class<? extends RowScanKernel> getVectorKernel() {
+		if (!vectorKernelLoaded) {
+			vectorKernelLoaded = true;
+			try {
+				Class<? extends RowScanKernel> kernelClass = Class.forName(VECTOR_KERNEL).asSubclass(
+						RowScanKernel.class);
+				// initializing the class links the vector API, which fails without the module
+				kernelClass.getDeclaredConstructor().newInstance();
+				vectorKernel = kernelClass;
+			} catch (Throwable e) {
+				vectorKernel = null;
+			}
+		}
+		return vectorKernel;
+	}
+
+	/**
+	 * Scans a row.
+	 *
+	 * @param score the score matrix, row-major
+	 * @param base the index of the first cell of the row
+	 * @param readyTime the ready time of every column
+	 * @param externalDelay the delay caused by other tenants on every column
+	 * @param colNum the number of columns
+	 * @pre colNum > 0
+	 * @post $none
+	 */
+	public void scan(double[] score, int base, double[] readyTime, double[] externalDelay, int colNum) {
+		int colIndexOfMin = 0;
+		double smallest = score[base] + readyTime[0] + externalDelay[0];
+		double largest = smallest;
+		for (int col = 1; col < colNum; col++) {
+			double current = score[base + col] + readyTime[col] + externalDelay[col];
+			if (current < smallest) {
+				colIndexOfMin = col;
+				smallest = current;
+			} else if (current > largest) {
+				largest = current;
+			}
+		}
+		min = smallest;
+		minIndex = colIndexOfMin;
+		max = largest;
+	}
+
+	/**
+	 * Gets the smallest completion time of the last scan.
+	 *
+	 * @return the minimum
+	 */
+	public double getMin() {
+		return min;
+	}
+
+	/**
+	 * Gets the first column holding the smallest completion time of the last scan.
+	 *
+	 * @return the column of the minimum
+	 */
+	public int getMinIndex() {
+		return minIndex;
+	}
+
+	/**
+	 * Gets the largest completion time of the last scan.
+	 *
+	 * @return the maximum
+	 */
+	public double getMax() {
+		return max;
+	}
+
+	/**
+	 * Gets a short description of the kernel.
+	 *
+	 * @return the kernel name
+	 */
+	public String getName() {
+		return "scalar";
+	}
+
+}
@@ -0,0 +1,313 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.examples;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.Vm;
+
+/**
+ * A learned correction of the runtime estimates of the suffrage engine. The engine predicts the
+ * execution time of a cloudlet on a vm as length / mips, which misses the PEs, utilization models
+ * and contention of the actual run. This model keeps, for every cloudlet class and vm type, a
+ * correction factor: the smoothed ratio of the actual CPU time of the returned cloudlets to
+ * their prediction. The ETC of the engine is multiplied by it (see
+ * {@link SuffrageScheduler#setRuntimeCorrection(int[], int[], double[][])}).
+ * <p>
+ * A cloudlet class is its number of PEs and the power of two below its length; a vm type is its
+ * MIPS rating and number of PEs. The model holds one factor and one count per pair seen, so it
+ * stays small however long it learns. A factor is the mean of the ratios while it has fewer than
+ * 1 / smoothing observations, and an exponential moving average after that, so it follows a
+ * drifting fleet.
+ * <p>
+ * {@link #write(File)} and {@link #read(File)} keep the model between runs; the file is first
+ * written next to the target and then moved over it. The methods are synchronized, as the
+ * pipelined binding reads the factors on its own thread while the broker learns.
+ *
+ * @see DatacenterBroker#setRuntimeModel(RuntimeModel)
+ */
+public class RuntimeModel {
+
+	/** The file magic number, "SURM". */
+	private static final int MAGIC = 0x5355524D;
+
+	/** The format version. */
+	private static final int VERSION = 1;
+
+	/** The default weight of a new observation once a factor has enough of them. */
+	public static final double DEFAULT_SMOOTHING = 0.05;
+
+	/** The correction factor and observation count of a cloudlet class on a vm type. */
+	private static class Entry {
+
+		/** The smoothed ratio of actual to predicted runtime. */
+		double factor = 1.0;
+
+		/** The number of observations. */
+		long count;
+
+	}
+
+	/** The entries, by cloudlet class and vm type. */
+	private final Map<String, Entry> entries = new TreeMap<String, Entry>();
+
+	/** The weight of a new observation once a factor has enough of them. */
+	private final double smoothing;
+
+	/** The number of observations since the model was created or read. */
+	private long observations;
+
+	/** The sum of the relative errors of the corrected predictions of those observations. */
+	private double relativeErrorSum;
+
+	/** The sum of the relative errors of the uncorrected predictions of those observations. */
+	private double nominalErrorSum;
+
+	/**
+	 * Creates an empty model with the default smoothing.
+	 */
+	public RuntimeModel() {
+		this(DEFAULT_SMOOTHING);
+	}
+
+	/**
+	 * Creates an empty model.
+	 *
+	 * @param smoothing the weight of a new observation once a factor has 1 / smoothing of them
+	 * @throws IllegalArgumentException if the smoothing is not in (0, 1]
+	 */
+	public RuntimeModel(double smoothing) {
+		if (smoothing <= 0.0 || smoothing > 1.0) {
+			throw new IllegalArgumentException("Smoothing must be in (0, 1], got " + smoothing);
+		}
+		this.smoothing = smoothing;
+	}
+
+	/**
+	 * Gets the class of a cloudlet: its number of PEs and the power of two below its length.
+	 *
+	 * @param cloudlet the cloudlet
+	 * @return the cloudlet class
+	 */
+	public static String cloudletClass(Cloudlet cloudlet) {
+		return cloudlet.getNumberOfPes() + "pe-"
+				+ Long.highestOneBit(Math.max(1L, cloudlet.getCloudletLength()));
+	}
+
+	/**
+	 * Gets the type of a vm: its MIPS rating and number of PEs.
+	 *
+	 * @param vm the vm
+	 * @return the vm type
+	 */
+	public static String vmType(Vm vm) {
+		return vm.getMips() + "mips-" + vm.getNumberOfPes() + "pe";
+	}
+
+	/**
+	 * Gets the runtime the engine predicts for a cloudlet on a vm, before correction.
+	 *
+	 * @param cloudlet the cloudlet
+	 * @param vm the vm
+	 * @return length / mips
+	 */
+	public static double nominalRuntime(Cloudlet cloudlet, Vm vm) {
+		return cloudlet.getCloudletLength() / vm.getMips();
+	}
+
+	/**
+	 * Learns from a cloudlet that ran on a vm: moves the factor of its class and vm type towards
+	 * the ratio of its actual CPU time to its nominal runtime. Cloudlets without a positive CPU
+	 * time or nominal runtime are ignored.
+	 *
+	 * @param cloudlet the returned cloudlet
+	 * @param vm the vm it ran on
+	 * @pre cloudlet != null && vm != null
+	 * @post $none
+	 */
+	public synchronized void observe(Cloudlet cloudlet, Vm vm) {
+		double nominal = nominalRuntime(cloudlet, vm);
+		double actual = cloudlet.getActualCPUTime();
+		if (!(nominal > 0.0) || !(actual > 0.0)) {
+			return;
+		}
+		String key = cloudletClass(cloudlet) + " " + vmType(vm);
+		Entry entry = entries.get(key);
+		if (entry == null) {
+			entry = new Entry();
+			entries.put(key, entry);
+		}
+		observations++;
+		relativeErrorSum += Math.abs(nominal * entry.factor - actual) / actual;
+		nominalErrorSum += Math.abs(nominal - actual) / actual;
+		entry.count++;
+		double weight = Math.max(1.0 / entry.count, smoothing);
+		entry.factor += weight * (actual / nominal - entry.factor);
+	}
+
+	/**
+	 * Gets the correction factor of a cloudlet class on a vm type.
+	 *
+	 * @param cloudletClass the cloudlet class, see {@link #cloudletClass(Cloudlet)}
+	 * @param vmType the vm type, see {@link #vmType(Vm)}
+	 * @return the factor, 1 if the pair was never observed
+	 */
+	public synchronized double getFactor(String cloudletClass, String vmType) {
+		Entry entry = entries.get(cloudletClass + " " + vmType);
+		return entry == null ? 1.0 : entry.factor;
+	}
+
+	/**
+	 * Gets the number of observations of a cloudlet class on a vm type.
+	 *
+	 * @param cloudletClass the cloudlet class
+	 * @param vmType the vm type
+	 * @return the observation count, including those of the runs the model was read from
+	 */
+	public synchronized long getCount(String cloudletClass, String vmType) {
+		Entry entry = entries.get(cloudletClass + " " + vmType);
+		return entry == null ? 0 : entry.count;
+	}
+
+	/**
+	 * Gets the number of cloudlet class and vm type pairs the model holds.
+	 *
+	 * @return the number of factors
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Gets the number of observations since the model was created or read.
+	 *
+	 * @return the observation count
+	 */
+	public synchronized long getObservations() {
+		return observations;
+	}
+
+	/**
+	 * Gets the mean relative error |predicted - actual| / actual of the corrected predictions of
+	 * the observations since the model was created or read, each prediction taken with the factor
+	 * known before its observation.
+	 *
+	 * @return the mean relative error, 0 if nothing was observed
+	 */
+	public synchronized double getMeanRelativeError() {
+		return observations == 0 ? 0.0 : relativeErrorSum / observations;
+	}
+
+	/**
+	 * Gets the mean relative error of the uncorrected predictions length / mips of the same
+	 * observations, to compare with {@link #getMeanRelativeError()}.
+	 *
+	 * @return the mean relative error without correction, 0 if nothing was observed
+	 */
+	public synchronized double getMeanNominalError() {
+		return observations == 0 ? 0.0 : nominalErrorSum / observations;
+	}
+
+	/**
+	 * Writes the factors and counts to a file.
+	 *
+	 * @param file the file, replaced if it exists
+	 * @throws IOException if the file cannot be written
+	 * @pre file != null
+	 * @post $none
+	 */
+	public synchronized void write(File file) throws IOException {
+		File tmp = new File(file.getPath() + ".tmp");
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(entries.size());
+			for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+				out.writeUTF(entry.getKey());
+				out.writeDouble(entry.getValue().factor);
+				out.writeLong(entry.getValue().count);
+			}
+		} finally {
+			out.close();
+		}
+
+		try {
+			Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	/**
+	 * Reads a model written by {@link #write(File)}, with the default smoothing.
+	 *
+	 * @param file the file
+	 * @return the model
+	 * @throws IOException if the file cannot be read or is not a runtime model
+	 * @pre file != null
+	 * @post $none
+	 */
+	public static RuntimeModel read(File file) throws IOException {
+		return read(file, DEFAULT_SMOOTHING);
+	}
+
+	/**
+	 * Reads a model written by {@link #write(File)}.
+	 *
+	 * @param file the file
+	 * @param smoothing the weight of a new observation once a factor has 1 / smoothing of them
+	 * @return the model
+	 * @throws IOException if the file cannot be read or is not a runtime model
+	 * @pre file != null
+	 * @post $none
+	 */
+	public static RuntimeModel read(File file, double smoothing) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+		try {
+			if (in.readInt() != MAGIC) {
+				throw new IOException(file + " is not a runtime model");
+			}
+			int version = in.readInt();
+			if (version != VERSION) {
+				throw new IOException(file + " has unsupported runtime model version " + version);
+			}
+			RuntimeModel model = new RuntimeModel(smoothing);
+			int size = in.readInt();
+			for (int i = 0; i < size; i++) {
+				String key = in.readUTF();
+				Entry entry = new Entry();
+				entry.factor = in.readDouble();
+				entry.count = in.readLong();
+				if (!(entry.factor > 0.0) || entry.count < 0) {
+					throw new IOException(file + " has an invalid factor for " + key);
+				}
+				model.entries.put(key, entry);
+			}
+			return model;
+		} finally {
+			in.close();
+		}
+	}
+
+}
@@ -0,0 +1,590 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.examples;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.CloudletScheduler;
+import org.cloudbus.cloudsim.CloudletSchedulerSpaceShared;
+import org.cloudbus.cloudsim.CloudletSchedulerTimeShared;
+import org.cloudbus.cloudsim.Datacenter;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.UtilizationModel;
+import org.cloudbus.cloudsim.UtilizationModelFull;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.power.PowerDatacenter;
+import org.cloudbus.cloudsim.power.models.PowerModel;
+import org.cloudbus.cloudsim.power.models.PowerModelLinear;
+
+/**
+ * Runs one simulation described by a scenario file, without printing anything, and writes its
+ * results to a report file, so that what-if runs can be launched from scripts without editing
+ * and recompiling {@link ExtendedExample}.
+ * <p>
+ * Usage: ScenarioRunner scenario.properties [key=value ...]. The scenario is a properties file;
+ * the key=value arguments override its entries, which makes parameter sweeps a shell loop. Every
+ * key has a default, so an empty scenario runs 200 uniform cloudlets on 8 vms with suffrage:
+ * <ul>
+ * <li>seed: the seed of the generated workload (default 42)</li>
+ * <li>datacenters: comma-separated datacenter names (default dc0); for each name dc:
+ * <ul>
+ * <li>datacenter.dc.hosts: the number of hosts (default: one per vm)</li>
+ * <li>datacenter.dc.host.pes, .host.mips, .host.ram, .host.bw, .host.storage: the host
+ * (default 1, 1000, 2048, 10000, 1000000)</li>
+ * <li>datacenter.dc.hostGroups: host groups in the compact spec of
+ * {@link TopologyBuilder#addHostGroups(String)}, instead of the keys above; .interleaved: true
+ * to alternate the hosts of the groups (default false)</li>
+ * <li>datacenter.dc.power: true for power hosts with a linear power model of
+ * .host.maxPower watts and .host.staticPowerFraction idle (default false, 250, 0.7)</li>
+ * <li>datacenter.dc.cost, .costPerMem, .costPerStorage, .costPerBw: the prices (default 3.0,
+ * 0.05, 0.001, 0.0)</li>
+ * </ul>
+ * </li>
+ * <li>vms: comma-separated vm types (default vm); for each type t: vm.t.count, vm.t.mips,
+ * vm.t.pes, vm.t.ram, vm.t.bw, vm.t.size (default 8, 500, 1, 512, 1000, 10000) and
+ * vm.t.scheduler, spaceShared or timeShared (default spaceShared)</li>
+ * <li>workload: uniform or file (default uniform)
+ * <ul>
+ * <li>uniform: workload.cloudlets cloudlets with lengths drawn uniformly between
+ * workload.minLength and workload.maxLength MI (default 200, 1000, 20000)</li>
+ * <li>file: one cloudlet per line of workload.file, length[,pes[,fileSize[,outputSize]]]; blank
+ * lines and lines starting with # are skipped</li>
+ * <li>workload.pes, workload.fileSize, workload.outputSize: the defaults of every cloudlet
+ * (default 1, 300, 300)</li>
+ * <li>workload.lengthErrorCv: the coefficient of variation of the actual lengths around the
+ * given ones, see {@link LengthDistribution} (default 0)</li>
+ * <li>workload.dataSets: above 0, every cloudlet reads one of that many data sets of its file
+ * size, drawn with the seed, as its data-affinity key (see
+ * {@link DatacenterBroker#setDataAffinity(int, String)}); the report then has the transferVolume
+ * and crossVmTransferVolume of the binding (default 0)</li>
+ * <li>workload.coalesceThreshold: see {@link DatacenterBroker#coalesceCloudlets(long)} (default
+ * 0, no coalescing)</li>
+ * </ul>
+ * </li>
+ * <li>policy: a {@link BindingPolicy} name (default SUFFRAGE), with policy.costWeight,
+ * policy.energyMakespanThreshold, policy.riskFactor, policy.monteCarloSamples and
+ * policy.schedulingBudget (default: the broker's), and policy.pipelineWaveSize: above 0, a
+ * SUFFRAGE binding is pipelined in waves of that many cloudlets, see
+ * {@link DatacenterBroker#startPipelinedSuffrage(int, int)} (default 0)</li>
+ * <li>policy.runtimeModel: a {@link RuntimeModel} file correcting the ETC of the suffrage
+ * bindings, read if it exists and written back with what the run learned; the report then has
+ * the runtimeModel.factors, .observations, .meanError and .meanNominalError of the run (default
+ * none)</li>
+ * <li>output.report: the report file (default: the scenario file name ending in
+ * -report.properties)</li>
+ * <li>output.cloudlets and output.format: a {@link CloudletResultSink} file and its format, CSV
+ * or BINARY (default none, CSV)</li>
+ * <li>output.brokerLog: a file for the {@link BrokerLog} (default none)</li>
+ * <li>output.decisionLog: a file for the {@link DecisionLog} (default none)</li>
+ * </ul>
+ * Keys that are not used by the scenario are rejected, so that a misspelt key does not silently
+ * run the defaults. The process exits with status 0 once the report is written, and 2 on errors.
+ */
+public class ScenarioRunner {
+
+	/** The key of the report file, handled by {@link #main(String[])}. */
+	public static final String REPORT_KEY = "output.report";
+
+	/** The number of waves a pipelined binding may be ahead of the simulation. */
+	private static final int PIPELINE_QUEUE_CAPACITY = 4;
+
+	/** The size of the broker log ring buffer. */
+	private static final int BROKER_LOG_CAPACITY = 64 * 1024;
+
+	/** The scenario entries, with the keys read so far. */
+	private static class Scenario {
+
+		/** The entries. */
+		final Properties properties;
+
+		/** The keys read so far. */
+		final Set<String> used = new HashSet<String>();
+
+		Scenario(Properties properties) {
+			this.properties = properties;
+		}
+
+		String getString(String key, String defaultValue) {
+			used.add(key);
+			String value = properties.getProperty(key);
+			return value == null ? defaultValue : value.trim();
+		}
+
+		String[] getList(String key, String defaultValue) {
+			String[] values = getString(key, defaultValue).split(",");
+			for (int i = 0; i < values.length; i++) {
+				values[i] = values[i].trim();
+			}
+			return values;
+		}
+
+		int getInt(String key, int defaultValue) {
+			return (int) getLong(key, defaultValue);
+		}
+
+		long getLong(String key, long defaultValue) {
+			String value = getString(key, null);
+			try {
+				return value == null ? defaultValue : Long.parseLong(value);
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException("Scenario key " + key + " must be an integer, got " + value);
+			}
+		}
+
+		double getDouble(String key, double defaultValue) {
+			String value = getString(key, null);
+			try {
+				return value == null ? defaultValue : Double.parseDouble(value);
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException("Scenario key " + key + " must be a number, got " + value);
+			}
+		}
+
+		boolean getBoolean(String key, boolean defaultValue) {
+			String value = getString(key, null);
+			if (value == null) {
+				return defaultValue;
+			}
+			if (!value.equals("true") && !value.equals("false")) {
+				throw new IllegalArgumentException("Scenario key " + key + " must be true or false, got " + value);
+			}
+			return Boolean.parseBoolean(value);
+		}
+
+		/* the keys given but never read, sorted */
+		Set<String> getUnused() {
+			Set<String> unused = new TreeSet<String>(properties.stringPropertyNames());
+			unused.removeAll(used);
+			return unused;
+		}
+	}
+
+	/**
+	 * Runs a scenario file and writes its report.
+	 *
+	 * @param args the scenario file, then key=value overrides
+	 */
+	public static void main(String[] args) {
+		if (args.length == 0) {
+			System.err.println("Usage: ScenarioRunner scenario.properties [key=value ...]");
+			System.exit(2);
+		}
+		try {
+			File scenarioFile = new File(args[0]);
+			Properties scenario = load(scenarioFile);
+			for (int i = 1; i < args.length; i++) {
+				int eq = args[i].indexOf('=');
+				if (eq <= 0) {
+					System.err.println("Expected key=value, got " + args[i]);
+					System.exit(2);
+				}
+				scenario.setProperty(args[i].substring(0, eq), args[i].substring(eq + 1));
+			}
+
+			String name = scenarioFile.getName();
+			int dot = name.lastIndexOf('.');
+			File defaultReport = new File(scenarioFile.getAbsoluteFile().getParentFile(),
+					(dot > 0 ? name.substring(0, dot) : name) + "-report.properties");
+			File reportFile = new File(scenario.getProperty(REPORT_KEY, defaultReport.getPath()));
+			scenario.remove(REPORT_KEY);
+
+			Properties report = run(scenario);
+			report.setProperty("scenario", scenarioFile.getPath());
+			store(report, reportFile);
+		} catch (Exception e) {
+			e.printStackTrace();
+			System.exit(2);
+		}
+	}
+
+	/**
+	 * Runs a scenario on a fresh simulation, with the CloudSim log disabled.
+	 *
+	 * @param properties the scenario entries, see the class comment; output.report is ignored
+	 * @return the report: the makespan, the cloudlet counts, costs and mean times, the scheduling
+	 *         and simulation wall times, the latency quantiles and, on power hosts, the energy
+	 * @throws IllegalArgumentException if an entry is invalid or unused
+	 * @throws Exception if the simulation cannot be set up
+	 * @pre properties != null
+	 * @post $none
+	 */
+	public static Properties run(Properties properties) throws Exception {
+		Scenario scenario = new Scenario(properties);
+		long seed = scenario.getLong("seed", 42);
+		BindingPolicy policy = BindingPolicy.valueOf(scenario.getString("policy", BindingPolicy.SUFFRAGE.name()));
+
+		Log.disable();
+		DatacenterBroker broker = null;
+		try {
+			CloudSim.init(1, Calendar.getInstance(), false);
+			broker = new DatacenterBroker("Broker");
+			broker.setVerbose(false);
+			List<Vm> vms = createVms(scenario, broker.getId());
+			List<Cloudlet> cloudlets = createWorkload(scenario, broker.getId(), seed);
+			List<Datacenter> datacenters = createDatacenters(scenario, vms.size());
+			configureBroker(scenario, broker, cloudlets);
+
+			int pipelineWaveSize = scenario.getInt("policy.pipelineWaveSize", 0);
+			if (pipelineWaveSize > 0 && policy != BindingPolicy.SUFFRAGE) {
+				throw new IllegalArgumentException("Scenario key policy.pipelineWaveSize needs policy SUFFRAGE, got "
+						+ policy);
+			}
+			double lengthErrorCv = scenario.getDouble("workload.lengthErrorCv", 0.0);
+			String runtimeModelFile = scenario.getString("policy.runtimeModel", null);
+			int dataSets = scenario.getInt("workload.dataSets", 0);
+			long coalesceThreshold = scenario.getLong("workload.coalesceThreshold", 0);
+			Set<String> unused = scenario.getUnused();
+			if (!unused.isEmpty()) {
+				throw new IllegalArgumentException("Unknown or unused scenario keys " + unused);
+			}
+
+			if (lengthErrorCv > 0) {
+				for (Cloudlet cloudlet : cloudlets) {
+					broker.setLengthDistribution(cloudlet.getCloudletId(),
+							LengthDistribution.lognormal(cloudlet.getCloudletLength(), lengthErrorCv));
+				}
+			}
+			if (runtimeModelFile != null) {
+				File file = new File(runtimeModelFile);
+				broker.setRuntimeModel(file.exists() ? RuntimeModel.read(file) : new RuntimeModel());
+			}
+			if (dataSets > 0) {
+				Random rand = new Random(seed);
+				for (Cloudlet cloudlet : cloudlets) {
+					broker.setDataAffinity(cloudlet.getCloudletId(), "data-" + rand.nextInt(dataSets));
+				}
+			}
+			broker.submitVmList(vms);
+			broker.submitCloudletList(cloudlets);
+			if (coalesceThreshold > 0) {
+				broker.coalesceCloudlets(coalesceThreshold);
+			}
+
+			// a pipelined binding overlaps the simulation, so its scheduling time is only its start
+			long startTime = System.nanoTime();
+			if (pipelineWaveSize > 0) {
+				broker.startPipelinedSuffrage(pipelineWaveSize, PIPELINE_QUEUE_CAPACITY);
+			} else {
+				broker.bindCloudletsToVms(policy);
+			}
+			double schedulingMs = (System.nanoTime() - startTime) / 1e6;
+			long bindingNanos = broker.getBindingNanos();
+
+			startTime = System.nanoTime();
+			CloudSim.startSimulation();
+			CloudSim.stopSimulation();
+			double simulationMs = (System.nanoTime() - startTime) / 1e6;
+			if (pipelineWaveSize <= 0) {
+				// the cost- and energy-aware bindings run inside the simulation, once the vms exist
+				double deferredMs = (broker.getBindingNanos() - bindingNanos) / 1e6;
+				schedulingMs += deferredMs;
+				simulationMs -= deferredMs;
+			}
+
+			Properties report = new Properties();
+			report.setProperty("policy", policy.name());
+			report.setProperty("seed", String.valueOf(seed));
+			report.setProperty("vms", String.valueOf(vms.size()));
+			report.setProperty("cloudlets", String.valueOf(cloudlets.size()));
+			report.setProperty("schedulingMs", String.valueOf(schedulingMs));
+			report.setProperty("simulationMs", String.valueOf(simulationMs));
+			if (pipelineWaveSize > 0) {
+				report.setProperty("waves", String.valueOf(broker.getWavesSubmitted()));
+			}
+			if (dataSets > 0) {
+				report.setProperty("transferVolume", String.valueOf(broker.getTransferVolume()));
+				report.setProperty("crossVmTransferVolume", String.valueOf(broker.getCrossVmTransferVolume()));
+			}
+			if (runtimeModelFile != null) {
+				RuntimeModel runtimeModel = broker.getRuntimeModel();
+				runtimeModel.write(new File(runtimeModelFile));
+				report.setProperty("runtimeModel.factors", String.valueOf(runtimeModel.size()));
+				report.setProperty("runtimeModel.observations", String.valueOf(runtimeModel.getObservations()));
+				report.setProperty("runtimeModel.meanError", String.valueOf(runtimeModel.getMeanRelativeError()));
+				report.setProperty("runtimeModel.meanNominalError",
+						String.valueOf(runtimeModel.getMeanNominalError()));
+			}
+			reportCloudlets(broker, report);
+			reportLatencies(broker.getLatencyStats(), report);
+
+			double energy = 0.0;
+			boolean power = false;
+			for (Datacenter datacenter : datacenters) {
+				if (datacenter instanceof PowerDatacenter) {
+					energy += ((PowerDatacenter) datacenter).getPower();
+					power = true;
+				}
+			}
+			if (power) {
+				report.setProperty("energyWh", String.valueOf(energy / 3600));
+			}
+			return report;
+		} finally {
+			Log.enable();
+			if (broker != null) {
+				// shutdownEntity() already closed the sink, unless the simulation never ran
+				if (broker.getResultSink() != null) {
+					broker.getResultSink().close();
+				}
+				broker.getBrokerLog().close();
+			}
+		}
+	}
+
+	/* set the policy parameters and the outputs of the broker */
+	private static void configureBroker(Scenario scenario, DatacenterBroker broker, List<Cloudlet> cloudlets)
+			throws IOException {
+		broker.setCostWeight(scenario.getDouble("policy.costWeight", broker.getCostWeight()));
+		broker.setEnergyMakespanThreshold(scenario.getDouble("policy.energyMakespanThreshold",
+				broker.getEnergyMakespanThreshold()));
+		broker.setRiskFactor(scenario.getDouble("policy.riskFactor", broker.getRiskFactor()));
+		broker.setMonteCarloSamples(scenario.getInt("policy.monteCarloSamples", broker.getMonteCarloSamples()));
+		broker.setSchedulingBudget(scenario.getLong("policy.schedulingBudget", broker.getSchedulingBudget()));
+		broker.setLatencyStats(new CloudletLatencyStats());
+
+		String brokerLog = scenario.getString("output.brokerLog", null);
+		if (brokerLog != null) {
+			broker.setBrokerLog(new BrokerLog(new File(brokerLog), BROKER_LOG_CAPACITY));
+		} else {
+			broker.getBrokerLog().disableAll();
+		}
+		String decisionLog = scenario.getString("output.decisionLog", null);
+		if (decisionLog != null) {
+			broker.setDecisionLogFile(decisionLog);
+		}
+		String resultFile = scenario.getString("output.cloudlets", null);
+		CloudletResultSink.Format format = CloudletResultSink.Format.valueOf(scenario.getString("output.format",
+				CloudletResultSink.Format.CSV.name()));
+		if (resultFile != null) {
+			broker.setResultSink(new CloudletResultSink(new File(resultFile), format));
+		}
+	}
+
+	/* one vm group per vm type, with consecutive ids */
+	private static List<Vm> createVms(Scenario scenario, int userId) {
+		List<Vm> list = new ArrayList<Vm>();
+		for (String type : scenario.getList("vms", "vm")) {
+			String prefix = "vm." + type + ".";
+			int count = scenario.getInt(prefix + "count", 8);
+			double mips = scenario.getDouble(prefix + "mips", 500);
+			int pes = scenario.getInt(prefix + "pes", 1);
+			int ram = scenario.getInt(prefix + "ram", 512);
+			long bw = scenario.getLong(prefix + "bw", 1000);
+			long size = scenario.getLong(prefix + "size", 10000);
+			String scheduler = scenario.getString(prefix + "scheduler", "spaceShared");
+			if (!scheduler.equals("spaceShared") && !scheduler.equals("timeShared")) {
+				throw new IllegalArgumentException("Scenario key " + prefix
+						+ "scheduler must be spaceShared or timeShared, got " + scheduler);
+			}
+			for (int i = 0; i < count; i++) {
+				CloudletScheduler cloudletScheduler = scheduler.equals("timeShared") ? new CloudletSchedulerTimeShared()
+						: new CloudletSchedulerSpaceShared();
+				list.add(new Vm(list.size(), userId, mips, pes, ram, bw, size, "Xen", cloudletScheduler));
+			}
+		}
+		return list;
+	}
+
+	/* the cloudlets of the workload source */
+	private static List<Cloudlet> createWorkload(Scenario scenario, int userId, long seed) throws IOException {
+		String source = scenario.getString("workload", "uniform");
+		int pes = scenario.getInt("workload.pes", 1);
+		long fileSize = scenario.getLong("workload.fileSize", 300);
+		long outputSize = scenario.getLong("workload.outputSize", 300);
+		UtilizationModel utilizationModel = new UtilizationModelFull();
+		List<Cloudlet> list = new ArrayList<Cloudlet>();
+
+		if (source.equals("uniform")) {
+			int cloudlets = scenario.getInt("workload.cloudlets", 200);
+			long minLength = scenario.getLong("workload.minLength", 1000);
+			long maxLength = scenario.getLong("workload.maxLength", 20000);
+			if (minLength <= 0 || maxLength < minLength) {
+				throw new IllegalArgumentException("Scenario keys workload.minLength and workload.maxLength must "
+						+ "satisfy 0 < min <= max, got " + minLength + " and " + maxLength);
+			}
+			Random rand = new Random(seed);
+			for (int i = 0; i < cloudlets; i++) {
+				long length = minLength + (long) (rand.nextDouble() * (maxLength - minLength + 1));
+				list.add(new Cloudlet(i, length, pes, fileSize, outputSize, utilizationModel, utilizationModel,
+						utilizationModel));
+			}
+		} else if (source.equals("file")) {
+			String file = scenario.getString("workload.file", null);
+			if (file == null) {
+				throw new IllegalArgumentException("Scenario key workload.file is required by workload=file");
+			}
+			BufferedReader reader = new BufferedReader(new FileReader(file));
+			try {
+				String line;
+				int lineNumber = 0;
+				while ((line = reader.readLine()) != null) {
+					lineNumber++;
+					line = line.trim();
+					if (line.isEmpty() || line.startsWith("#")) {
+						continue;
+					}
+					String[] fields = line.split(",");
+					try {
+						long length = Long.parseLong(fields[0].trim());
+						int cloudletPes = fields.length > 1 ? Integer.parseInt(fields[1].trim()) : pes;
+						long cloudletFileSize = fields.length > 2 ? Long.parseLong(fields[2].trim()) : fileSize;
+						long cloudletOutputSize = fields.length > 3 ? Long.parseLong(fields[3].trim()) : outputSize;
+						list.add(new Cloudlet(list.size(), length, cloudletPes, cloudletFileSize, cloudletOutputSize,
+								utilizationModel, utilizationModel, utilizationModel));
+					} catch (NumberFormatException e) {
+						throw new IllegalArgumentException(file + ":" + lineNumber
+								+ ": expected length[,pes[,fileSize[,outputSize]]], got " + line);
+					}
+				}
+			} finally {
+				reader.close();
+			}
+		} else {
+			throw new IllegalArgumentException("Scenario key workload must be uniform or file, got " + source);
+		}
+
+		for (Cloudlet cloudlet : list) {
+			cloudlet.setUserId(userId);
+		}
+		return list;
+	}
+
+	/* one datacenter per name, built by host groups */
+	private static List<Datacenter> createDatacenters(Scenario scenario, int vmNum) throws Exception {
+		List<Datacenter> datacenters = new ArrayList<Datacenter>();
+		for (String name : scenario.getList("datacenters", "dc0")) {
+			String prefix = "datacenter." + name + ".";
+			boolean power = scenario.getBoolean(prefix + "power", false);
+			PowerModel powerModel = null;
+			if (power) {
+				powerModel = new PowerModelLinear(scenario.getDouble(prefix + "host.maxPower", 250),
+						scenario.getDouble(prefix + "host.staticPowerFraction", 0.7));
+			}
+
+			TopologyBuilder topology = new TopologyBuilder();
+			String hostGroups = scenario.getString(prefix + "hostGroups", null);
+			if (hostGroups != null) {
+				topology.addPowerHostGroups(hostGroups, powerModel);
+			} else {
+				topology.addPowerHostGroup(scenario.getInt(prefix + "hosts", vmNum),
+						scenario.getInt(prefix + "host.pes", 1), scenario.getInt(prefix + "host.mips", 1000),
+						scenario.getInt(prefix + "host.ram", 2048), scenario.getLong(prefix + "host.bw", 10000),
+						scenario.getLong(prefix + "host.storage", 1000000), powerModel);
+			}
+			topology.setInterleaved(scenario.getBoolean(prefix + "interleaved", false));
+			topology.setPrices(scenario.getDouble(prefix + "cost", 3.0), scenario.getDouble(prefix + "costPerMem",
+					0.05), scenario.getDouble(prefix + "costPerStorage", 0.001), scenario.getDouble(prefix
+					+ "costPerBw", 0.0));
+			datacenters.add(topology.build(name));
+		}
+		return datacenters;
+	}
+
+	/* the cloudlet aggregates, from the result sink if the broker did not keep the cloudlets */
+	private static void reportCloudlets(DatacenterBroker broker, Properties report) {
+		CloudletResultSink sink = broker.getResultSink();
+		long returned;
+		long succeeded;
+		double makespan;
+		double cost;
+		double cpuTime;
+		double waitingTime;
+		double responseTime;
+		if (sink != null) {
+			returned = sink.getCount();
+			succeeded = sink.getSuccessCount();
+			makespan = sink.getMakespan();
+			cost = sink.getTotalCost();
+			cpuTime = sink.getMeanCpuTime();
+			waitingTime = sink.getMeanWaitingTime();
+			responseTime = sink.getMeanResponseTime();
+		} else {
+			List<Cloudlet> received = broker.getCloudletReceivedList();
+			returned = received.size();
+			succeeded = 0;
+			makespan = 0.0;
+			cost = 0.0;
+			cpuTime = 0.0;
+			waitingTime = 0.0;
+			responseTime = 0.0;
+			for (Cloudlet cloudlet : received) {
+				if (cloudlet.getCloudletStatus() == Cloudlet.SUCCESS) {
+					succeeded++;
+				}
+				makespan = Math.max(makespan, cloudlet.getFinishTime());
+				cost += cloudlet.getProcessingCost();
+				cpuTime += cloudlet.getActualCPUTime();
+				waitingTime += cloudlet.getWaitingTime();
+				responseTime += cloudlet.getFinishTime() - cloudlet.getSubmissionTime();
+			}
+			if (returned > 0) {
+				cpuTime /= returned;
+				waitingTime /= returned;
+				responseTime /= returned;
+			}
+		}
+		report.setProperty("cloudletsReturned", String.valueOf(returned));
+		report.setProperty("cloudletsSucceeded", String.valueOf(succeeded));
+		report.setProperty("makespan", String.valueOf(makespan));
+		report.setProperty("totalCost", String.valueOf(cost));
+		report.setProperty("meanCpuTime", String.valueOf(cpuTime));
+		report.setProperty("meanWaitingTime", String.valueOf(waitingTime));
+		report.setProperty("meanResponseTime", String.valueOf(responseTime));
+	}
+
+	/* p50, p99 and p99.9 of every latency metric */
+	private static void reportLatencies(CloudletLatencyStats stats, Properties report) {
+		for (CloudletLatencyStats.Metric metric : CloudletLatencyStats.Metric.values()) {
+			String prefix = "latency." + metric.name() + ".";
+			report.setProperty(prefix + "p50", String.valueOf(stats.getQuantile(metric, 0.5)));
+			report.setProperty(prefix + "p99", String.valueOf(stats.getQuantile(metric, 0.99)));
+			report.setProperty(prefix + "p999", String.valueOf(stats.getQuantile(metric, 0.999)));
+		}
+	}
+
+	/* load a properties file */
+	private static Properties load(File file) throws IOException {
+		Properties properties = new Properties();
+		InputStream in = new FileInputStream(file);
+		try {
+			properties.load(in);
+		} finally {
+			in.close();
+		}
+		return properties;
+	}
+
+	/* store a properties file */
+	private static void store(Properties properties, File file) throws IOException {
+		OutputStream out = new FileOutputStream(file);
+		try {
+			properties.store(out, "ScenarioRunner report");
+		} finally {
+			out.close();
+		}
+	}
+
+}
@@ -0,0 +1,270 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.examples;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.Vm;
+
+/**
+ * Improves a schedule with simulated annealing, running one independent annealing chain per
+ * thread from the same starting schedule (normally the suffrage assignment) and keeping the best
+ * schedule found.
+ * <p>
+ * Schedules are evaluated with the completion time model of {@link SuffrageScheduler}: the load
+ * of a vm is its initial ready time plus the sum of the ETC of its cloudlets, and the makespan is
+ * the largest load. The ETC is length / mips, or the effective ETC the caller gives, such as one
+ * corrected by a {@link RuntimeModel}. The ETC matrix is kept row-major in a primitive array and
+ * each chain keeps its vm loads, so a move (one cloudlet to another vm) or a swap (two cloudlets
+ * exchange vms) is evaluated in O(vms) without rescanning the schedule.
+ * <p>
+ * The loads add up, so the model does not fit the schedules whose completion times depend on
+ * which cloudlets share a vm: time-shared vms, input staging with data affinity, or vms shared
+ * with other tenants.
+ * <p>
+ * The search stops when the time budget is spent or when any chain reaches the target makespan.
+ */
+public class ScheduleOptimizer {
+
+	/** The number of moves between two checks of the time budget. */
+	private static final int CHECK_INTERVAL = 1024;
+
+	/** The number of moves between two recomputations of the loads, to drop rounding drift. */
+	private static final int RESYNC_INTERVAL = CHECK_INTERVAL * 1024;
+
+	/** The number of rows (cloudlets). */
+	private final int rowNum;
+
+	/** The number of columns (vms). */
+	private final int colNum;
+
+	/** The ETC matrix, row-major: etc[row * colNum + col] = length / mips unless given. */
+	private final double[] etc;
+
+	/** The ready time every vm starts at. */
+	private final double[] readyTime;
+
+	/** Set when a chain reaches the target makespan, to stop the others. */
+	private volatile boolean targetReached;
+
+	/**
+	 * Creates a new optimizer for the given cloudlets and vms.
+	 *
+	 * @param cloudletList the cloudlets, in the order of the assignment arrays
+	 * @param vmList the vms, in the order of the vm indices of the assignment arrays
+	 * @pre cloudletList != null && vmList != null && vmList.size() > 0
+	 * @post $none
+	 */
+	public ScheduleOptimizer(List<? extends Cloudlet> cloudletList, List<? extends Vm> vmList) {
+		this(getEtc(cloudletList, vmList), new double[vmList.size()]);
+	}
+
+	/**
+	 * Creates a new optimizer for an effective ETC matrix and the ready times the vms start at.
+	 *
+	 * @param etc the ETC of every cloudlet on every vm, row-major: etc[row * vms + col]
+	 * @param readyTime the ready time of every vm
+	 * @throws IllegalArgumentException if there are no vms or the ETC is not a whole number of
+	 *             rows
+	 * @pre etc != null && readyTime != null
+	 * @post $none
+	 */
+	public ScheduleOptimizer(double[] etc, double[] readyTime) {
+		if (readyTime.length == 0 || etc.length % readyTime.length != 0) {
+			throw new IllegalArgumentException("ETC of " + etc.length + " cells does not fit "
+					+ readyTime.length + " vms");
+		}
+		colNum = readyTime.length;
+		rowNum = etc.length / colNum;
+		this.etc = etc.clone();
+		this.readyTime = readyTime.clone();
+	}
+
+	/* the length / mips ETC of the cloudlets on the vms, row-major */
+	private static double[] getEtc(List<? extends Cloudlet> cloudletList, List<? extends Vm> vmList) {
+		int colNum = vmList.size();
+		double[] etc = new double[cloudletList.size() * colNum];
+		for (int row = 0; row < cloudletList.size(); row++) {
+			long length = cloudletList.get(row).getCloudletLength();
+			for (int col = 0; col < colNum; col++) {
+				etc[row * colNum + col] = length / vmList.get(col).getMips();
+			}
+		}
+		return etc;
+	}
+
+	/**
+	 * Computes the makespan of a schedule.
+	 *
+	 * @param assignment the vm index of every cloudlet
+	 * @return the largest vm load
+	 */
+	public double makespan(int[] assignment) {
+		return max(loads(assignment));
+	}
+
+	/* the load of every vm under a schedule */
+	private double[] loads(int[] assignment) {
+		double[] load = readyTime.clone();
+		for (int row = 0; row < rowNum; row++) {
+			load[assignment[row]] += etc[row * colNum + assignment[row]];
+		}
+		return load;
+	}
+
+	/* the largest element of an array */
+	private static double max(double[] values) {
+		double max = 0.0;
+		for (double value : values) {
+			if (value > max) {
+				max = value;
+			}
+		}
+		return max;
+	}
+
+	/**
+	 * Searches for a schedule with a smaller makespan.
+	 *
+	 * @param initial the starting schedule, the vm index of every cloudlet
+	 * @param timeBudgetMillis the wall time the search may take
+	 * @param targetMakespan the search stops as soon as a schedule this good is found; 0 to use the
+	 *            whole time budget
+	 * @param threads the number of annealing chains run in parallel
+	 * @param seed the seed of the first chain; chain i uses seed + i
+	 * @return the best schedule found, which is the initial one if nothing better was found
+	 * @throws InterruptedException if the calling thread is interrupted while waiting
+	 * @pre initial.length == cloudlets && timeBudgetMillis >= 0 && threads > 0
+	 * @post $none
+	 */
+	public int[] optimize(final int[] initial, final long timeBudgetMillis, final double targetMakespan,
+			int threads, long seed) throws InterruptedException {
+		if (rowNum == 0 || colNum < 2) {
+			return initial.clone();
+		}
+		targetReached = false;
+		final long deadline = System.nanoTime() + timeBudgetMillis * 1000000L;
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		List<Future<int[]>> chains = new ArrayList<Future<int[]>>();
+		for (int i = 0; i < threads; i++) {
+			final long chainSeed = seed + i;
+			chains.add(executor.submit(new Callable<int[]>() {
+				@Override
+				public int[] call() {
+					return anneal(initial, deadline, timeBudgetMillis, targetMakespan, chainSeed);
+				}
+			}));
+		}
+
+		int[] best = initial.clone();
+		double bestMakespan = makespan(best);
+		try {
+			for (Future<int[]> chain : chains) {
+				int[] candidate = chain.get();
+				double candidateMakespan = makespan(candidate);
+				if (candidateMakespan < bestMakespan) {
+					best = candidate;
+					bestMakespan = candidateMakespan;
+				}
+			}
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Annealing chain failed", e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+		return best;
+	}
+
+	/* one simulated annealing chain; the temperature falls linearly with the elapsed time */
+	private int[] anneal(int[] initial, long deadline, long timeBudgetMillis, double targetMakespan,
+			long seed) {
+		Random rand = new Random(seed);
+		int[] current = initial.clone();
+		double[] load = loads(current);
+		double currentMakespan = max(load);
+		int[] best = current.clone();
+		double bestMakespan = currentMakespan;
+
+		double startTemperature = currentMakespan * 0.01;
+		double budgetNanos = Math.max(1.0, timeBudgetMillis * 1e6);
+		double temperature = startTemperature;
+		long moves = 0;
+		while (!targetReached) {
+			if (moves++ % CHECK_INTERVAL == 0) {
+				long left = deadline - System.nanoTime();
+				if (left <= 0) {
+					break;
+				}
+				temperature = startTemperature * left / budgetNanos;
+				if (moves % RESYNC_INTERVAL == 1) {
+					load = loads(current);
+					currentMakespan = max(load);
+				}
+			}
+
+			int rowA = rand.nextInt(rowNum);
+			int colA = current[rowA];
+			double candidateMakespan;
+			int rowB = -1;
+			int colB;
+			if (rand.nextBoolean()) {
+				// move rowA to another vm
+				colB = rand.nextInt(colNum - 1);
+				if (colB >= colA) {
+					colB++;
+				}
+				load[colA] -= etc[rowA * colNum + colA];
+				load[colB] += etc[rowA * colNum + colB];
+			} else {
+				// swap the vms of rowA and rowB
+				rowB = rand.nextInt(rowNum);
+				colB = current[rowB];
+				if (colB == colA) {
+					continue;
+				}
+				load[colA] += etc[rowB * colNum + colA] - etc[rowA * colNum + colA];
+				load[colB] += etc[rowA * colNum + colB] - etc[rowB * colNum + colB];
+			}
+			candidateMakespan = max(load);
+
+			double delta = candidateMakespan - currentMakespan;
+			if (delta <= 0.0 || (temperature > 0.0 && rand.nextDouble() < Math.exp(-delta / temperature))) {
+				current[rowA] = colB;
+				if (rowB != -1) {
+					current[rowB] = colA;
+				}
+				currentMakespan = candidateMakespan;
+				if (currentMakespan < bestMakespan) {
+					bestMakespan = currentMakespan;
+					System.arraycopy(current, 0, best, 0, rowNum);
+					if (bestMakespan <= targetMakespan) {
+						targetReached = true;
+					}
+				}
+			} else if (rowB == -1) {
+				load[colA] += etc[rowA * colNum + colA];
+				load[colB] -= etc[rowA * colNum + colB];
+			} else {
+				load[colA] -= etc[rowB * colNum + colA] - etc[rowA * colNum + colA];
+				load[colB] -= etc[rowA * colNum + colB] - etc[rowB * colNum + colB];
+			}
+		}
+		return best;
+	}
+
+}
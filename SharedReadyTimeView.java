@@ -0,0 +1,220 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.examples;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The work committed on every slot of a vm fleet shared by several tenant brokers.
+ * <p>
+ * Every tenant binds its cloudlets to its own vms, the first vm it is given for slot 0 of the
+ * fleet, the next for slot 1 and so on; the schedulers of a tenant map their columns to those
+ * slots, and a vm past the last slot is not shared. The vms of a slot must run on the same host
+ * and share its capacity as the view models it, which the hosts of
+ * {@link TopologyBuilder#setSharedFleet(SharedReadyTimeView)} do; otherwise there is no
+ * contention to model. The broker of a tenant commits the expected execution time of every
+ * cloudlet it binds to a vm of the fleet, and withdraws it again when it rebinds the cloudlet.
+ * <p>
+ * The slots are modeled as generalized processor sharing: the tenants with work on a slot share
+ * its capacity in proportion to their weights, and a tenant that runs out of work gives its share
+ * to the others. The vms of every tenant ask for the whole capacity of their slot, which their
+ * execution times are computed with. A tenant with weight w whose own work on a slot totals x
+ * then finishes it after x plus, for every other tenant j with weight w_j and work x_j,
+ * min(x_j, x * w_j / w). A tenant is thus never delayed by more than the work of the others, nor
+ * by more than its fair share lets them run while it is busy, and a single tenant is never
+ * delayed.
+ * <p>
+ * Commits are lock-free (one compare-and-set per cloudlet on the tenant's slot counter). The
+ * tenants may bind concurrently, but a tenant then sees whatever the others have committed so far,
+ * so binding them one after the other in a fixed order is the way to get the same schedules on
+ * every run. Tenants should be registered before they start scheduling.
+ */
+public class SharedReadyTimeView {
+
+	/** The number of slots. */
+	private final int vmNum;
+
+	/** The work committed by every tenant on every slot, as double bits; replaced on registration. */
+	private volatile AtomicLongArray[] load;
+
+	/** The weight of every tenant; replaced on registration. */
+	private volatile double[] weights;
+
+	/** The user id of every tenant, the id of its broker; replaced on registration. */
+	private volatile int[] users;
+
+	/** The sum of the weights. */
+	private volatile double totalWeight;
+
+	/**
+	 * Creates a new view of a fleet with no work committed.
+	 *
+	 * @param vmNum the number of slots in the fleet
+	 * @pre vmNum > 0
+	 * @post $none
+	 */
+	public SharedReadyTimeView(int vmNum) {
+		this.vmNum = vmNum;
+		load = new AtomicLongArray[0];
+		weights = new double[0];
+		users = new int[0];
+		totalWeight = 0.0;
+	}
+
+	/**
+	 * Registers a tenant.
+	 *
+	 * @param userId the user id of the tenant, which its vms carry
+	 * @param weight the fair-share weight of the tenant
+	 * @return the tenant index
+	 * @throws IllegalArgumentException if the weight is not positive or the user is a tenant already
+	 * @pre $none
+	 * @post $none
+	 */
+	public synchronized int registerTenant(int userId, double weight) {
+		if (!(weight > 0.0)) {
+			throw new IllegalArgumentException("Tenant weight must be positive, was " + weight);
+		}
+		for (int user : users) {
+			if (user == userId) {
+				throw new IllegalArgumentException("User " + userId + " is a tenant already");
+			}
+		}
+		int tenant = weights.length;
+		double[] newWeights = Arrays.copyOf(weights, tenant + 1);
+		newWeights[tenant] = weight;
+		int[] newUsers = Arrays.copyOf(users, tenant + 1);
+		newUsers[tenant] = userId;
+		AtomicLongArray[] newLoad = Arrays.copyOf(load, tenant + 1);
+		newLoad[tenant] = new AtomicLongArray(vmNum);
+		load = newLoad;
+		users = newUsers;
+		weights = newWeights;
+		totalWeight += weight;
+		return tenant;
+	}
+
+	/**
+	 * Gets the number of slots.
+	 *
+	 * @return the number of slots
+	 */
+	public int getVmNum() {
+		return vmNum;
+	}
+
+	/**
+	 * Gets the number of registered tenants.
+	 *
+	 * @return the number of tenants
+	 */
+	public int getTenantNum() {
+		return weights.length;
+	}
+
+	/**
+	 * Gets the fair share of a tenant.
+	 *
+	 * @param tenant the tenant index
+	 * @return the weight of the tenant divided by the total weight
+	 */
+	public double getShare(int tenant) {
+		return weights[tenant] / totalWeight;
+	}
+
+	/**
+	 * Gets the weight of the tenant a vm belongs to, for the hosts sharing a slot.
+	 *
+	 * @param userId the user id of the vm
+	 * @return the weight of the tenant with that user id, or 1 if the user is not a tenant
+	 */
+	public double getUserWeight(int userId) {
+		// registration replaces the users before the weights, so there is a user for every weight
+		double[] w = weights;
+		int[] u = users;
+		for (int tenant = 0; tenant < w.length; tenant++) {
+			if (u[tenant] == userId) {
+				return w[tenant];
+			}
+		}
+		return 1.0;
+	}
+
+	/**
+	 * Gets the work committed on a slot by all the tenants.
+	 *
+	 * @param col the slot
+	 * @return the committed work
+	 */
+	public double getLoad(int col) {
+		double total = 0.0;
+		for (AtomicLongArray tenantLoad : load) {
+			total += Double.longBitsToDouble(tenantLoad.get(col));
+		}
+		return total;
+	}
+
+	/**
+	 * Gets the work committed on a slot by one tenant.
+	 *
+	 * @param col the slot
+	 * @param tenant the tenant index
+	 * @return the committed work
+	 */
+	public double getLoad(int col, int tenant) {
+		return Double.longBitsToDouble(load[tenant].get(col));
+	}
+
+	/**
+	 * Commits work on a slot.
+	 *
+	 * @param col the slot
+	 * @param tenant the tenant index
+	 * @param work the execution time added to the slot
+	 */
+	public void commit(int col, int tenant, double work) {
+		AtomicLongArray tenantLoad = load[tenant];
+		while (true) {
+			long current = tenantLoad.get(col);
+			long updated = Double.doubleToLongBits(Double.longBitsToDouble(current) + work);
+			if (tenantLoad.compareAndSet(col, current, updated)) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Gets how much the work of the other tenants delays a tenant on a slot: the sum over the
+	 * other tenants j of min(x_j, ownLoad * w_j / w), see the class comment. The cost grows with
+	 * the number of tenants.
+	 *
+	 * @param col the slot
+	 * @param tenant the tenant index
+	 * @param ownLoad the work of the tenant on the slot, including the work being placed
+	 * @return the delay
+	 */
+	public double getExternalDelay(int col, int tenant, double ownLoad) {
+		if (!(ownLoad > 0.0)) {
+			return 0.0;
+		}
+		// registration replaces the loads before the weights, so there is a load for every weight
+		double[] w = weights;
+		AtomicLongArray[] loads = load;
+		double scale = ownLoad / w[tenant];
+		double delay = 0.0;
+		for (int other = 0; other < w.length; other++) {
+			if (other != tenant) {
+				delay += Math.min(Double.longBitsToDouble(loads[other].get(col)), scale * w[other]);
+			}
+		}
+		return delay;
+	}
+
+}
@@ -0,0 +1,197 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.examples;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.Vm;
+
+/**
+ * Reads and writes binary checkpoints of a {@link SuffrageScheduler}, so that a long scheduling
+ * run can be resumed after a failure.
+ * <p>
+ * A checkpoint holds the cloudlet and vm ids (to make sure it is resumed against the same
+ * workload), the iteration count, the ready times, the remaining rows and the assignments made so
+ * far in sorted order. The ETC matrix is not stored, it is recomputed from the cloudlet and vm
+ * lists, so the file grows with O(cloudlets + vms) instead of O(cloudlets * vms).
+ * <p>
+ * The file is first written next to the target and then moved over it, so a crash while writing
+ * never destroys the previous checkpoint.
+ */
+public class SuffrageCheckpoint {
+
+	/** The file magic number, "SUFC". */
+	private static final int MAGIC = 0x53554643;
+
+	/** The format version. */
+	private static final int VERSION = 1;
+
+	/**
+	 * Writes the current state of a scheduler to a checkpoint file.
+	 *
+	 * @param scheduler the scheduler
+	 * @param file the checkpoint file, replaced if it exists
+	 * @throws IOException if the file cannot be written
+	 * @pre scheduler != null && file != null
+	 * @post $none
+	 */
+	public static void write(SuffrageScheduler scheduler, File file) throws IOException {
+		File tmp = new File(file.getPath() + ".tmp");
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+		try {
+			int rowNum = scheduler.getRowNum();
+			int colNum = scheduler.getColNum();
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(rowNum);
+			out.writeInt(colNum);
+			for (int row = 0; row < rowNum; row++) {
+				out.writeInt(scheduler.getCloudletId(row));
+			}
+			for (int col = 0; col < colNum; col++) {
+				out.writeInt(scheduler.getVmId(col));
+			}
+			out.writeInt(scheduler.getIteration());
+			for (int col = 0; col < colNum; col++) {
+				out.writeDouble(scheduler.getReadyTime(col));
+			}
+			out.writeInt(scheduler.getRemainingCount());
+			for (int i = 0; i < scheduler.getRemainingCount(); i++) {
+				out.writeInt(scheduler.getRemaining(i));
+			}
+			out.writeInt(scheduler.getOrderCount());
+			for (int i = 0; i < scheduler.getOrderCount(); i++) {
+				int row = scheduler.getOrder(i);
+				out.writeInt(row);
+				out.writeInt(scheduler.getAssignment(row));
+			}
+		} finally {
+			out.close();
+		}
+
+		try {
+			Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	/**
+	 * Reads a checkpoint file and rebuilds the scheduler it was taken from.
+	 *
+	 * @param file the checkpoint file
+	 * @param cloudletList the cloudlets the checkpoint was taken with, in the same order
+	 * @param vmList the vms the checkpoint was taken with, in the same order
+	 * @return a scheduler ready to continue from the saved iteration
+	 * @throws IOException if the file cannot be read, is not a checkpoint, is corrupted or does not
+	 *             match the given cloudlets and vms
+	 * @pre file != null && cloudletList != null && vmList != null
+	 * @post $none
+	 */
+	public static SuffrageScheduler read(File file, List<? extends Cloudlet> cloudletList,
+			List<? extends Vm> vmList) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+		try {
+			if (in.readInt() != MAGIC) {
+				throw new IOException(file + " is not a suffrage checkpoint");
+			}
+			int version = in.readInt();
+			if (version != VERSION) {
+				throw new IOException(file + " has unsupported checkpoint version " + version);
+			}
+			int rowNum = in.readInt();
+			int colNum = in.readInt();
+			if (rowNum != cloudletList.size() || colNum != vmList.size()) {
+				throw new IOException(file + " was taken with " + rowNum + " cloudlets and " + colNum
+						+ " vms, but " + cloudletList.size() + " and " + vmList.size() + " were given");
+			}
+			for (int row = 0; row < rowNum; row++) {
+				if (in.readInt() != cloudletList.get(row).getCloudletId()) {
+					throw new IOException(file + " does not match cloudlet at position " + row);
+				}
+			}
+			for (int col = 0; col < colNum; col++) {
+				if (in.readInt() != vmList.get(col).getId()) {
+					throw new IOException(file + " does not match vm at position " + col);
+				}
+			}
+
+			int iteration = in.readInt();
+			if (iteration < 0) {
+				throw new IOException(file + " is corrupted: iteration " + iteration);
+			}
+			double[] readyTime = new double[colNum];
+			for (int col = 0; col < colNum; col++) {
+				readyTime[col] = in.readDouble();
+			}
+			int remainingCount = readCount(in, file, rowNum, "remaining rows");
+			// every row must be either remaining or assigned, exactly once
+			boolean[] seen = new boolean[rowNum];
+			int[] remaining = new int[remainingCount];
+			for (int i = 0; i < remainingCount; i++) {
+				remaining[i] = readRow(in, file, seen);
+			}
+			int orderCount = readCount(in, file, rowNum - remainingCount, "assigned rows");
+			int[] order = new int[orderCount];
+			int[] orderColumns = new int[orderCount];
+			for (int i = 0; i < orderCount; i++) {
+				order[i] = readRow(in, file, seen);
+				orderColumns[i] = in.readInt();
+				if (orderColumns[i] < 0 || orderColumns[i] >= colNum) {
+					throw new IOException(file + " is corrupted: column " + orderColumns[i] + " out of "
+							+ colNum);
+				}
+			}
+			if (remainingCount + orderCount != rowNum) {
+				throw new IOException(file + " is corrupted: " + remainingCount + " remaining and "
+						+ orderCount + " assigned rows out of " + rowNum);
+			}
+
+			SuffrageScheduler scheduler = new SuffrageScheduler(cloudletList, vmList);
+			scheduler.restore(iteration, readyTime, remaining, remainingCount, order, orderColumns,
+					orderCount);
+			return scheduler;
+		} finally {
+			in.close();
+		}
+	}
+
+	/* read a count between 0 and max */
+	private static int readCount(DataInputStream in, File file, int max, String what) throws IOException {
+		int count = in.readInt();
+		if (count < 0 || count > max) {
+			throw new IOException(file + " is corrupted: " + count + " " + what + ", expected at most " + max);
+		}
+		return count;
+	}
+
+	/* read a row index, which must be in range and not read before */
+	private static int readRow(DataInputStream in, File file, boolean[] seen) throws IOException {
+		int row = in.readInt();
+		if (row < 0 || row >= seen.length || seen[row]) {
+			throw new IOException(file + " is corrupted: row " + row + " out of range or repeated");
+		}
+		seen[row] = true;
+		return row;
+	}
+
+}
@@ -0,0 +1,1376 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.examples;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.CloudletSchedulerTimeShared;
+import org.cloudbus.cloudsim.Vm;
+
+/**
+ * The hybrid FCFS/suffrage scheduling engine behind
+ * {@link DatacenterBroker#bindCloutletToVmsSuffrage()}.
+ * <p>
+ * The engine keeps the expected time to compute (ETC) matrix, the ready time of every vm and
+ * the assignments made so far in primitive arrays. A row is a cloudlet (in submission order), a
+ * column is a vm. The expected completion time of a row on a column is its ETC plus the ready
+ * time of that vm. Each call to {@link #step()} performs one iteration of the algorithm and
+ * assigns exactly one cloudlet, so the whole state between two iterations can be written to a
+ * {@link SuffrageCheckpoint} and resumed later.
+ * <p>
+ * When the vms are shared with other tenants (see {@link SharedReadyTimeView}), the completion
+ * time of a row on a vm is delayed by the work the other tenants committed on the fleet slot of
+ * that vm, as far as they keep it busy while the own work of this tenant runs. The engine only
+ * reads the view: the broker commits the cloudlets it binds, so the candidate schedules a strategy
+ * builds and drops do not count as work on the fleet.
+ * <p>
+ * The ready time model assumes the cloudlets of a vm run one after the other, as with
+ * CloudletSchedulerSpaceShared. For the vms using CloudletSchedulerTimeShared the cloudlets run
+ * at once and slow each other down, so the completion time of a row on such a column comes from
+ * a {@link TimeSharedCompletionModel} of the rows already assigned to it, and the ready time of
+ * the column is the time its last cloudlet finishes.
+ * <p>
+ * When the lengths are uncertain (see {@link #setRuntimeUncertainty(double[], double[], double)})
+ * the ETC is the mean execution time, the variance of the work of every vm is tracked next to its
+ * ready time, and the vms are ranked by the risk-adjusted completion time mean + k * sigma.
+ * <p>
+ * The ETC can be corrected by learned factors per cloudlet class and vm type (see
+ * {@link #setRuntimeCorrection(int[], int[], double[][])} and {@link RuntimeModel}).
+ * <p>
+ * When the cloudlets carry data-affinity keys (see {@link #setDataAffinity(int[], double[], double[])})
+ * a row first stages its input on the vm, which takes its data size over the bandwidth of the vm,
+ * unless the vm already holds the data of its key from a row assigned to it before.
+ * <p>
+ * The ETC rows are allocated and computed lazily: the FCFS window only reaches the first rows in
+ * the early iterations, so the matrix is kept in chunks of rows that are allocated and
+ * materialized as the window first reaches them, large ranges being split over a shared pool of
+ * threads. The first iteration thus only waits for the window, not for the whole matrix. The
+ * window is the first 1 / {@link #WINDOW_DIVISOR} of the rows, so the first iteration still
+ * allocates and computes that fraction of the matrix: the divisor bounds what the lazy ETC saves
+ * on the first iteration. The cost penalty and the runtime uncertainty need the whole matrix.
+ *
+ * @see SuffrageCheckpoint
+ */
+public class SuffrageScheduler {
+
+	/** Only the first size()/WINDOW_DIVISOR remaining rows are scanned in each iteration (FCFS). */
+	public static final int WINDOW_DIVISOR = 5;
+
+	/** The fewest ETC rows materialized at once, so the matrix does not grow row by row. */
+	static final int MIN_MATERIALIZED_ROWS = 64;
+
+	/** The number of ETC cells of a chunk of rows, unless a single row is longer. */
+	static final int ETC_CHUNK_CELLS = 1 << 16;
+
+	/** The number of ETC cells below which a range is materialized on the calling thread. */
+	static final int PARALLEL_MATERIALIZE_CELLS = 1 << 16;
+
+	/**
+	 * Configures the schedulers a scheduling strategy builds internally, such as the candidates of
+	 * {@link RobustScheduling}, with the settings of its caller: a runtime correction, the data
+	 * affinity of the rows or a shared fleet view.
+	 */
+	public interface Setup {
+
+		/**
+		 * Configures a new scheduler, before the strategy sets its own options.
+		 *
+		 * @param scheduler the scheduler
+		 * @param cloudletList the cloudlets of its rows
+		 * @param vmList the vms of its columns
+		 */
+		void configure(SuffrageScheduler scheduler, List<? extends Cloudlet> cloudletList,
+				List<? extends Vm> vmList);
+
+	}
+
+	/** The threads materializing large ETC chunks, shared by the schedulers; created on first use. */
+	private static ExecutorService materializer;
+
+	/** The number of rows (cloudlets). */
+	private final int rowNum;
+
+	/** The number of columns (vms). */
+	private final int colNum;
+
+	/** The cloudlet id of every row. */
+	private final int[] cloudletIds;
+
+	/** The vm id of every column. */
+	private final int[] vmIds;
+
+	/** The number of ETC rows of a chunk. */
+	private final int chunkRows;
+
+	/**
+	 * The ETC matrix in chunks of {@link #chunkRows} rows, each row-major: the time of a row on a
+	 * column is etc[row / chunkRows][row % chunkRows * colNum + col] = length / mips. A chunk is
+	 * null until its first row is materialized, and only the first {@link #materializedRows} rows
+	 * are computed.
+	 */
+	private final double[][] etc;
+
+	/** The number of leading rows of the ETC matrix computed so far. */
+	private int materializedRows;
+
+	/** The length of every row. */
+	private final double[] rowLength;
+
+	/** The MIPS rating of every column. */
+	private final double[] colMips;
+
+	/** The class of every row in {@link #correction}, or null if the ETC is not corrected. */
+	private int[] rowClass;
+
+	/** The type of every column in {@link #correction}. */
+	private int[] colType;
+
+	/** The runtime correction factor of every row class on every column type. */
+	private double[][] correction;
+
+	/**
+	 * The matrix the vms are ranked by, in the chunks of the ETC: the ETC matrix itself, or the
+	 * ETC plus a cost penalty (see {@link #setCostPenalty(double[], double)}).
+	 */
+	private double[][] score;
+
+	/** The ready time of every vm. */
+	private final double[] readyTime;
+
+	/** The rows not assigned yet, in FCFS order; only the first remainingCount are valid. */
+	private final int[] remaining;
+
+	/** The number of rows not assigned yet. */
+	private int remainingCount;
+
+	/** The column each row was assigned to, or -1. */
+	private final int[] assignment;
+
+	/** The rows in the order they were assigned; only the first orderCount are valid. */
+	private final int[] order;
+
+	/** The number of rows assigned so far. */
+	private int orderCount;
+
+	/** The number of iterations completed. */
+	private int iteration;
+
+	/** The row each vm is tentatively assigned to in the current iteration, or -1. */
+	private final int[] candidateRow;
+
+	/** The suffrage of the tentative assignment of each vm in the current iteration. */
+	private final double[] candidateSuffrage;
+
+	/** Whether every step is traced to System.out. */
+	private boolean verbose;
+
+	/** The log every decision is recorded to, or null. */
+	private DecisionLog decisionLog;
+
+	/** The fleet view shared with other tenants, or null. */
+	private SharedReadyTimeView sharedView;
+
+	/** The tenant index of this scheduler in the shared view. */
+	private int tenant;
+
+	/** The fleet slot of every column in the shared view, -1 for a column the fleet does not share. */
+	private int[] sharedSlots;
+
+	/** The delay caused by other tenants on every vm at its ready time, for the fallback; 0 if alone. */
+	private final double[] externalDelay;
+
+	/** The number of rows assigned by {@link #finishWithFallback()}. */
+	private int fallbackCount;
+
+	/** The sum over the assigned rows of the ready time of their vm just before they were assigned. */
+	private double waitSum;
+
+	/** The processor-sharing model of every time-shared column, null for the others; null if none. */
+	private final TimeSharedCompletionModel[] timeShared;
+
+	/** The ready time of every time-shared column before any row was assigned to it. */
+	private final double[] timeSharedStart;
+
+	/** The PEs of every row, for the time-shared columns. */
+	private final int[] rowPes;
+
+	/** The variance of the ETC matrix, row-major, or null if the lengths are exact. */
+	private double[] etcVariance;
+
+	/** The variance of the work assigned to every vm, when the lengths are uncertain. */
+	private double[] readyVariance;
+
+	/** The number of standard deviations added to the mean completion time. */
+	private double riskFactor;
+
+	/** The data-affinity key of every row, -1 for none; null if the input staging is not modeled. */
+	private int[] dataKey;
+
+	/** The input data size of every row. */
+	private double[] dataSize;
+
+	/** The bandwidth of every column, the data size it stages per second. */
+	private double[] colBandwidth;
+
+	/** Whether a column holds the data of a key, at bit key * colNum + col. */
+	private BitSet dataHeld;
+
+	/** The number of columns holding the data of every key. */
+	private int[] dataHolders;
+
+	/** The input data staged on the vms by the rows assigned so far. */
+	private double transferVolume;
+
+	/** The part of the staged data whose key was already held by another vm. */
+	private double crossVmTransferVolume;
+
+	/** Whether the completion time is simply score + ready time + delay on every column. */
+	private boolean simpleModel;
+
+	/** The kernel scanning the rows when {@link #simpleModel} holds, SIMD when available. */
+	private final RowScanKernel rowScan;
+
+	/** The wall time spent scanning the window (steps 1 to 4), in nanoseconds. */
+	private long scanNanos;
+
+	/** The wall time spent choosing and assigning the winners (steps 5 to 8), in nanoseconds. */
+	private long assignNanos;
+
+	/**
+	 * Creates a new scheduler for the given cloudlets and vms, with every vm ready at time 0.
+	 *
+	 * @param cloudletList the cloudlets to be scheduled, in FCFS order
+	 * @param vmList the vms to schedule them on
+	 * @pre cloudletList != null && vmList != null && vmList.size() > 0
+	 * @post $none
+	 */
+	public SuffrageScheduler(List<? extends Cloudlet> cloudletList, List<? extends Vm> vmList) {
+		rowNum = cloudletList.size();
+		colNum = vmList.size();
+		cloudletIds = new int[rowNum];
+		vmIds = new int[colNum];
+		chunkRows = Math.max(1, ETC_CHUNK_CELLS / colNum);
+		etc = new double[(rowNum + chunkRows - 1) / chunkRows][];
+		rowLength = new double[rowNum];
+		colMips = new double[colNum];
+		readyTime = new double[colNum];
+		remaining = new int[rowNum];
+		assignment = new int[rowNum];
+		order = new int[rowNum];
+		candidateRow = new int[colNum];
+		candidateSuffrage = new double[colNum];
+		externalDelay = new double[colNum];
+
+		TimeSharedCompletionModel[] models = new TimeSharedCompletionModel[colNum];
+		boolean anyTimeShared = false;
+		for (int col = 0; col < colNum; col++) {
+			Vm vm = vmList.get(col);
+			vmIds[col] = vm.getId();
+			colMips[col] = vm.getMips();
+			if (vm.getCloudletScheduler() instanceof CloudletSchedulerTimeShared) {
+				models[col] = new TimeSharedCompletionModel(vm.getMips(), vm.getNumberOfPes());
+				anyTimeShared = true;
+			}
+		}
+		timeShared = anyTimeShared ? models : null;
+		timeSharedStart = anyTimeShared ? new double[colNum] : null;
+		rowPes = anyTimeShared ? new int[rowNum] : null;
+		for (int row = 0; row < rowNum; row++) {
+			Cloudlet cloudlet = cloudletList.get(row);
+			cloudletIds[row] = cloudlet.getCloudletId();
+			rowLength[row] = cloudlet.getCloudletLength();
+			if (anyTimeShared) {
+				rowPes[row] = cloudlet.getNumberOfPes();
+			}
+			remaining[row] = row;
+			assignment[row] = -1;
+		}
+		remainingCount = rowNum;
+		score = etc;
+		simpleModel = !anyTimeShared;
+		rowScan = RowScanKernel.create();
+		verbose = true;
+	}
+
+	/**
+	 * Restores the state saved by {@link SuffrageCheckpoint#write}. The ETC matrix is not part of
+	 * the checkpoint, it is rebuilt as the window reaches the rows.
+	 */
+	void restore(int iteration, double[] readyTime, int[] remaining, int remainingCount,
+			int[] order, int[] orderColumns, int orderCount) {
+		this.iteration = iteration;
+		System.arraycopy(readyTime, 0, this.readyTime, 0, colNum);
+		System.arraycopy(remaining, 0, this.remaining, 0, remainingCount);
+		this.remainingCount = remainingCount;
+		Arrays.fill(assignment, -1);
+		for (int i = 0; i < orderCount; i++) {
+			this.order[i] = order[i];
+			assignment[order[i]] = orderColumns[i];
+		}
+		this.orderCount = orderCount;
+		if (timeShared != null) {
+			for (int i = 0; i < orderCount; i++) {
+				int col = orderColumns[i];
+				if (timeShared[col] != null) {
+					timeShared[col].add(rowLength[order[i]], rowPes[order[i]]);
+				}
+			}
+			for (int col = 0; col < colNum; col++) {
+				if (timeShared[col] != null) {
+					timeSharedStart[col] = readyTime[col] - timeShared[col].getFinishTime();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Sets the time a vm becomes ready, for a scheduler that starts on vms which already have work
+	 * assigned. Must be called before the first iteration.
+	 *
+	 * @param col the column of the vm
+	 * @param readyTime the ready time
+	 */
+	public void setReadyTime(int col, double readyTime) {
+		this.readyTime[col] = readyTime;
+		if (timeShared != null && timeShared[col] != null) {
+			timeSharedStart[col] = readyTime;
+		}
+	}
+
+	/**
+	 * Assigns some rows to given columns before the first iteration, such as cloudlets already
+	 * bound to the vms, so that the other rows are scheduled around them. The rows are added in
+	 * row order, each as if {@link #step()} had chosen it: the ready times, the processor-sharing
+	 * models of the time-shared columns and the data held by the vms grow as they would. Call it
+	 * after the options that change the ETC or the data affinity are set. The rows count in
+	 * {@link #getOrderCount()} but not as iterations.
+	 *
+	 * @param columns the column of every row, or -1 for a row left to the iterations
+	 * @throws IllegalArgumentException if there is not one column per row or a column is out of
+	 *             range
+	 * @throws IllegalStateException if rows have been assigned already
+	 */
+	public void preassign(int[] columns) {
+		if (columns.length != rowNum) {
+			throw new IllegalArgumentException("Expected " + rowNum + " columns, got " + columns.length);
+		}
+		if (orderCount > 0) {
+			throw new IllegalStateException("Rows have been assigned already");
+		}
+		int last = -1;
+		for (int row = 0; row < rowNum; row++) {
+			if (columns[row] < -1 || columns[row] >= colNum) {
+				throw new IllegalArgumentException("Column " + columns[row] + " of row " + row
+						+ " is out of range");
+			}
+			if (columns[row] >= 0) {
+				last = row;
+			}
+		}
+		if (last < 0) {
+			return;
+		}
+		ensureMaterialized(last);
+		for (int row = 0; row <= last; row++) {
+			if (columns[row] >= 0) {
+				assignment[row] = columns[row];
+				order[orderCount++] = row;
+				addWork(row, columns[row]);
+			}
+		}
+		// one pass instead of a removal per row
+		int kept = 0;
+		for (int k = 0; k < remainingCount; k++) {
+			if (assignment[remaining[k]] < 0) {
+				remaining[kept++] = remaining[k];
+			}
+		}
+		remainingCount = kept;
+	}
+
+	/**
+	 * Multiplies the ETC of every row on every column by a correction factor of the class of the
+	 * row on the type of the column, such as the ratio of actual to predicted runtime
+	 * learned by a {@link RuntimeModel}. The time-shared columns keep the completion times of
+	 * their processor-sharing model. Must be called before the first iteration, and before
+	 * {@link #setRuntimeUncertainty(double[], double[], double)} and
+	 * {@link #setCostPenalty(double[], double)}.
+	 *
+	 * @param rowClass the class of every row, an index of the first dimension of factor
+	 * @param colType the type of every column, an index of the second dimension of factor
+	 * @param factor the correction factor of every class on every type
+	 * @throws IllegalArgumentException if an array has the wrong size, an index is out of range or
+	 *             a factor is not positive
+	 * @throws IllegalStateException if the ETC matrix has been replaced or weighted already
+	 */
+	public void setRuntimeCorrection(int[] rowClass, int[] colType, double[][] factor) {
+		if (rowClass.length != rowNum || colType.length != colNum) {
+			throw new IllegalArgumentException("Runtime correction needs " + rowNum + " row classes and "
+					+ colNum + " column types");
+		}
+		if (etcVariance != null || score != etc) {
+			throw new IllegalStateException("Runtime correction must be set before the uncertainty and cost");
+		}
+		for (int c : rowClass) {
+			if (c < 0 || c >= factor.length) {
+				throw new IllegalArgumentException("Row class " + c + " out of range");
+			}
+		}
+		for (double[] classFactor : factor) {
+			for (int t : colType) {
+				if (t < 0 || t >= classFactor.length) {
+					throw new IllegalArgumentException("Column type " + t + " out of range");
+				}
+				if (!(classFactor[t] > 0.0)) {
+					throw new IllegalArgumentException("Correction factor must be positive, got "
+							+ classFactor[t]);
+				}
+			}
+		}
+		this.rowClass = rowClass.clone();
+		this.colType = colType.clone();
+		correction = new double[factor.length][];
+		for (int c = 0; c < factor.length; c++) {
+			correction[c] = factor[c].clone();
+		}
+		// the rows computed so far were not corrected
+		materializedRows = 0;
+	}
+
+	/**
+	 * Makes the scheduler trade completion time for monetary cost. The vms are then ranked by
+	 * completion time plus lambda * cost, where lambda = weight / (1 - weight) * (mean ETC / mean
+	 * cost) converts cost to seconds, so a weight of 0 ignores the cost and a weight close to 1
+	 * ignores the completion time. The ready times still grow by the ETC only. Must be called
+	 * before the first iteration.
+	 *
+	 * @param cost the cost of every row on every column, row-major like the ETC matrix
+	 * @param weight the weight of the cost, from 0 (inclusive) to 1 (exclusive)
+	 * @throws IllegalArgumentException if the weight is out of range or the matrix has the wrong
+	 *             size
+	 * @see CostModel#costMatrix(List, List)
+	 */
+	public void setCostPenalty(double[] cost, double weight) {
+		if (weight < 0.0 || weight >= 1.0) {
+			throw new IllegalArgumentException("Cost weight must be in [0, 1), got " + weight);
+		}
+		if (cost.length != (long) rowNum * colNum) {
+			throw new IllegalArgumentException("Cost matrix has " + cost.length + " cells, expected "
+					+ (long) rowNum * colNum);
+		}
+		ensureMaterialized(rowNum - 1);
+		double etcSum = 0.0;
+		double costSum = 0.0;
+		for (double[] chunk : etc) {
+			for (double cell : chunk) {
+				etcSum += cell;
+			}
+		}
+		for (double cell : cost) {
+			costSum += cell;
+		}
+		if (weight == 0.0 || costSum == 0.0) {
+			score = etc;
+			return;
+		}
+		double lambda = weight / (1.0 - weight) * etcSum / costSum;
+		score = new double[etc.length][];
+		for (int chunk = 0; chunk < etc.length; chunk++) {
+			int first = chunk * chunkRows * colNum;
+			score[chunk] = new double[etc[chunk].length];
+			for (int i = 0; i < score[chunk].length; i++) {
+				score[chunk][i] = etc[chunk][i] + lambda * cost[first + i];
+			}
+		}
+	}
+
+	/**
+	 * Makes the scheduler account for uncertain cloudlet lengths. The ETC matrix is replaced by the
+	 * mean execution times, and a vm is ranked by the mean completion time of a row plus riskFactor
+	 * times the standard deviation of the total work it would then have, the work of the vms being
+	 * the sum of independent execution times. A runtime correction set before applies to the new
+	 * matrices: every mean is multiplied by the factor of its cell and every variance by its
+	 * square. Must be called before the first iteration, and before
+	 * {@link #setCostPenalty(double[], double)}.
+	 *
+	 * @param meanEtc the mean execution time of every row on every column, row-major
+	 * @param etcVariance the variance of the execution time of every row on every column
+	 * @param riskFactor the number of standard deviations added, 0 to rank by the mean only
+	 * @throws IllegalArgumentException if a matrix has the wrong size or the risk factor is negative
+	 * @see RobustScheduling
+	 */
+	public void setRuntimeUncertainty(double[] meanEtc, double[] etcVariance, double riskFactor) {
+		long cells = (long) rowNum * colNum;
+		if (meanEtc.length != cells || etcVariance.length != cells) {
+			throw new IllegalArgumentException("ETC matrices must have " + cells + " cells");
+		}
+		if (riskFactor < 0.0) {
+			throw new IllegalArgumentException("Risk factor must be >= 0, got " + riskFactor);
+		}
+		for (int chunk = 0; chunk < etc.length; chunk++) {
+			if (etc[chunk] == null) {
+				etc[chunk] = new double[getChunkCells(chunk)];
+			}
+			System.arraycopy(meanEtc, chunk * chunkRows * colNum, etc[chunk], 0, etc[chunk].length);
+		}
+		materializedRows = rowNum;
+		this.etcVariance = etcVariance.clone();
+		if (correction != null) {
+			for (int row = 0; row < rowNum; row++) {
+				double[] chunk = etc[row / chunkRows];
+				int base = row % chunkRows * colNum;
+				double[] factor = correction[rowClass[row]];
+				for (int col = 0; col < colNum; col++) {
+					double f = factor[colType[col]];
+					chunk[base + col] *= f;
+					this.etcVariance[row * colNum + col] *= f * f;
+				}
+			}
+		}
+		this.riskFactor = riskFactor;
+		readyVariance = new double[colNum];
+		for (int i = 0; i < orderCount; i++) {
+			int row = order[i];
+			readyVariance[assignment[row]] += this.etcVariance[row * colNum + assignment[row]];
+		}
+		simpleModel = false;
+	}
+
+	/**
+	 * Makes the scheduler account for the staging of the input data of the rows. A row assigned to
+	 * a vm first transfers its data size at the bandwidth of the vm, which delays its completion
+	 * and the ready time of the vm, except when a row with the same data-affinity key was assigned
+	 * to that vm before: the vm then holds the data already. The rows sharing data thus gather on
+	 * the vms holding it, as long as that beats their completion time elsewhere. The rows assigned
+	 * so far, if any, are replayed to find the data the vms hold.
+	 *
+	 * @param dataKey the data-affinity key of every row, from 0 to the number of keys - 1, or -1
+	 *            for a row whose data is not shared
+	 * @param dataSize the input data size of every row
+	 * @param bandwidth the bandwidth of every column, in data size per second
+	 * @throws IllegalArgumentException if an array has the wrong size, a key is below -1 or a
+	 *             bandwidth is not positive
+	 * @see #getCrossVmTransferVolume()
+	 */
+	public void setDataAffinity(int[] dataKey, double[] dataSize, double[] bandwidth) {
+		if (dataKey.length != rowNum || dataSize.length != rowNum || bandwidth.length != colNum) {
+			throw new IllegalArgumentException("Data affinity needs " + rowNum + " keys and sizes and "
+					+ colNum + " bandwidths");
+		}
+		int keyNum = 0;
+		for (int key : dataKey) {
+			if (key < -1) {
+				throw new IllegalArgumentException("Data-affinity key must be >= -1, got " + key);
+			}
+			keyNum = Math.max(keyNum, key + 1);
+		}
+		for (double bw : bandwidth) {
+			if (bw <= 0.0) {
+				throw new IllegalArgumentException("Bandwidth must be positive, got " + bw);
+			}
+		}
+		if ((long) keyNum * colNum > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Too many data-affinity keys: " + keyNum + " keys on "
+					+ colNum + " vms");
+		}
+		this.dataKey = dataKey.clone();
+		this.dataSize = dataSize.clone();
+		colBandwidth = bandwidth.clone();
+		dataHeld = new BitSet(keyNum * colNum);
+		dataHolders = new int[keyNum];
+		transferVolume = 0.0;
+		crossVmTransferVolume = 0.0;
+		for (int i = 0; i < orderCount; i++) {
+			stageData(order[i], assignment[order[i]]);
+		}
+		simpleModel = false;
+	}
+
+	/**
+	 * Checks whether every cloudlet has been assigned.
+	 *
+	 * @return true if there is nothing left to schedule
+	 */
+	public boolean isFinished() {
+		return remainingCount == 0;
+	}
+
+	/**
+	 * Performs one iteration of the algorithm: scans the FCFS window, picks the cloudlet with the
+	 * greatest suffrage and assigns it to the vm that gives its earliest completion time.
+	 *
+	 * @pre !isFinished()
+	 * @post $none
+	 */
+	public void step() {
+		long startNanos = System.nanoTime();
+		if (verbose) {
+			System.out.println("========================");
+			System.out.println("This is start of iteration " + (iteration + 1));
+			System.out.println();
+			printMatrix();
+			System.out.println();
+		}
+
+		// step 1: mark all machines as unassigned //
+		resetSuffrage();
+
+		int window = remainingCount / WINDOW_DIVISOR;
+		// the remaining rows are in FCFS order, so the last one of the window is the furthest
+		ensureMaterialized(remaining[Math.max(window, 1) - 1]);
+		for (int k = 0; k < window; k++) {
+			int row = remaining[k];
+			int base = row % chunkRows * colNum;
+
+			// step 2: find the vm that gives the earliest time //
+			int colIndexOfMin;
+			double min;
+			double largest;
+			if (simpleModel) {
+				rowScan.scan(score[row / chunkRows], base, readyTime, externalDelay, colNum);
+				colIndexOfMin = rowScan.getMinIndex();
+				min = rowScan.getMin();
+				largest = rowScan.getMax();
+			} else {
+				colIndexOfMin = 0;
+				min = getCompletionTime(row, 0);
+				largest = min;
+				for (int col = 1; col < colNum; col++) {
+					double current = getCompletionTime(row, col);
+					if (current < min) {
+						colIndexOfMin = col;
+						min = current;
+					} else if (current > largest) {
+						largest = current;
+					}
+				}
+			}
+
+			// step 3: calculate the suffrage time //
+			double currentSuffrage = calculateSuffrage(min, largest);
+
+			// step 4: check if the machine is assigned //
+			checkSuffrage(colIndexOfMin, row, currentSuffrage);
+			if (verbose) {
+				System.out.println("\nEnd of scanning a row and current vm suffrage list is as below");
+				printSuffrageList();
+				System.out.println();
+			}
+		}
+
+		long scanEndNanos = System.nanoTime();
+		scanNanos += scanEndNanos - startNanos;
+
+		// get greatest suffrage value; if no vm got a candidate the head of the queue goes first
+		double greatest = 0.0;
+		int targetRow = remaining[0];
+		for (int col = 0; col < colNum; col++) {
+			if (candidateSuffrage[col] > greatest) {
+				greatest = candidateSuffrage[col];
+				targetRow = candidateRow[col];
+			}
+		}
+		int targetCol = getEarliestColumn(targetRow);
+		if (verbose) {
+			System.out.println("Column value is " + (double) targetCol);
+		}
+
+		// step 5 and 6: assign the cloudlet to the vm and add it to the sorted list
+		assignment[targetRow] = targetCol;
+		order[orderCount++] = targetRow;
+
+		// step 8: update ready times
+		addWork(targetRow, targetCol);
+		if (verbose) {
+			System.out.printf("The ready time array is %s \n", Arrays.toString(readyTime));
+		}
+
+		if (decisionLog != null) {
+			decisionLog.record(iteration + 1, candidateRow, candidateSuffrage, cloudletIds,
+					cloudletIds[targetRow], targetCol, readyTime[targetCol]);
+		}
+
+		// step 7: remove the row after the cloudlet has been assigned
+		removeRow(targetRow);
+
+		if (verbose) {
+			System.out.println("This is end of iteration " + (iteration + 1));
+			System.out.println("========================");
+		}
+		iteration++;
+		assignNanos += System.nanoTime() - scanEndNanos;
+	}
+
+	/**
+	 * Assigns every remaining row, in FCFS order, to the vm with the earliest ready time. This is
+	 * the cheap way out when the time budget for the suffrage iterations is spent: the vms are
+	 * kept in a binary heap ordered by ready time, so each row costs O(log vms) instead of a scan
+	 * of the window. Every assignment counts as one iteration.
+	 *
+	 * @pre $none
+	 * @post isFinished()
+	 */
+	public void finishWithFallback() {
+		if (remainingCount == 0) {
+			return;
+		}
+		long startNanos = System.nanoTime();
+		ensureMaterialized(remaining[remainingCount - 1]);
+		if (sharedView != null) {
+			for (int col = 0; col < colNum; col++) {
+				int slot = sharedSlots[col];
+				externalDelay[col] = slot < 0 ? 0.0
+						: sharedView.getExternalDelay(slot, tenant, readyTime[col]);
+			}
+		}
+		Arrays.fill(candidateRow, -1);
+		Arrays.fill(candidateSuffrage, 0.0);
+
+		int[] heap = new int[colNum];
+		for (int col = 0; col < colNum; col++) {
+			heap[col] = col;
+		}
+		for (int i = colNum / 2 - 1; i >= 0; i--) {
+			siftDown(heap, i);
+		}
+
+		for (int k = 0; k < remainingCount; k++) {
+			int row = remaining[k];
+			int col = heap[0];
+			assignment[row] = col;
+			order[orderCount++] = row;
+			addWork(row, col);
+			if (decisionLog != null) {
+				decisionLog.record(iteration + 1, candidateRow, candidateSuffrage, cloudletIds,
+						cloudletIds[row], col, readyTime[col]);
+			}
+			siftDown(heap, 0);
+			iteration++;
+			fallbackCount++;
+		}
+		if (verbose) {
+			System.out.println(remainingCount + " cloudlet(s) assigned to the earliest ready vm");
+			System.out.printf("The ready time array is %s \n", Arrays.toString(readyTime));
+		}
+		remainingCount = 0;
+		assignNanos += System.nanoTime() - startNanos;
+	}
+
+	/* restore the heap order below position i; the key of a column is its start time */
+	private void siftDown(int[] heap, int i) {
+		while (true) {
+			int smallest = i;
+			for (int child = 2 * i + 1; child <= 2 * i + 2 && child < heap.length; child++) {
+				if (isEarlier(heap[child], heap[smallest])) {
+					smallest = child;
+				}
+			}
+			if (smallest == i) {
+				return;
+			}
+			int tmp = heap[i];
+			heap[i] = heap[smallest];
+			heap[smallest] = tmp;
+			i = smallest;
+		}
+	}
+
+	/* whether a vm is ready before another one, ties broken by column */
+	private boolean isEarlier(int colA, int colB) {
+		double a = readyTime[colA] + externalDelay[colA];
+		double b = readyTime[colB] + externalDelay[colB];
+		return a < b || (a == b && colA < colB);
+	}
+
+	/* the completion time of a row on a column, plus its cost penalty and risk margin if any */
+	private double getCompletionTime(int row, int col) {
+		double[] rowScore = score[row / chunkRows];
+		double[] rowEtc = etc[row / chunkRows];
+		int cell = row % chunkRows * colNum + col;
+		double time;
+		if (timeShared == null || timeShared[col] == null) {
+			time = rowScore[cell] + readyTime[col];
+		} else {
+			time = timeSharedStart[col] + timeShared[col].getCompletionTime(rowLength[row], rowPes[row])
+					+ rowScore[cell] - rowEtc[cell];
+		}
+		if (sharedView != null && sharedSlots[col] >= 0) {
+			// the other tenants delay this one as long as its own work on the vm runs
+			time += sharedView.getExternalDelay(sharedSlots[col], tenant,
+					time - rowScore[cell] + rowEtc[cell]);
+		}
+		if (etcVariance != null) {
+			time += riskFactor * Math.sqrt(readyVariance[col] + etcVariance[row * colNum + col]);
+		}
+		if (dataKey != null) {
+			time += getTransferTime(row, col);
+		}
+		return time;
+	}
+
+	/* the time to stage the input of a row on a column, 0 if the column holds its data already */
+	private double getTransferTime(int row, int col) {
+		int key = dataKey[row];
+		if (key >= 0 && dataHeld.get(key * colNum + col)) {
+			return 0.0;
+		}
+		return dataSize[row] / colBandwidth[col];
+	}
+
+	/* stage the input of a row on a column, counting the volume, and return the transfer time */
+	private double stageData(int row, int col) {
+		int key = dataKey[row];
+		if (key >= 0 && dataHeld.get(key * colNum + col)) {
+			return 0.0;
+		}
+		transferVolume += dataSize[row];
+		if (key >= 0) {
+			if (dataHolders[key] > 0) {
+				crossVmTransferVolume += dataSize[row];
+			}
+			dataHeld.set(key * colNum + col);
+			dataHolders[key]++;
+		}
+		return dataSize[row] / colBandwidth[col];
+	}
+
+	/* compute the ETC rows up to the given one, with at least a window of rows ahead of the last chunk */
+	private void ensureMaterialized(int row) {
+		if (row < materializedRows) {
+			return;
+		}
+		int ahead = Math.max(MIN_MATERIALIZED_ROWS, remainingCount / WINDOW_DIVISOR);
+		int to = Math.min(rowNum, Math.max(row + 1, materializedRows + ahead));
+		for (int chunk = materializedRows / chunkRows; chunk <= (to - 1) / chunkRows; chunk++) {
+			if (etc[chunk] == null) {
+				etc[chunk] = new double[getChunkCells(chunk)];
+			}
+		}
+		final int fromCell = materializedRows * colNum;
+		final int toCell = to * colNum;
+		int tasks = Math.min(Runtime.getRuntime().availableProcessors(), (toCell - fromCell)
+				/ (PARALLEL_MATERIALIZE_CELLS / 4));
+		if (toCell - fromCell < PARALLEL_MATERIALIZE_CELLS || tasks < 2) {
+			materialize(fromCell, toCell);
+			materializedRows = to;
+			return;
+		}
+
+		// contiguous cell ranges, so a chunk of few long rows is split across its columns too
+		List<Callable<Void>> parts = new ArrayList<Callable<Void>>(tasks);
+		for (int t = 0; t < tasks; t++) {
+			final int from = fromCell + (int) ((long) (toCell - fromCell) * t / tasks);
+			final int until = fromCell + (int) ((long) (toCell - fromCell) * (t + 1) / tasks);
+			parts.add(new Callable<Void>() {
+				@Override
+				public Void call() {
+					materialize(from, until);
+					return null;
+				}
+			});
+		}
+		try {
+			for (Future<Void> part : getMaterializer().invokeAll(parts)) {
+				part.get();
+			}
+		} catch (InterruptedException e) {
+			// finish on this thread rather than leave holes in the matrix
+			Thread.currentThread().interrupt();
+			materialize(fromCell, toCell);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("ETC materialization failed", e.getCause());
+		}
+		materializedRows = to;
+	}
+
+	/* the number of cells of an ETC chunk; the last one may hold fewer rows */
+	private int getChunkCells(int chunk) {
+		return Math.min(chunkRows, rowNum - chunk * chunkRows) * colNum;
+	}
+
+	/* compute the ETC cells of a range of the row-major matrix, whose chunks are allocated */
+	private void materialize(int fromCell, int toCell) {
+		if (fromCell >= toCell) {
+			return;
+		}
+		int row = fromCell / colNum;
+		int col = fromCell % colNum;
+		double[] chunk = etc[row / chunkRows];
+		int base = row % chunkRows * colNum;
+		double length = rowLength[row];
+		if (correction != null) {
+			double[] factor = correction[rowClass[row]];
+			for (int cell = fromCell; cell < toCell; cell++) {
+				chunk[base + col] = length / colMips[col] * factor[colType[col]];
+				if (++col == colNum && cell + 1 < toCell) {
+					col = 0;
+					length = rowLength[++row];
+					factor = correction[rowClass[row]];
+					chunk = etc[row / chunkRows];
+					base = row % chunkRows * colNum;
+				}
+			}
+			return;
+		}
+		for (int cell = fromCell; cell < toCell; cell++) {
+			chunk[base + col] = length / colMips[col];
+			if (++col == colNum && cell + 1 < toCell) {
+				col = 0;
+				length = rowLength[++row];
+				chunk = etc[row / chunkRows];
+				base = row % chunkRows * colNum;
+			}
+		}
+	}
+
+	/* the shared materialization threads, daemons so they never keep the JVM alive */
+	private static synchronized ExecutorService getMaterializer() {
+		if (materializer == null) {
+			materializer = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+					new ThreadFactory() {
+						@Override
+						public Thread newThread(Runnable task) {
+							Thread thread = new Thread(task, "etc-materializer");
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+		}
+		return materializer;
+	}
+
+	/* add a row to the work of a column */
+	private void addWork(int row, int col) {
+		if (etcVariance != null) {
+			readyVariance[col] += etcVariance[row * colNum + col];
+		}
+		double transfer = dataKey != null ? stageData(row, col) : 0.0;
+		if (timeShared == null || timeShared[col] == null) {
+			double work = etc[row / chunkRows][row % chunkRows * colNum + col] + transfer;
+			waitSum += readyTime[col];
+			readyTime[col] += work;
+			return;
+		}
+		// the staging holds the vm link, so it delays the rows sharing the vm as well
+		timeSharedStart[col] += transfer;
+		// the rows of a time-shared vm run at once, from the start of its first row
+		waitSum += timeSharedStart[col];
+		timeShared[col].add(rowLength[row], rowPes[row]);
+		readyTime[col] = timeSharedStart[col] + timeShared[col].getFinishTime();
+	}
+
+	/* find the column with the earliest completion time for a row */
+	private int getEarliestColumn(int row) {
+		int column = 0;
+		double minimum = Double.MAX_VALUE;
+		for (int col = 0; col < colNum; col++) {
+			double current = getCompletionTime(row, col);
+			if (current < minimum) {
+				minimum = current;
+				column = col;
+			}
+		}
+		return column;
+	}
+
+	/* reset the vm suffrage record */
+	private void resetSuffrage() {
+		Arrays.fill(candidateRow, -1);
+		Arrays.fill(candidateSuffrage, 0.0);
+		if (verbose) {
+			System.out.println("Suffrage reset successfully and is shown as below");
+			printSuffrageList();
+			System.out.println();
+		}
+	}
+
+	/* calculate the difference between the smallest and the largest completion time of a row */
+	private double calculateSuffrage(double first, double largest) {
+		/* There should be at least two elements */
+		if (colNum < 2) {
+			if (verbose) {
+				System.out.println("Invalid Input");
+			}
+			return 0.0;
+		}
+		double suffrage = largest - first;
+		if (verbose) {
+			System.out.printf("The smallest is %.4f and largest is %.4f \n", first, largest);
+			System.out.printf("The suffrage is %.4f \n", suffrage);
+		}
+		return suffrage;
+	}
+
+	/* check if the vm has been assigned */
+	private void checkSuffrage(int colIndexOfMin, int row, double currentSuffrage) {
+		// colIndexOfMin is the vm position in the candidate arrays
+		int existingRow = candidateRow[colIndexOfMin];
+		double existingSuffrage = candidateSuffrage[colIndexOfMin];
+		if (verbose) {
+			if (existingRow != -1) {
+				System.out.printf("Existing cloudlet id is %d and suffrage is %.4f \n",
+						cloudletIds[existingRow], existingSuffrage);
+			} else {
+				System.out.printf("There is no cloudlet assigned to vm %d yet\n", colIndexOfMin);
+			}
+			System.out.println("So the cloudlet " + cloudletIds[row] + " will try vm " + colIndexOfMin);
+		}
+
+		// case when the cloudlet has not assigned or will be replaced
+		if (existingSuffrage < currentSuffrage) {
+			candidateRow[colIndexOfMin] = row;
+			candidateSuffrage[colIndexOfMin] = currentSuffrage;
+			if (verbose) {
+				System.out.printf("Current suffrage %.4f > existing one %.4f \n", currentSuffrage,
+						existingSuffrage);
+				System.out.printf("Cloudlet %d is assigned to vm %d for now \n", cloudletIds[row],
+						colIndexOfMin);
+			}
+		}
+	}
+
+	/* remove a row from the queue of remaining rows, keeping the FCFS order */
+	private void removeRow(int row) {
+		if (verbose) {
+			System.out.println("Looking for cloudlet " + cloudletIds[row] + " in the matrix ......");
+		}
+		for (int k = 0; k < remainingCount; k++) {
+			if (remaining[k] == row) {
+				if (verbose) {
+					System.out.println("Found! And row " + k + " will be removed from the matrix");
+				}
+				System.arraycopy(remaining, k + 1, remaining, k, remainingCount - k - 1);
+				remainingCount--;
+				break;
+			}
+		}
+	}
+
+	/* print out the remaining rows with their expected completion times */
+	private void printMatrix() {
+		if (remainingCount > 0) {
+			ensureMaterialized(remaining[remainingCount - 1]);
+		}
+		String indent = "           ";
+		System.out.println("The current required exceution time matrix is as below,with size of "
+				+ remainingCount + " by " + (colNum + 1));
+		for (int col = 0; col < colNum; col++) {
+			System.out.printf("    Vm" + col + indent);
+		}
+		System.out.println("cloudletNum");
+		String indent2 = "   ";
+		for (int k = 0; k < remainingCount; k++) {
+			int row = remaining[k];
+			for (int col = 0; col < colNum; col++) {
+				System.out.printf("%-15.5f", getCompletionTime(row, col));
+				System.out.printf(indent2);
+			}
+			System.out.printf("%-15.5f", (double) cloudletIds[row]);
+			System.out.printf(indent2);
+			System.out.printf("\n");
+		}
+	}
+
+	/* print out the vm suffrage record */
+	private void printSuffrageList() {
+		for (int col = 0; col < colNum; col++) {
+			int storedCloudletId = candidateRow[col] == -1 ? 0 : cloudletIds[candidateRow[col]];
+			System.out.printf("vm %d => cloudlet %d with suffrage %.4f \n", col, storedCloudletId,
+					candidateSuffrage[col]);
+		}
+	}
+
+	/**
+	 * Sets whether every step is traced to System.out.
+	 *
+	 * @param verbose true to print the matrix, the suffrage list and the ready times
+	 */
+	public void setVerbose(boolean verbose) {
+		this.verbose = verbose;
+	}
+
+	/**
+	 * Sets the log every decision is recorded to.
+	 *
+	 * @param decisionLog the decision log, or null to disable it
+	 */
+	public void setDecisionLog(DecisionLog decisionLog) {
+		this.decisionLog = decisionLog;
+	}
+
+	/**
+	 * Shares the vms with other tenants, column i running on slot i of the fleet.
+	 *
+	 * @param sharedView the shared fleet view, or null to schedule alone
+	 * @param tenant the index of this tenant in the view
+	 * @throws IllegalArgumentException if the view does not have one slot per vm
+	 */
+	public void setSharedView(SharedReadyTimeView sharedView, int tenant) {
+		if (sharedView != null && sharedView.getVmNum() != colNum) {
+			throw new IllegalArgumentException("Shared view has " + sharedView.getVmNum()
+					+ " slots but the scheduler has " + colNum + " vms");
+		}
+		int[] slots = new int[colNum];
+		for (int col = 0; col < colNum; col++) {
+			slots[col] = col;
+		}
+		setSharedView(sharedView, tenant, slots);
+	}
+
+	/**
+	 * Shares some of the vms with other tenants, such as the created vms of a fleet some of whose
+	 * vms could not be created.
+	 *
+	 * @param sharedView the shared fleet view, or null to schedule alone
+	 * @param tenant the index of this tenant in the view
+	 * @param slots the fleet slot of every column, -1 for a vm outside the fleet
+	 * @throws IllegalArgumentException if there is not one slot per column or a slot is not in the
+	 *             view
+	 */
+	public void setSharedView(SharedReadyTimeView sharedView, int tenant, int[] slots) {
+		if (sharedView != null) {
+			if (slots.length != colNum) {
+				throw new IllegalArgumentException("Expected " + colNum + " slots, got " + slots.length);
+			}
+			for (int slot : slots) {
+				if (slot < -1 || slot >= sharedView.getVmNum()) {
+					throw new IllegalArgumentException("Slot " + slot + " is not in the shared view");
+				}
+			}
+		}
+		this.sharedView = sharedView;
+		this.tenant = tenant;
+		sharedSlots = sharedView != null ? slots.clone() : null;
+		if (sharedView != null) {
+			// the delay depends on the work of the row, which the row scan kernel cannot add
+			simpleModel = false;
+		}
+	}
+
+	/**
+	 * Gets the runtime correction factor of a row on a column.
+	 *
+	 * @param row the row
+	 * @param col the column
+	 * @return the factor set by {@link #setRuntimeCorrection(int[], int[], double[][])}, 1 if none
+	 */
+	public double getRuntimeCorrection(int row, int col) {
+		return correction != null ? correction[rowClass[row]][colType[col]] : 1.0;
+	}
+
+	/**
+	 * Gets the id of every vm, in column order.
+	 *
+	 * @return a copy of the vm ids
+	 */
+	public int[] getVmIds() {
+		return vmIds.clone();
+	}
+
+	/**
+	 * Gets the number of iterations completed.
+	 *
+	 * @return the iteration count
+	 */
+	public int getIteration() {
+		return iteration;
+	}
+
+	/**
+	 * Gets the number of rows assigned by {@link #finishWithFallback()}.
+	 *
+	 * @return the number of rows placed by the fallback
+	 */
+	public int getFallbackCount() {
+		return fallbackCount;
+	}
+
+	/**
+	 * Gets the wall time spent scanning the FCFS window, steps 1 to 4 of every iteration.
+	 *
+	 * @return the scan time, in nanoseconds
+	 */
+	public long getScanNanos() {
+		return scanNanos;
+	}
+
+	/**
+	 * Gets the wall time spent choosing and assigning the winners, steps 5 to 8 of every iteration
+	 * and the earliest-ready fallback.
+	 *
+	 * @return the assignment time, in nanoseconds
+	 */
+	public long getAssignNanos() {
+		return assignNanos;
+	}
+
+	/**
+	 * Gets the total time the assigned rows wait for their vm: the sum over the rows of the ready
+	 * time of their vm just before they were assigned, a time-shared vm counting from the start of
+	 * its first row. Divided by {@link #getOrderCount()}, it gives the mean queue wait of the
+	 * schedule. Rows restored from a checkpoint are not counted.
+	 *
+	 * @return the total wait of the rows assigned by this scheduler
+	 */
+	public double getTotalWait() {
+		return waitSum;
+	}
+
+	/**
+	 * Gets the input data staged on the vms by the rows assigned so far, with
+	 * {@link #setDataAffinity(int[], double[], double[])}.
+	 *
+	 * @return the transfer volume, in data size units; 0 if the staging is not modeled
+	 */
+	public double getTransferVolume() {
+		return transferVolume;
+	}
+
+	/**
+	 * Gets the part of the staged data that was copied to a vm while another vm already held the
+	 * data of its key.
+	 *
+	 * @return the cross-vm transfer volume, in data size units
+	 */
+	public double getCrossVmTransferVolume() {
+		return crossVmTransferVolume;
+	}
+
+	/**
+	 * Gets the number of remaining rows the next iteration scans.
+	 *
+	 * @return the window size
+	 */
+	public int getWindowSize() {
+		return remainingCount / WINDOW_DIVISOR;
+	}
+
+	/**
+	 * Gets the number of rows (cloudlets).
+	 *
+	 * @return the row count
+	 */
+	public int getRowNum() {
+		return rowNum;
+	}
+
+	/**
+	 * Gets the number of columns (vms).
+	 *
+	 * @return the column count
+	 */
+	public int getColNum() {
+		return colNum;
+	}
+
+	/**
+	 * Gets the cloudlet id of a row.
+	 *
+	 * @param row the row
+	 * @return the cloudlet id
+	 */
+	public int getCloudletId(int row) {
+		return cloudletIds[row];
+	}
+
+	/**
+	 * Gets the vm id of a column.
+	 *
+	 * @param col the column
+	 * @return the vm id
+	 */
+	public int getVmId(int col) {
+		return vmIds[col];
+	}
+
+	/**
+	 * Gets the column a row has been assigned to.
+	 *
+	 * @param row the row
+	 * @return the column, or -1 if the row is not assigned yet
+	 */
+	public int getAssignment(int row) {
+		return assignment[row];
+	}
+
+	/**
+	 * Gets the row assigned in a given position of the sorted list.
+	 *
+	 * @param position the position, from 0 to getOrderCount() - 1
+	 * @return the row
+	 */
+	public int getOrder(int position) {
+		return order[position];
+	}
+
+	/**
+	 * Gets the number of rows assigned so far.
+	 *
+	 * @return the number of assigned rows
+	 */
+	public int getOrderCount() {
+		return orderCount;
+	}
+
+	/**
+	 * Gets the row at a given position of the queue of remaining rows.
+	 *
+	 * @param position the position, from 0 to getRemainingCount() - 1
+	 * @return the row
+	 */
+	public int getRemaining(int position) {
+		return remaining[position];
+	}
+
+	/**
+	 * Gets the number of rows not assigned yet.
+	 *
+	 * @return the number of remaining rows
+	 */
+	public int getRemainingCount() {
+		return remainingCount;
+	}
+
+	/**
+	 * Gets the ready time of a vm.
+	 *
+	 * @param col the column of the vm
+	 * @return the ready time
+	 */
+	public double getReadyTime(int col) {
+		return readyTime[col];
+	}
+
+	/**
+	 * Gets a lower bound of the planned start time of every row not assigned yet: the earliest
+	 * ready time of the vms, a time-shared vm counting from the start of its first row since new
+	 * rows share its PEs from then on. Ready times only grow, so the bound never decreases.
+	 *
+	 * @return the earliest start time of the rows left
+	 */
+	public double getEarliestStartTime() {
+		double earliest = Double.MAX_VALUE;
+		for (int col = 0; col < colNum; col++) {
+			double start = timeShared != null && timeShared[col] != null ? timeSharedStart[col] : readyTime[col];
+			earliest = Math.min(earliest, start);
+		}
+		return earliest;
+	}
+
+}
@@ -0,0 +1,181 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.examples;
+
+import java.util.Arrays;
+
+/**
+ * The completion times of cloudlets sharing a vm that uses CloudletSchedulerTimeShared, for the
+ * {@link SuffrageScheduler} and the {@link AnalyticalEvaluator}.
+ * <p>
+ * All the cloudlets bound to a vm are submitted together and run at once.
+ * CloudletSchedulerTimeShared gives each PE in use a rate of vm mips * vm PEs / max(PEs in use,
+ * vm PEs), so while at least as many PEs are requested as the vm has, the cloudlets progress at a
+ * fraction of the vm mips, and each cloudlet that finishes speeds up the others. With W(x) the PEs still in use once the
+ * cloudlets progressed by x MI per PE, a cloudlet of length l finishes at
+ * <pre>
+ * C(l) = integral from 0 to l of max(W(x), vm PEs) dx / (vm PEs * mips)
+ * </pre>
+ * W is a step function of the sorted cloudlet lengths, so the cloudlets are kept sorted by length
+ * with prefix sums of their work and suffix sums of their PEs: C(l) costs a binary search plus at
+ * most one step per vm PE, adding a cloudlet costs O(cloudlets).
+ */
+public class TimeSharedCompletionModel {
+
+	/** The mips of one PE of the vm. */
+	private final double mips;
+
+	/** The number of PEs of the vm. */
+	private final int vmPes;
+
+	/** The length of every cloudlet, in increasing order; only the first count are valid. */
+	private double[] length;
+
+	/** The PEs of every cloudlet, in the order of the lengths. */
+	private int[] pes;
+
+	/** prefixWork[k] is the sum of pes * length of the first k cloudlets. */
+	private double[] prefixWork;
+
+	/** suffixPes[k] is the sum of the PEs of the cloudlets from k on. */
+	private int[] suffixPes;
+
+	/** The number of cloudlets on the vm. */
+	private int count;
+
+	/**
+	 * Creates a model of an idle vm.
+	 *
+	 * @param mips the mips of one PE of the vm
+	 * @param vmPes the number of PEs of the vm
+	 * @pre mips > 0 && vmPes > 0
+	 * @post $none
+	 */
+	public TimeSharedCompletionModel(double mips, int vmPes) {
+		this.mips = mips;
+		this.vmPes = vmPes;
+		length = new double[16];
+		pes = new int[16];
+		prefixWork = new double[17];
+		suffixPes = new int[17];
+	}
+
+	/**
+	 * Computes the completion time of a cloudlet if it was added to the vm, counted from the time
+	 * the cloudlets are submitted.
+	 *
+	 * @param cloudletLength the length of the cloudlet, in MI per PE
+	 * @param cloudletPes the PEs of the cloudlet
+	 * @return the completion time
+	 */
+	public double getCompletionTime(double cloudletLength, int cloudletPes) {
+		return integrate(cloudletLength, cloudletPes) / (vmPes * mips);
+	}
+
+	/**
+	 * Gets the time the last cloudlet of the vm finishes, counted from the time the cloudlets are
+	 * submitted.
+	 *
+	 * @return the finish time, 0 if the vm has no cloudlet
+	 */
+	public double getFinishTime() {
+		return count == 0 ? 0.0 : integrate(length[count - 1], 0) / (vmPes * mips);
+	}
+
+	/**
+	 * Gets the time a cloudlet of the vm finishes, counted from the time the cloudlets are
+	 * submitted.
+	 *
+	 * @param cloudletLength the length of a cloudlet already added, in MI per PE
+	 * @return the finish time
+	 */
+	public double getFinishTime(double cloudletLength) {
+		return integrate(cloudletLength, 0) / (vmPes * mips);
+	}
+
+	/* the integral of max(W, vmPes) from 0 to l, W counting an extra cloudlet of extraPes PEs */
+	private double integrate(double l, int extraPes) {
+		int k = lowerBound(l);
+		double work = extraPes * l + prefixWork[k] + l * suffixPes[k];
+		// the stretches where fewer PEs than the vm has are in use run at full speed
+		double high = l;
+		for (int j = k; j >= 0; j--) {
+			int inUse = extraPes + suffixPes[j];
+			if (inUse >= vmPes) {
+				break;
+			}
+			double low = j == 0 ? 0.0 : length[j - 1];
+			work += (vmPes - inUse) * (high - low);
+			high = low;
+		}
+		return work;
+	}
+
+	/* the number of cloudlets shorter than l */
+	private int lowerBound(double l) {
+		int low = 0;
+		int high = count;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (length[middle] < l) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Adds a cloudlet to the vm.
+	 *
+	 * @param cloudletLength the length of the cloudlet, in MI per PE
+	 * @param cloudletPes the PEs of the cloudlet
+	 * @pre cloudletLength >= 0 && cloudletPes > 0
+	 * @post $none
+	 */
+	public void add(double cloudletLength, int cloudletPes) {
+		if (count == length.length) {
+			length = Arrays.copyOf(length, count * 2);
+			pes = Arrays.copyOf(pes, count * 2);
+			prefixWork = Arrays.copyOf(prefixWork, count * 2 + 1);
+			suffixPes = Arrays.copyOf(suffixPes, count * 2 + 1);
+		}
+		int k = lowerBound(cloudletLength);
+		System.arraycopy(length, k, length, k + 1, count - k);
+		System.arraycopy(pes, k, pes, k + 1, count - k);
+		length[k] = cloudletLength;
+		pes[k] = cloudletPes;
+		count++;
+		for (int i = k; i < count; i++) {
+			prefixWork[i + 1] = prefixWork[i] + pes[i] * length[i];
+		}
+		suffixPes[count] = 0;
+		for (int i = count - 1; i >= 0; i--) {
+			suffixPes[i] = suffixPes[i + 1] + pes[i];
+		}
+	}
+
+	/**
+	 * Removes every cloudlet from the vm.
+	 */
+	public void clear() {
+		count = 0;
+	}
+
+	/**
+	 * Gets the number of cloudlets on the vm.
+	 *
+	 * @return the cloudlet count
+	 */
+	public int getCount() {
+		return count;
+	}
+
+}
@@ -0,0 +1,481 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.examples;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.cloudbus.cloudsim.Datacenter;
+import org.cloudbus.cloudsim.DatacenterCharacteristics;
+import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.Storage;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.VmAllocationPolicySimple;
+import org.cloudbus.cloudsim.VmScheduler;
+import org.cloudbus.cloudsim.VmSchedulerTimeShared;
+import org.cloudbus.cloudsim.VmSchedulerTimeSharedOverSubscription;
+import org.cloudbus.cloudsim.power.PowerDatacenter;
+import org.cloudbus.cloudsim.power.PowerHost;
+import org.cloudbus.cloudsim.power.PowerVmAllocationPolicySimple;
+import org.cloudbus.cloudsim.power.models.PowerModel;
+import org.cloudbus.cloudsim.power.models.PowerModelLinear;
+import org.cloudbus.cloudsim.provisioners.BwProvisioner;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisioner;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+
+/**
+ * Builds the hosts of a datacenter from a few homogeneous host groups, for datacenters of
+ * hundreds of thousands of hosts.
+ * <p>
+ * A group is a host count and one host configuration, given by
+ * {@link #addHostGroup(int, int, int, int, long, long)} or parsed from a compact spec with
+ * {@link #addHostGroups(String)}. All the hosts of a group share the immutable parts of their
+ * configuration (the power model, the characteristics strings, the storage list); the
+ * provisioners, PEs and vm scheduler of a host hold allocation state and stay per host. Every
+ * list is allocated once at its final size, and the hosts get consecutive ids. By default the
+ * groups are laid out one after the other; {@link #setInterleaved(boolean)} alternates between
+ * them instead, like a rack mixing host models. {@link #setSharedFleet(SharedReadyTimeView)} makes
+ * the hosts the slots of a fleet shared by several tenants.
+ */
+public class TopologyBuilder {
+
+	/** The scheduling interval of power datacenters, as in {@link ExtendedExample}. */
+	public static final double POWER_SCHEDULING_INTERVAL = 300;
+
+	/** A host group. */
+	private static class HostGroup {
+
+		/** The number of hosts. */
+		final int count;
+
+		/** The number of PEs of a host. */
+		final int pes;
+
+		/** The MIPS rating of a PE. */
+		final int mips;
+
+		/** The memory of a host (MB). */
+		final int ram;
+
+		/** The bandwidth of a host. */
+		final long bw;
+
+		/** The storage of a host. */
+		final long storage;
+
+		/** The power model shared by the hosts of the group, or null for plain hosts. */
+		final PowerModel powerModel;
+
+		HostGroup(int count, int pes, int mips, int ram, long bw, long storage, PowerModel powerModel) {
+			this.count = count;
+			this.pes = pes;
+			this.mips = mips;
+			this.ram = ram;
+			this.bw = bw;
+			this.storage = storage;
+			this.powerModel = powerModel;
+		}
+	}
+
+	/** The host groups, in order. */
+	private final List<HostGroup> groups = new ArrayList<HostGroup>();
+
+	/** The total number of hosts of the groups. */
+	private int hostNum;
+
+	/** Whether the hosts of the groups alternate rather than follow each other. */
+	private boolean interleaved;
+
+	/** The fleet the hosts are the slots of, or null if they are not shared by tenants. */
+	private SharedReadyTimeView sharedFleet;
+
+	/** Places the vm with id v on host v % hosts, for a shared fleet. */
+	private static class SlotVmAllocationPolicy extends VmAllocationPolicySimple {
+
+		SlotVmAllocationPolicy(List<? extends Host> hostList) {
+			super(hostList);
+		}
+
+		@Override
+		public boolean allocateHostForVm(Vm vm) {
+			List<Host> hostList = getHostList();
+			return allocateHostForVm(vm, hostList.get(vm.getId() % hostList.size()));
+		}
+
+	}
+
+	/**
+	 * A slot of a shared fleet. Its capacity goes to the vms with cloudlets running, in proportion
+	 * to the weights of their tenants, and a vm without work leaves its part to the others: the
+	 * weighted processor sharing that {@link SharedReadyTimeView} plans with. The shares are taken
+	 * again at every update of the vms, whatever the vm scheduler allocated when they were created.
+	 */
+	private static class SharedSlotHost extends Host {
+
+		/** The fleet that holds the weights of the tenants. */
+		private final SharedReadyTimeView fleet;
+
+		SharedSlotHost(int id, RamProvisioner ramProvisioner, BwProvisioner bwProvisioner, long storage,
+				List<? extends Pe> peList, VmScheduler vmScheduler, SharedReadyTimeView fleet) {
+			super(id, ramProvisioner, bwProvisioner, storage, peList, vmScheduler);
+			this.fleet = fleet;
+		}
+
+		@Override
+		public double updateVmsProcessing(double currentTime) {
+			// the time since the last update ran with the vms that were busy then; the next events
+			// are estimated again with the vms still busy now, which may run faster from now on
+			updateVms(currentTime);
+			return updateVms(currentTime);
+		}
+
+		/* update every vm with its share among the busy vms and return the earliest next event */
+		private double updateVms(double currentTime) {
+			List<Vm> vms = getVmList();
+			double busyWeight = 0.0;
+			for (Vm vm : vms) {
+				if (vm.getCloudletScheduler().runningCloudlets() > 0) {
+					busyWeight += fleet.getUserWeight(vm.getUserId());
+				}
+			}
+			double peMips = (double) getTotalMips() / getNumberOfPes();
+			double smallerTime = Double.MAX_VALUE;
+			for (Vm vm : vms) {
+				double weight = fleet.getUserWeight(vm.getUserId());
+				// an idle vm gets the share it would have with work, for the estimate of its next
+				// submission; it never gets 0, which the cloudlet schedulers divide by
+				boolean busy = vm.getCloudletScheduler().runningCloudlets() > 0;
+				double share = getTotalMips() * weight / (busy ? busyWeight : busyWeight + weight);
+				int pes = vm.getNumberOfPes();
+				List<Double> mipsShare = new ArrayList<Double>(pes);
+				for (int pe = 0; pe < pes; pe++) {
+					mipsShare.add(Math.min(peMips, share / pes));
+				}
+				double time = vm.updateVmProcessing(currentTime, mipsShare);
+				if (time > 0.0 && time < smallerTime) {
+					smallerTime = time;
+				}
+			}
+			return smallerTime;
+		}
+
+	}
+
+	/** The system architecture. */
+	private String arch = "x86";
+
+	/** The operating system. */
+	private String os = "Linux";
+
+	/** The virtual machine monitor. */
+	private String vmm = "Xen";
+
+	/** The time zone of the datacenter. */
+	private double timeZone = 10.0;
+
+	/** The cost of using processing. */
+	private double cost = 3.0;
+
+	/** The cost of using memory. */
+	private double costPerMem = 0.05;
+
+	/** The cost of using storage. */
+	private double costPerStorage = 0.001;
+
+	/** The cost of using bandwidth. */
+	private double costPerBw = 0.0;
+
+	/**
+	 * Creates a builder without host groups, with the characteristics and prices of
+	 * {@link ExtendedExample}.
+	 */
+	public TopologyBuilder() {
+	}
+
+	/**
+	 * Adds a group of plain hosts.
+	 *
+	 * @param count the number of hosts
+	 * @param pes the number of PEs of a host
+	 * @param mips the MIPS rating of a PE
+	 * @param ram the memory of a host (MB)
+	 * @param bw the bandwidth of a host
+	 * @param storage the storage of a host
+	 * @return this builder
+	 * @throws IllegalArgumentException if a value is not positive
+	 */
+	public TopologyBuilder addHostGroup(int count, int pes, int mips, int ram, long bw, long storage) {
+		return addPowerHostGroup(count, pes, mips, ram, bw, storage, null);
+	}
+
+	/**
+	 * Adds a group of power hosts. The power model is shared by the hosts of the group, so it must
+	 * not keep per host state (the CloudSim power models do not).
+	 *
+	 * @param count the number of hosts
+	 * @param pes the number of PEs of a host
+	 * @param mips the MIPS rating of a PE
+	 * @param ram the memory of a host (MB)
+	 * @param bw the bandwidth of a host
+	 * @param storage the storage of a host
+	 * @param powerModel the power model of the hosts, or null for plain hosts
+	 * @return this builder
+	 * @throws IllegalArgumentException if a value is not positive
+	 */
+	public TopologyBuilder addPowerHostGroup(int count, int pes, int mips, int ram, long bw, long storage,
+			PowerModel powerModel) {
+		if (count <= 0 || pes <= 0 || mips <= 0 || ram <= 0 || bw <= 0 || storage <= 0) {
+			throw new IllegalArgumentException("Host group values must be positive, got " + count + " hosts of "
+					+ pes + " pes, " + mips + " mips, " + ram + " ram, " + bw + " bw, " + storage + " storage");
+		}
+		groups.add(new HostGroup(count, pes, mips, ram, bw, storage, powerModel));
+		hostNum += count;
+		return this;
+	}
+
+	/**
+	 * Adds host groups from a compact spec: groups separated by commas, each
+	 * count:pes:mips[:ram[:bw[:storage]]], the missing values being those of
+	 * {@link ExtendedExample} (2048, 10000, 1000000). For instance "100000:2:1000,20000:8:2500:16384"
+	 * gives 100000 dual-core hosts and 20000 bigger ones.
+	 *
+	 * @param spec the groups
+	 * @return this builder
+	 * @throws IllegalArgumentException if the spec is malformed
+	 */
+	public TopologyBuilder addHostGroups(String spec) {
+		return addPowerHostGroups(spec, null);
+	}
+
+	/**
+	 * Adds host groups from a compact spec, see {@link #addHostGroups(String)}, all with the
+	 * given power model.
+	 *
+	 * @param spec the groups
+	 * @param powerModel the power model of the hosts, or null for plain hosts
+	 * @return this builder
+	 * @throws IllegalArgumentException if the spec is malformed
+	 */
+	public TopologyBuilder addPowerHostGroups(String spec, PowerModel powerModel) {
+		for (String group : spec.split(",")) {
+			String[] fields = group.trim().split(":");
+			if (fields.length < 3 || fields.length > 6) {
+				throw new IllegalArgumentException("Expected count:pes:mips[:ram[:bw[:storage]]], got " + group);
+			}
+			try {
+				addPowerHostGroup(Integer.parseInt(fields[0].trim()), Integer.parseInt(fields[1].trim()),
+						Integer.parseInt(fields[2].trim()),
+						fields.length > 3 ? Integer.parseInt(fields[3].trim()) : 2048,
+						fields.length > 4 ? Long.parseLong(fields[4].trim()) : 10000,
+						fields.length > 5 ? Long.parseLong(fields[5].trim()) : 1000000, powerModel);
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException("Expected count:pes:mips[:ram[:bw[:storage]]], got " + group);
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * Sets whether the hosts of the groups alternate (one of each group in turn, until the smaller
+	 * groups run out) rather than follow each other.
+	 *
+	 * @param interleaved true to alternate
+	 * @return this builder
+	 */
+	public TopologyBuilder setInterleaved(boolean interleaved) {
+		this.interleaved = interleaved;
+		return this;
+	}
+
+	/**
+	 * Makes the hosts the slots of a fleet shared by several tenants: the vm with id v is created
+	 * on host v % getHostNum(), so that tenant t giving its vms the ids t * hosts + slot puts them
+	 * on the host of their slot. Every vm may ask for the whole host
+	 * (VmSchedulerTimeSharedOverSubscription admits them all), and while the simulation runs the
+	 * host splits its MIPS between the vms with cloudlets running in proportion to the weights
+	 * their tenants have in the fleet view, an idle vm leaving its share to the others. This is
+	 * the processor sharing the view plans with. Plain hosts only.
+	 *
+	 * @param sharedFleet the view of the fleet, which registers the tenants and their weights, or
+	 *            null for hosts that are not shared
+	 * @return this builder
+	 */
+	public TopologyBuilder setSharedFleet(SharedReadyTimeView sharedFleet) {
+		this.sharedFleet = sharedFleet;
+		return this;
+	}
+
+	/**
+	 * Sets the prices of the datacenter.
+	 *
+	 * @param cost the cost of using processing
+	 * @param costPerMem the cost of using memory
+	 * @param costPerStorage the cost of using storage
+	 * @param costPerBw the cost of using bandwidth
+	 * @return this builder
+	 */
+	public TopologyBuilder setPrices(double cost, double costPerMem, double costPerStorage, double costPerBw) {
+		this.cost = cost;
+		this.costPerMem = costPerMem;
+		this.costPerStorage = costPerStorage;
+		this.costPerBw = costPerBw;
+		return this;
+	}
+
+	/**
+	 * Sets the characteristics of the datacenter.
+	 *
+	 * @param arch the system architecture
+	 * @param os the operating system
+	 * @param vmm the virtual machine monitor
+	 * @param timeZone the time zone
+	 * @return this builder
+	 */
+	public TopologyBuilder setCharacteristics(String arch, String os, String vmm, double timeZone) {
+		this.arch = arch;
+		this.os = os;
+		this.vmm = vmm;
+		this.timeZone = timeZone;
+		return this;
+	}
+
+	/**
+	 * Gets the number of hosts of the groups added so far.
+	 *
+	 * @return the host count
+	 */
+	public int getHostNum() {
+		return hostNum;
+	}
+
+	/**
+	 * Checks whether the groups are power host groups.
+	 *
+	 * @return true if every group has a power model
+	 * @throws IllegalStateException if only some groups have one
+	 */
+	public boolean isPower() {
+		int powerGroups = 0;
+		for (HostGroup group : groups) {
+			if (group.powerModel != null) {
+				powerGroups++;
+			}
+		}
+		if (powerGroups > 0 && powerGroups < groups.size()) {
+			throw new IllegalStateException("A datacenter cannot mix power hosts and plain hosts");
+		}
+		return powerGroups > 0;
+	}
+
+	/**
+	 * Creates the hosts of the groups, with ids from 0.
+	 *
+	 * @return the hosts, power hosts if the groups have power models
+	 * @throws IllegalStateException if only some groups have a power model, or a shared fleet has
+	 *             power hosts
+	 * @pre $none
+	 * @post $result.size() == getHostNum()
+	 */
+	public List<Host> buildHosts() {
+		if (isPower() && sharedFleet != null) {
+			throw new IllegalStateException("A shared fleet needs plain hosts");
+		}
+		List<Host> hostList = new ArrayList<Host>(hostNum);
+		if (!interleaved) {
+			for (HostGroup group : groups) {
+				for (int i = 0; i < group.count; i++) {
+					hostList.add(createHost(hostList.size(), group));
+				}
+			}
+			return hostList;
+		}
+		for (int i = 0; hostList.size() < hostNum; i++) {
+			for (HostGroup group : groups) {
+				if (i < group.count) {
+					hostList.add(createHost(hostList.size(), group));
+				}
+			}
+		}
+		return hostList;
+	}
+
+	/**
+	 * Creates a datacenter of the hosts of the groups: a {@link PowerDatacenter} with power hosts
+	 * if the groups have power models, a plain {@link Datacenter} otherwise.
+	 *
+	 * @param name the name of the datacenter
+	 * @return the datacenter
+	 * @throws IllegalStateException if there are no hosts, only some groups have a power model, or
+	 *             a shared fleet has power hosts
+	 * @throws Exception if CloudSim rejects the datacenter
+	 * @pre name != null
+	 * @post $none
+	 */
+	public Datacenter build(String name) throws Exception {
+		if (hostNum == 0) {
+			throw new IllegalStateException("Datacenter " + name + " has no hosts");
+		}
+		boolean power = isPower();
+		List<Host> hostList = buildHosts();
+		DatacenterCharacteristics characteristics = new DatacenterCharacteristics(arch, os, vmm, hostList,
+				timeZone, cost, costPerMem, costPerStorage, costPerBw);
+		LinkedList<Storage> storageList = new LinkedList<Storage>();
+		if (power) {
+			return new PowerDatacenter(name, characteristics, new PowerVmAllocationPolicySimple(hostList),
+					storageList, POWER_SCHEDULING_INTERVAL);
+		}
+		VmAllocationPolicySimple allocationPolicy = sharedFleet != null
+				? new SlotVmAllocationPolicy(hostList) : new VmAllocationPolicySimple(hostList);
+		return new Datacenter(name, characteristics, allocationPolicy, storageList, 0);
+	}
+
+	/**
+	 * Creates the linear power model of the older host model of {@link ExtendedExample}: 250 W
+	 * at full load, 70% of it idle.
+	 *
+	 * @return the power model
+	 */
+	public static PowerModel createOlderPowerModel() {
+		return new PowerModelLinear(250, 0.7);
+	}
+
+	/**
+	 * Creates the linear power model of the more efficient host model of {@link ExtendedExample}:
+	 * 135 W at full load, 50% of it idle.
+	 *
+	 * @return the power model
+	 */
+	public static PowerModel createEfficientPowerModel() {
+		return new PowerModelLinear(135, 0.5);
+	}
+
+	/* one host of a group; the PEs, provisioners and vm scheduler hold allocation state */
+	private Host createHost(int hostId, HostGroup group) {
+		List<Pe> peList = new ArrayList<Pe>(group.pes);
+		for (int peId = 0; peId < group.pes; peId++) {
+			peList.add(new Pe(peId, new PeProvisionerSimple(group.mips)));
+		}
+		if (sharedFleet != null) {
+			VmScheduler vmScheduler = new VmSchedulerTimeSharedOverSubscription(peList);
+			return new SharedSlotHost(hostId, new RamProvisionerSimple(group.ram),
+					new BwProvisionerSimple(group.bw), group.storage, peList, vmScheduler, sharedFleet);
+		}
+		if (group.powerModel != null) {
+			return new PowerHost(hostId, new RamProvisionerSimple(group.ram), new BwProvisionerSimple(group.bw),
+					group.storage, peList, new VmSchedulerTimeShared(peList), group.powerModel);
+		}
+		return new Host(hostId, new RamProvisionerSimple(group.ram), new BwProvisionerSimple(group.bw),
+				group.storage, peList, new VmSchedulerTimeShared(peList));
+	}
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.examples;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The SIMD row scan, with the vector API of the jdk.incubator.vector module (JDK 16 or later;
+ * compile and run with --add-modules jdk.incubator.vector). Never referenced directly: it is
+ * loaded by {@link RowScanKernel#createVector()}, and by {@link RowScanKernel#create()} with
+ * -Dsuffrage.rowScan=vector, so the rest of the code builds and runs without the module.
+ * <p>
+ * It lives in the vector directory, outside the default sources, and is built on its own against
+ * the classes of the examples:
+ * <pre>
+ * javac --add-modules jdk.incubator.vector -cp classes -d classes vector/VectorRowScanKernel.java
+ * </pre>
+ * <p>
+ * Every lane keeps the smallest value it saw with its column, replacing it only on a strictly
+ * smaller value, and the largest value. The lanes are then reduced, the smallest column winning
+ * among the lanes holding the minimum, and the columns left over are scanned one by one; this
+ * gives the first column holding the minimum, as the scalar scan does.
+ */
+public class VectorRowScanKernel extends RowScanKernel {
+
+	/** The preferred vector shape of the platform. */
+	private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+	/** The number of lanes. */
+	private static final int LANES = SPECIES.length();
+
+	/** The column of every lane in the first vector: 0, 1, ..., LANES - 1. */
+	private static final DoubleVector IOTA;
+
+	static {
+		double[] iota = new double[LANES];
+		for (int lane = 0; lane < LANES; lane++) {
+			iota[lane] = lane;
+		}
+		IOTA = DoubleVector.fromArray(SPECIES, iota, 0);
+	}
+
+	/**
+	 * Creates a SIMD kernel.
+	 */
+	public VectorRowScanKernel() {
+	}
+
+	@Override
+	public void scan(double[] score, int base, double[] readyTime, double[] externalDelay, int colNum) {
+		// below two vectors the reductions cost more than they save
+		if (colNum < 2 * LANES) {
+			super.scan(score, base, readyTime, externalDelay, colNum);
+			return;
+		}
+		int bound = SPECIES.loopBound(colNum);
+		DoubleVector step = DoubleVector.broadcast(SPECIES, LANES);
+		DoubleVector column = IOTA;
+		DoubleVector lowest = DoubleVector.fromArray(SPECIES, score, base)
+				.add(DoubleVector.fromArray(SPECIES, readyTime, 0))
+				.add(DoubleVector.fromArray(SPECIES, externalDelay, 0));
+		DoubleVector lowestColumn = column;
+		DoubleVector highest = lowest;
+		for (int col = LANES; col < bound; col += LANES) {
+			column = column.add(step);
+			DoubleVector current = DoubleVector.fromArray(SPECIES, score, base + col)
+					.add(DoubleVector.fromArray(SPECIES, readyTime, col))
+					.add(DoubleVector.fromArray(SPECIES, externalDelay, col));
+			VectorMask<Double> lower = current.compare(VectorOperators.LT, lowest);
+			lowest = lowest.blend(current, lower);
+			lowestColumn = lowestColumn.blend(column, lower);
+			highest = highest.max(current);
+		}
+
+		double smallest = lowest.reduceLanes(VectorOperators.MIN);
+		VectorMask<Double> holdsMin = lowest.compare(VectorOperators.EQ, smallest);
+		int colIndexOfMin = (int) lowestColumn.blend(Double.MAX_VALUE, holdsMin.not()).reduceLanes(
+				VectorOperators.MIN);
+		// the exact value of that column, as the scalar scan would return it
+		smallest = score[base + colIndexOfMin] + readyTime[colIndexOfMin] + externalDelay[colIndexOfMin];
+		double largest = highest.reduceLanes(VectorOperators.MAX);
+		for (int col = bound; col < colNum; col++) {
+			double current = score[base + col] + readyTime[col] + externalDelay[col];
+			if (current < smallest) {
+				colIndexOfMin = col;
+				smallest = current;
+			} else if (current > largest) {
+				largest = current;
+			}
+		}
+		min = smallest;
+		minIndex = colIndexOfMin;
+		max = largest;
+	}
+
+	@Override
+	public String getName() {
+		return "vector (" + LANES + " lanes)";
+	}
+
+}